@@ -0,0 +1,107 @@
+package domain.model;
+
+import jakarta.persistence.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+@Entity
+@Table(name = "material_contents")
+public class MaterialContent {
+    // Shares the material's primary key like MaterialPreview
+    @Id
+    private int materialId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "MaterialId")
+    private StudyMaterial material;
+
+    // Text extracted from the file, UTF-8 compressed with Deflater; see compress and decompress
+    @Lob
+    @Column(name = "CompressedText", columnDefinition = "LONGBLOB")
+    private byte[] compressedText;
+
+    @Column(name = "TextLength")
+    private int textLength;
+
+    @Column(name = "ExtractedAt")
+    private LocalDateTime extractedAt;
+
+    // Default constructor
+    public MaterialContent() {}
+
+    public MaterialContent(StudyMaterial material, String text) {
+        this.material = material;
+        setText(text);
+    }
+
+    public int getMaterialId() {
+        return materialId;
+    }
+    public StudyMaterial getMaterial() {
+        return material;
+    }
+    public byte[] getCompressedText() {
+        return compressedText;
+    }
+    public int getTextLength() {
+        return textLength;
+    }
+    public LocalDateTime getExtractedAt() {
+        return extractedAt;
+    }
+
+    public String getText() {
+        return decompress(compressedText);
+    }
+    public void setText(String text) {
+        this.compressedText = compress(text);
+        this.textLength = text.length();
+        this.extractedAt = LocalDateTime.now();
+    }
+
+    public static byte[] compress(String text) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decompress(byte[] compressed) {
+        if (compressed == null) {
+            return "";
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Compressed material text is truncated");
+                }
+                out.write(chunk, 0, inflated);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed material text is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
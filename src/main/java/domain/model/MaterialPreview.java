@@ -0,0 +1,41 @@
+package domain.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "material_previews")
+public class MaterialPreview {
+    // Shares the material's primary key, so a preview is looked up by material id without a join
+    @Id
+    private int materialId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "MaterialId")
+    private StudyMaterial material;
+
+    @Lob
+    @Column(name = "PreviewImage", columnDefinition = "LONGBLOB")
+    private byte[] image;
+
+    // Default constructor
+    public MaterialPreview() {}
+
+    public MaterialPreview(StudyMaterial material, byte[] image) {
+        this.material = material;
+        this.image = image;
+    }
+
+    public int getMaterialId() {
+        return materialId;
+    }
+    public StudyMaterial getMaterial() {
+        return material;
+    }
+    public byte[] getImage() {
+        return image;
+    }
+    public void setImage(byte[] image) {
+        this.image = image;
+    }
+}
@@ -0,0 +1,31 @@
+package domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a study material with just what the card and list views show.
+ * Loaded with constructor-expression queries so list pages don't pull the tags, the
+ * uploader's role graph or the material description. The rating comes from the average
+ * kept on the material row; queries leave the thumbnail out and card views attach it after
+ * one batched fetch for the whole list.
+ */
+public record MaterialSummary(int materialId, String name, String uploaderName, LocalDateTime timestamp,
+                              String fileType, double averageRating, byte[] thumbnail) {
+
+    public MaterialSummary(int materialId, String name, String uploaderName, LocalDateTime timestamp, String fileType) {
+        this(materialId, name, uploaderName, timestamp, fileType, 0.0, null);
+    }
+
+    public MaterialSummary(int materialId, String name, String uploaderName, LocalDateTime timestamp, String fileType,
+                           double averageRating) {
+        this(materialId, name, uploaderName, timestamp, fileType, averageRating, null);
+    }
+
+    public MaterialSummary withAverageRating(double averageRating) {
+        return new MaterialSummary(materialId, name, uploaderName, timestamp, fileType, averageRating, thumbnail);
+    }
+
+    public MaterialSummary withThumbnail(byte[] thumbnail) {
+        return new MaterialSummary(materialId, name, uploaderName, timestamp, fileType, averageRating, thumbnail);
+    }
+}
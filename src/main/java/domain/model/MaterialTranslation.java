@@ -0,0 +1,7 @@
+package domain.model;
+
+/**
+ * Name and description of a study material in one language.
+ */
+public record MaterialTranslation(String name, String description) {
+}
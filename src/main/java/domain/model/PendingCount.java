@@ -0,0 +1,7 @@
+package domain.model;
+
+/**
+ * A course together with how many of its materials are waiting for approval.
+ */
+public record PendingCount(Category category, long pendingCount) {
+}
@@ -0,0 +1,8 @@
+package domain.model;
+
+/**
+ * Average score and number of ratings of one study material.
+ */
+public record RatingStats(double average, long count) {
+    public static final RatingStats NONE = new RatingStats(0.0, 0);
+}
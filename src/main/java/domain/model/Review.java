@@ -15,6 +15,9 @@ public class Review {
     private String reviewText;
     @Column(name="Timestamp")
     private LocalDateTime timestamp = LocalDateTime.now();
+    // Language the text was written in; null for reviews translated when posted
+    @Column(name = "SourceLanguage", length = 10)
+    private String sourceLanguage;
     @ManyToOne
     @JoinColumn(name = "materialId")
     private StudyMaterial studyMaterial;
@@ -52,5 +55,11 @@ public class Review {
     public void setUser(User user) {
         this.user = user;
     }
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+    public void setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+    }
 
 }
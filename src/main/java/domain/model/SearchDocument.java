@@ -0,0 +1,25 @@
+package domain.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The searchable text of a study material: its own name and description plus the name of
+ * its course and its tags, keyed by tag id. Its average rating and upload time are carried
+ * along for ranking.
+ */
+public record SearchDocument(int materialId, String name, String description, int categoryId, String courseName,
+                             Map<Integer, String> tags, double ratingAverage, LocalDateTime timestamp) {
+
+    public static SearchDocument of(StudyMaterial material) {
+        Map<Integer, String> tags = new LinkedHashMap<>();
+        for (Tag tag : material.getTags()) {
+            tags.put(tag.getTagId(), tag.getTagName());
+        }
+        Category category = material.getCategory();
+        return new SearchDocument(material.getMaterialId(), material.getName(), material.getDescription(),
+                category != null ? category.getCategoryId() : 0, category != null ? category.getCategoryName() : null, tags,
+                material.getRatingAverage(), material.getTimestamp());
+    }
+}
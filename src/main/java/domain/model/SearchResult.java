@@ -0,0 +1,22 @@
+package domain.model;
+
+/**
+ * One entry of a merged search result list: a material, course or tag with its relevance
+ * score. Exactly one of material, category and tag is set, matching the kind.
+ */
+public record SearchResult(Kind kind, double score, MaterialSummary material, Category category, Tag tag) {
+
+    public enum Kind { MATERIAL, CATEGORY, TAG }
+
+    public static SearchResult of(MaterialSummary material, double score) {
+        return new SearchResult(Kind.MATERIAL, score, material, null, null);
+    }
+
+    public static SearchResult of(Category category, double score) {
+        return new SearchResult(Kind.CATEGORY, score, null, category, null);
+    }
+
+    public static SearchResult of(Tag tag, double score) {
+        return new SearchResult(Kind.TAG, score, null, null, tag);
+    }
+}
@@ -0,0 +1,63 @@
+package domain.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Also holds the preview of every material uploaded with this content, which PreviewRepository
+// finds through the shared link, so a duplicate upload adds no image bytes
+@Entity
+@Table(name = "stored_files", indexes = @Index(name = "idx_stored_files_link", columnList = "FileLink"))
+public class StoredFile {
+    // Hex SHA-256 of the file content, so an upload of the same bytes finds the stored copy
+    @Id
+    @Column(name = "Sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "FileLink", length = 255, nullable = false)
+    private String link;
+
+    @Column(name = "FileType")
+    private String fileType;
+
+    @Column(name = "FileSize")
+    private long fileSize;
+
+    @Lob
+    @Column(name = "PreviewImage", columnDefinition = "LONGBLOB")
+    private byte[] previewImage;
+
+    @Column(name = "StoredAt")
+    private LocalDateTime storedAt;
+
+    // Default constructor
+    public StoredFile() {}
+
+    public StoredFile(String sha256, String link, String fileType, long fileSize, byte[] previewImage) {
+        this.sha256 = sha256;
+        this.link = link;
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.previewImage = previewImage;
+        this.storedAt = LocalDateTime.now();
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+    public String getLink() {
+        return link;
+    }
+    public String getFileType() {
+        return fileType;
+    }
+    public long getFileSize() {
+        return fileSize;
+    }
+    public byte[] getPreviewImage() {
+        return previewImage;
+    }
+    public LocalDateTime getStoredAt() {
+        return storedAt;
+    }
+}
@@ -8,11 +8,18 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "study_materials")
+@Table(name = "study_materials", indexes = {
+        // Backs the keyset-paginated lists ordered by (timestamp, materialId)
+        @Index(name = "idx_materials_status_timestamp", columnList = "Status, TimeStamp, materialId"),
+        // Lets the top-rated list read the materials in index order instead of grouping all ratings
+        @Index(name = "idx_materials_rating_average", columnList = "RatingAverage, RatingCount")
+})
 
 public class StudyMaterial {
+    // Sequence (not IDENTITY) ids so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "study_material_seq")
+    @SequenceGenerator(name = "study_material_seq", sequenceName = "study_materials_seq", allocationSize = 50)
     private int materialId;
 
     @ManyToOne
@@ -45,6 +52,10 @@ public class StudyMaterial {
     @Column(name = "Status")
     private MaterialStatus status;
 
+    // Language the name and description were written in; null for materials translated on upload
+    @Column(name = "SourceLanguage", length = 10)
+    private String sourceLanguage;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
             name = "MaterialTag",
@@ -58,8 +69,22 @@ public class StudyMaterial {
 
     @OneToMany(mappedBy = "studyMaterial")
     private Set<Review> reviews = new HashSet<>();
-    @Lob
-    @Column(name = "PreviewImage", columnDefinition = "LONGBLOB")
+
+    // Rating totals kept in step with the ratings table by RatingRepository's bulk updates.
+    // Never written through the entity, so merging a stale material can't overwrite them.
+    @Column(name = "RatingCount", columnDefinition = "INT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private int ratingCount;
+
+    @Column(name = "RatingSum", columnDefinition = "BIGINT NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private long ratingSum;
+
+    @Column(name = "RatingAverage", columnDefinition = "DOUBLE PRECISION NOT NULL DEFAULT 0", insertable = false, updatable = false)
+    private double ratingAverage;
+
+    // Stored in material_previews (see MaterialPreview), or for uploads once per content in
+    // stored_files (see StoredFile), so material queries don't read the image bytes.
+    // Only set on new materials before saving, or when a page loads it through PreviewRepository.
+    @Transient
     private byte[] previewImage;
 
     // Default constructor
@@ -147,6 +172,12 @@ public class StudyMaterial {
     public void setStatus(MaterialStatus status) {
         this.status = status;
     }
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+    public void setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+    }
     public Category getCategory() {
         return category;
     }
@@ -165,6 +196,15 @@ public class StudyMaterial {
     public void setRatings(Set<Rating> ratings) {
         this.ratings = ratings;
     }
+    public int getRatingCount() {
+        return ratingCount;
+    }
+    public long getRatingSum() {
+        return ratingSum;
+    }
+    public double getRatingAverage() {
+        return ratingAverage;
+    }
     public byte[] getPreviewImage() {
         return previewImage;
     }
@@ -0,0 +1,58 @@
+package domain.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A translation the service has already fetched, keyed by a hash of the source text and
+ * the language pair so repeated text never goes back to the translation API.
+ */
+@Entity
+@Table(name = "translation_memory", indexes = {
+        @Index(name = "idx_translation_memory_created", columnList = "created_at")
+})
+public class TranslationMemoryEntry {
+    @Id
+    @Column(name = "text_hash", length = 64)
+    private String textHash;
+
+    @Column(name = "source_language", length = 10, nullable = false)
+    private String sourceLanguage;
+
+    @Column(name = "target_language", length = 10, nullable = false)
+    private String targetLanguage;
+
+    @Column(name = "translated_text", columnDefinition = "TEXT")
+    private String translatedText;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public TranslationMemoryEntry() {}
+
+    public TranslationMemoryEntry(String textHash, String sourceLanguage, String targetLanguage, String translatedText) {
+        this.textHash = textHash;
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.translatedText = translatedText;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getTextHash() {
+        return textHash;
+    }
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+    public String getTranslatedText() {
+        return translatedText;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,73 @@
+package domain.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Storage for the files behind study materials. A stored file is identified by the link
+ * returned on upload, which is what {@code StudyMaterial.link} holds.
+ * <p>
+ * {@link GoogleDriveService} keeps files in Google Drive; {@link LocalBlobStore} keeps
+ * them in a directory on this machine, for self-hosted installs and test rigs.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores a file.
+     *
+     * @param content     byte array of file content
+     * @param filename    name of the file to be stored
+     * @param contentType MIME type of the file
+     * @return the link to read the file back with
+     * @throws IOException if the file cannot be stored
+     */
+    String uploadFile(byte[] content, String filename, String contentType) throws IOException;
+
+    /**
+     * Stores a file streamed from disk, never holding more than a fixed-size part of it in
+     * memory.
+     *
+     * @param source      the file to store
+     * @param filename    name of the file to be stored
+     * @param contentType MIME type of the file
+     * @param sha256      hex SHA-256 of the file, which the caller has already computed
+     * @return the link to read the file back with
+     * @throws IOException if the file cannot be read or stored
+     */
+    String uploadFile(Path source, String filename, String contentType, String sha256) throws IOException;
+
+    /**
+     * Copies a stored file to the output stream, which is left open.
+     *
+     * @param link             link returned by {@link #uploadFile}
+     * @param outputStream     where to write the file
+     * @param progressCallback receives the number of bytes written so far
+     * @throws IOException if the file cannot be read
+     */
+    void downloadFile(String link, OutputStream outputStream, Consumer<Long> progressCallback) throws IOException;
+
+    long getFileSize(String link) throws IOException;
+
+    /**
+     * Whether the link points into this store.
+     */
+    boolean owns(String link);
+
+    /**
+     * Returns the store new uploads go to: the local store when the
+     * {@code studyshelf.storage} system property is "local", Google Drive otherwise.
+     */
+    static BlobStore getDefault() {
+        return LocalBlobStore.isSelected() ? LocalBlobStore.getInstance() : GoogleDriveService.getInstance();
+    }
+
+    /**
+     * Returns the store holding the file behind a link, whichever store is the default,
+     * so files uploaded before a switch stay readable.
+     */
+    static BlobStore forLink(String link) {
+        return LocalBlobStore.getInstance().owns(link) ? LocalBlobStore.getInstance() : GoogleDriveService.getInstance();
+    }
+}
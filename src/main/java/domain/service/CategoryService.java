@@ -1,16 +1,22 @@
 package domain.service;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
+import domain.model.PendingCount;
 import domain.model.StudyMaterial;
 import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
 import domain.model.PermissionType;
 import domain.model.User;
 import infrastructure.repository.StudyMaterialRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static domain.model.RoleType.ADMIN;
 
@@ -20,6 +26,11 @@ import static domain.model.RoleType.ADMIN;
  */
 public class CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
+    private static final long PENDING_COUNT_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final Map<Integer, CachedPendingCounts> pendingCountCache = new ConcurrentHashMap<>();
+
+    private record CachedPendingCounts(List<PendingCount> counts, long loadedAt) {}
+
     private final CategoryRepository repository;
     private final PermissionService permissionService;
 
@@ -56,6 +67,27 @@ public class CategoryService {
         return repository.findApprovedMaterialsByCategory(c);
     }
 
+    /**
+     * Returns one page of approved study materials for a given category, newest first by default.
+     */
+    public Page<StudyMaterial> getApprovedMaterialsByCategory(User currentUser, Category c, PageRequest request) {
+        return repository.findApprovedMaterialsByCategory(c, request);
+    }
+
+    /**
+     * Returns one page of approved materials uploaded by the category's creator.
+     */
+    public Page<MaterialSummary> getCreatorMaterialsByCategory(User currentUser, Category c, PageRequest request) {
+        return repository.findApprovedCreatorSummariesByCategory(c, request);
+    }
+
+    /**
+     * Returns one page of approved materials uploaded by anyone other than the category's creator.
+     */
+    public Page<MaterialSummary> getOtherMaterialsByCategory(User currentUser, Category c, PageRequest request) {
+        return repository.findApprovedOtherSummariesByCategory(c, request);
+    }
+
     // CREATE_CATEGORY
     /**
      * Creates a new category if the user has permission to do so.
@@ -67,7 +99,9 @@ public class CategoryService {
         }
 
         logger.info("User {} created a new category: {}", user.getEmail(), category.getCategoryName());
-        return repository.save(category);
+        Category saved = repository.save(category);
+        SearchIndex.getInstance().indexCategory(saved);
+        return saved;
     }
 
     /**
@@ -91,7 +125,9 @@ public class CategoryService {
 
         existingCategory.setCategoryName(updatedCategory.getCategoryName());
         logger.info("User {} updated category: {}", user.getEmail(), existingCategory.getCategoryName());
-        return repository.save(existingCategory);
+        Category saved = repository.save(existingCategory);
+        SearchIndex.getInstance().indexCategory(saved);
+        return saved;
     }
 
     /**
@@ -125,7 +161,7 @@ public class CategoryService {
 
         long materialCount = repository.countMaterialsByCategory(category);
         if (materialCount > 0) {
-            StudyMaterialService smServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+            StudyMaterialService smServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
             repository.findMaterialsByCategory(category).forEach(material -> {
                 smServ.deleteMaterial(user, material);
             });
@@ -133,23 +169,40 @@ public class CategoryService {
 
         logger.info("User {} deleted category: {}", user.getEmail(), category.getCategoryName());
         repository.delete(category);
+        SearchIndex.getInstance().removeCategory(categoryId);
     }
 
     /**
      * Gets all user-owned categories that have at least one pending material.
      */
     public List<Category> getOwnedCategoriesWithPending(User u) {
-        List<Category> allCategories = repository.findCategoriesByUser(u);
-        List<Category> pendingCategories = new ArrayList<>();
-
-        for (Category category : allCategories) {
-            long pendingCount = repository.countPendingMaterialsByCategory(category);
-            if (pendingCount > 0) {
-                pendingCategories.add(category);
-            }
+        return getPendingCounts(u).stream()
+                .map(PendingCount::category)
+                .toList();
+    }
+
+    /**
+     * Returns the user's courses that have pending materials, with how many each one has.
+     * Results are shared between screens and reused for a few seconds, so the home banner
+     * and header badges don't each run their own count.
+     */
+    public List<PendingCount> getPendingCounts(User u) {
+        long now = System.nanoTime();
+        CachedPendingCounts cached = pendingCountCache.get(u.getUserId());
+        if (cached != null && now - cached.loadedAt() < PENDING_COUNT_TTL_NANOS) {
+            return cached.counts();
         }
 
-        return pendingCategories;
+        List<PendingCount> counts = List.copyOf(repository.findPendingCountsByCreator(u));
+        pendingCountCache.put(u.getUserId(), new CachedPendingCounts(counts, now));
+        return counts;
+    }
+
+    /**
+     * Drops the cached pending counts, e.g. after a material was approved or rejected.
+     */
+    public static void invalidatePendingCounts() {
+        pendingCountCache.clear();
     }
 
     /**
@@ -168,6 +221,8 @@ public class CategoryService {
                 && permissionService.hasPermission(user, PermissionType.UPDATE_COURSE_CATEGORY))
                 || user.getRole().getName() == ADMIN) {
             repository.updateCategoryTitle(c.getCategoryId(), title);
+            c.setCategoryName(title);
+            SearchIndex.getInstance().indexCategory(c);
         } else {
             throw new SecurityException("You do not have permission to modify this title.");
         }
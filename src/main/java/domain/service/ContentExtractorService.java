@@ -0,0 +1,266 @@
+package domain.service;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service that pulls the plain text out of uploaded documents so it can be searched.
+ * Supports PDF, Word, PowerPoint and Excel files in their Office Open XML formats, and
+ * plain text; other types yield no text.
+ * <p>
+ * Documents are read as streams and never held whole: PDFs are loaded with a small
+ * in-memory buffer that spills to a temporary file and read a page at a time, and Office
+ * files are read entry by entry from their zip with a streaming XML parser instead of
+ * building the full document model. Extraction stops once {@link #MAX_CHARS} characters of
+ * text have been collected.
+ */
+public class ContentExtractorService {
+    public static final int MAX_CHARS = 1_000_000;
+
+    // Main memory PDFBox may use for a document before spilling to a temporary file
+    private static final long PDF_MEMORY_BYTES = 16L * 1024 * 1024;
+    // Limit on the unpacked size of one zip entry, against zip bombs
+    private static final long MAX_ENTRY_BYTES = 64L * 1024 * 1024;
+
+    private static final Pattern DOCX_PARTS = Pattern.compile("word/(document|header\\d*|footer\\d*|footnotes|endnotes)\\.xml");
+    private static final Pattern PPTX_PARTS = Pattern.compile("ppt/(slides/slide|notesSlides/notesSlide)\\d+\\.xml");
+    private static final Pattern XLSX_PARTS = Pattern.compile("xl/sharedStrings\\.xml");
+
+    private static final XMLInputFactory XML_INPUT = createXmlInputFactory();
+
+    /**
+     * Extracts the text of a document.
+     *
+     * @param content  The file content; read to the end but not closed
+     * @param fileType The MIME type of the file
+     * @return The text with whitespace collapsed, at most {@link #MAX_CHARS} characters,
+     *         or an empty string for unsupported types
+     * @throws IOException if the content cannot be read
+     */
+    public String extractText(InputStream content, String fileType) throws IOException {
+        return extractText(content, fileType, MAX_CHARS);
+    }
+
+    /**
+     * Extracts at most the given number of characters of a document, reading no further
+     * than needed for them.
+     *
+     * @param content  The file content; not closed
+     * @param fileType The MIME type of the file
+     * @param maxChars The most characters to return
+     * @return The text with whitespace collapsed, or an empty string for unsupported types
+     * @throws IOException if the content cannot be read
+     */
+    public String extractText(InputStream content, String fileType, int maxChars) throws IOException {
+        if (fileType == null) {
+            return "";
+        }
+        TextBuffer text = new TextBuffer(maxChars);
+        switch (fileType) {
+            case "application/pdf" -> extractPdf(content, text);
+            case "application/vnd.openxmlformats-officedocument.wordprocessingml.document" -> extractOfficeXml(content, DOCX_PARTS, text);
+            case "application/vnd.openxmlformats-officedocument.presentationml.presentation" -> extractOfficeXml(content, PPTX_PARTS, text);
+            case "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" -> extractOfficeXml(content, XLSX_PARTS, text);
+            default -> {
+                if (fileType.startsWith("text/")) {
+                    extractPlainText(content, text);
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Extracts the text of a PDF page by page.
+     */
+    private void extractPdf(InputStream content, TextBuffer text) throws IOException {
+        try (PDDocument document = PDDocument.load(new UnclosedInputStream(content), MemoryUsageSetting.setupMixed(PDF_MEMORY_BYTES))) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = 1; page <= document.getNumberOfPages() && !text.isFull(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                text.append(stripper.getText(document));
+            }
+        }
+    }
+
+    /**
+     * Extracts the text runs of the zip entries matching the given parts. Word, PowerPoint
+     * and Excel all keep text in elements named {@code t}; paragraphs and shared strings
+     * are separated by a space.
+     */
+    private void extractOfficeXml(InputStream content, Pattern parts, TextBuffer text) throws IOException {
+        ZipInputStream zip = new ZipInputStream(new UnclosedInputStream(content));
+        ZipEntry entry;
+        while (!text.isFull() && (entry = zip.getNextEntry()) != null) {
+            if (parts.matcher(entry.getName()).matches()) {
+                extractXmlText(new BoundedInputStream(zip, MAX_ENTRY_BYTES), text);
+            }
+        }
+    }
+
+    private void extractXmlText(InputStream part, TextBuffer text) throws IOException {
+        try {
+            XMLStreamReader reader = XML_INPUT.createXMLStreamReader(part);
+            try {
+                boolean inText = false;
+                while (reader.hasNext() && !text.isFull()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT -> inText = "t".equals(reader.getLocalName());
+                        case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                            if (inText) {
+                                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            }
+                        }
+                        case XMLStreamConstants.END_ELEMENT -> {
+                            inText = false;
+                            String name = reader.getLocalName();
+                            if ("p".equals(name) || "si".equals(name) || "tab".equals(name) || "br".equals(name)) {
+                                text.append(" ");
+                            }
+                        }
+                        default -> {}
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // A damaged or cut-off part still contributes the text read before the error
+            text.append(" ");
+        }
+    }
+
+    private void extractPlainText(InputStream content, TextBuffer text) throws IOException {
+        // The decoder replaces malformed bytes rather than failing
+        Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+        char[] chunk = new char[8192];
+        int read;
+        while (!text.isFull() && (read = reader.read(chunk)) != -1) {
+            text.append(chunk, 0, read);
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * Collects text up to a fixed number of characters, collapsing every run of whitespace
+     * and control characters into a single space.
+     */
+    static final class TextBuffer {
+        private final StringBuilder text = new StringBuilder();
+        private final int maxChars;
+        private boolean pendingSpace;
+
+        TextBuffer(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        boolean isFull() {
+            return text.length() >= maxChars;
+        }
+
+        void append(CharSequence chars) {
+            for (int i = 0; i < chars.length() && !isFull(); i++) {
+                append(chars.charAt(i));
+            }
+        }
+
+        void append(char[] chars, int offset, int length) {
+            for (int i = offset; i < offset + length && !isFull(); i++) {
+                append(chars[i]);
+            }
+        }
+
+        private void append(char c) {
+            if (Character.isWhitespace(c) || Character.isISOControl(c) || Character.isSpaceChar(c)) {
+                pendingSpace = text.length() > 0;
+                return;
+            }
+            if (pendingSpace) {
+                text.append(' ');
+                pendingSpace = false;
+                if (isFull()) {
+                    return;
+                }
+            }
+            text.append(c);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
+    // Reports end of stream after a fixed number of bytes
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        // The zip stream moves on to the next entry itself
+        @Override
+        public void close() {
+        }
+    }
+
+    // Leaves closing the caller's stream to the caller
+    private static final class UnclosedInputStream extends FilterInputStream {
+        UnclosedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
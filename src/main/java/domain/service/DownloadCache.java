@@ -0,0 +1,493 @@
+package domain.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Local disk cache of downloaded material files, so downloading a material again copies it
+ * from disk instead of fetching it from storage.
+ * <p>
+ * Files are kept in {@code <root>/objects}, named by the SHA-256 of their content, so
+ * materials sharing a file share one cached copy; {@code <root>/links} maps each storage
+ * link to the hash of its file, and a link goes when its file is evicted. The cache holds
+ * at most a set number of bytes and evicts the least recently used files first. Use is
+ * recorded in the files' modification times, so the order survives a restart. A cached
+ * file is checked against its hash before it is first served, and dropped if the check
+ * fails.
+ * <p>
+ * The directory is set with the system property {@code studyshelf.cache.dir} and defaults
+ * to "cache" in the working directory; the size with {@code studyshelf.cache.maxBytes},
+ * 2 GB by default.
+ */
+public class DownloadCache {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadCache.class);
+
+    private static final String DIRECTORY_PROPERTY = "studyshelf.cache.dir";
+    private static final String MAX_BYTES_PROPERTY = "studyshelf.cache.maxBytes";
+    private static final long DEFAULT_MAX_BYTES = 2L * 1024 * 1024 * 1024;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    // Bytes per transferTo call, so progress is reported while large files copy
+    private static final long TRANSFER_CHUNK = 4L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path objects;
+    private final Path links;
+    private final long maxBytes;
+
+    // Cached files by content hash, least recently used first; guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Link files naming each cached hash, so they are deleted along with it; guarded by this
+    private final Map<String, List<Path>> linkFiles = new HashMap<>();
+    private long totalBytes;
+    private boolean loaded;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    private static final class Entry {
+        private final long size;
+        // Set once the content has been checked against the hash in this run
+        private volatile boolean verified;
+
+        private Entry(long size, boolean verified) {
+            this.size = size;
+            this.verified = verified;
+        }
+    }
+
+    private static final class InstanceHolder {
+        private static final DownloadCache instance = new DownloadCache(
+                Path.of(System.getProperty(DIRECTORY_PROPERTY, "cache")),
+                Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Returns the cache in the configured directory.
+     */
+    public static DownloadCache getInstance() {
+        return InstanceHolder.instance;
+    }
+
+    /**
+     * Creates a cache in the given directory, which is created on the first download.
+     *
+     * @param root     directory to keep the cached files in
+     * @param maxBytes most bytes of files to keep
+     */
+    public DownloadCache(Path root, long maxBytes) {
+        this.objects = root.resolve("objects");
+        this.links = root.resolve("links");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Copies the file behind a link to the output stream if it's cached.
+     *
+     * @param link             storage link of the file
+     * @param outputStream     where to write the file; left open
+     * @param progressCallback receives the bytes written so far and the file size
+     * @return whether the file was cached and written; nothing is written otherwise
+     * @throws IOException if the cached file cannot be read or written out
+     */
+    public boolean serve(String link, OutputStream outputStream, BiConsumer<Long, Long> progressCallback) throws IOException {
+        String hash = readLink(link);
+        Entry entry = hash == null ? null : lookup(hash);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        Path file = pathOf(hash);
+        // An open file stays readable on disk even if it's evicted meanwhile
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (!entry.verified) {
+                if (!hash.equals(sha256(channel))) {
+                    logger.warn("Dropping cached file {} that doesn't match its checksum", hash);
+                    remove(hash);
+                    misses.incrementAndGet();
+                    return false;
+                }
+                entry.verified = true;
+            }
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+
+            // Not closed: closing either channel would close the caller's stream
+            WritableByteChannel target = outputStream instanceof FileOutputStream stream
+                    ? stream.getChannel()
+                    : Channels.newChannel(outputStream);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), target);
+                progressCallback.accept(position, size);
+            }
+            hits.incrementAndGet();
+            bytesSaved.addAndGet(size);
+            return true;
+        } catch (NoSuchFileException e) {
+            remove(hash);
+            misses.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Downloads a file from its store into the output stream, keeping a copy in the cache
+     * as it goes. Files larger than the whole cache are passed through without a copy.
+     *
+     * @param store            store holding the file
+     * @param link             storage link of the file
+     * @param outputStream     where to write the file; left open
+     * @param size             size of the file as reported by the store
+     * @param progressCallback receives the number of bytes written so far
+     * @throws IOException if the download fails, or if the file doesn't match the hash in
+     *                     its link
+     */
+    public void fetch(BlobStore store, String link, OutputStream outputStream, long size,
+                      Consumer<Long> progressCallback) throws IOException {
+        if (size < 0 || size > maxBytes) {
+            store.downloadFile(link, outputStream, progressCallback);
+            return;
+        }
+
+        // Loading deletes stray files in the objects directory, so it must not run once ours exists
+        synchronized (this) {
+            load();
+        }
+        Files.createDirectories(objects);
+        Path temp = Files.createTempFile(objects, "download", ".part");
+        try {
+            MessageDigest digest = Sha256.newDigest();
+            CountingOutputStream copy = new CountingOutputStream(new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), digest));
+            try (copy) {
+                store.downloadFile(link, new TeeOutputStream(outputStream, copy), progressCallback);
+            }
+            String hash = Sha256.hexOf(digest);
+
+            String expected = expectedHash(link);
+            if (expected != null && !expected.equals(hash)) {
+                throw new IOException("Downloaded file doesn't match its checksum: " + link);
+            }
+            if (copy.count != size) {
+                logger.warn("Not caching {}: got {} bytes, expected {}", link, copy.count, size);
+                return;
+            }
+
+            store(temp, hash);
+            add(hash, copy.count, link);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Share of downloads served from the cache, from 0 to 1.
+     */
+    public double getHitRatio() {
+        long served = hits.get();
+        long total = served + misses.get();
+        return total == 0 ? 0 : (double) served / total;
+    }
+
+    /**
+     * Bytes served from the cache instead of being downloaded.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Bytes of files in the cache.
+     */
+    public synchronized long getSizeBytes() {
+        load();
+        return totalBytes;
+    }
+
+    private synchronized Entry lookup(String hash) {
+        load();
+        return entries.get(hash);
+    }
+
+    private synchronized void add(String hash, long size, String link) throws IOException {
+        load();
+        Path linkFile = writeLink(link, hash);
+        List<Path> named = linkFiles.computeIfAbsent(hash, h -> new ArrayList<>());
+        if (!named.contains(linkFile)) {
+            named.add(linkFile);
+        }
+        if (entries.containsKey(hash)) {
+            return;
+        }
+        entries.put(hash, new Entry(size, true));
+        totalBytes += size;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            if (evicted.getKey().equals(hash)) {
+                break;
+            }
+            eldest.remove();
+            totalBytes -= evicted.getValue().size;
+            deleteQuietly(pathOf(evicted.getKey()));
+            deleteLinks(evicted.getKey());
+        }
+    }
+
+    private synchronized void remove(String hash) {
+        Entry entry = entries.remove(hash);
+        if (entry != null) {
+            totalBytes -= entry.size;
+        }
+        deleteQuietly(pathOf(hash));
+        deleteLinks(hash);
+    }
+
+    // A link may have been pointed at another file since, so only links still naming the hash go
+    private void deleteLinks(String hash) {
+        List<Path> named = linkFiles.remove(hash);
+        if (named == null) {
+            return;
+        }
+        for (Path linkFile : named) {
+            if (hash.equals(readHash(linkFile))) {
+                deleteQuietly(linkFile);
+            }
+        }
+    }
+
+    /**
+     * Reads the files already in the cache directory, oldest use first, and deletes
+     * downloads left unfinished by an earlier run and links to files no longer cached.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (Files.isDirectory(objects)) {
+            loadObjects();
+        }
+        if (Files.isDirectory(links)) {
+            loadLinks();
+        }
+        logger.info("Download cache holds {} files, {} bytes", entries.size(), totalBytes);
+    }
+
+    private void loadObjects() {
+        record Cached(String hash, long size, FileTime used) {}
+        List<Cached> cached = new ArrayList<>();
+        try (DirectoryStream<Path> top = Files.newDirectoryStream(objects)) {
+            for (Path path : top) {
+                if (!Files.isDirectory(path)) {
+                    deleteQuietly(path);
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        if (SHA256_HEX.matcher(name).matches()) {
+                            cached.add(new Cached(name, Files.size(file), Files.getLastModifiedTime(file)));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read download cache {}", objects, e);
+        }
+
+        cached.sort(Comparator.comparing(Cached::used));
+        for (Cached file : cached) {
+            entries.put(file.hash(), new Entry(file.size(), false));
+            totalBytes += file.size();
+        }
+    }
+
+    private void loadLinks() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(links)) {
+            for (Path linkFile : files) {
+                String hash = readHash(linkFile);
+                if (hash != null && entries.containsKey(hash)) {
+                    linkFiles.computeIfAbsent(hash, h -> new ArrayList<>()).add(linkFile);
+                } else {
+                    deleteQuietly(linkFile);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read download cache links {}", links, e);
+        }
+    }
+
+    private void store(Path temp, String hash) throws IOException {
+        Path target = pathOf(hash);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Cached by a concurrent download of the same content
+        }
+    }
+
+    private String readLink(String link) {
+        return readHash(linkPath(link));
+    }
+
+    // The hash a link file names, or null if there is none or it can't be read
+    private static String readHash(Path linkFile) {
+        try {
+            String hash = Files.readString(linkFile, StandardCharsets.US_ASCII).trim();
+            return SHA256_HEX.matcher(hash).matches() ? hash : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Path writeLink(String link, String hash) throws IOException {
+        Path target = linkPath(link);
+        Files.createDirectories(links);
+        Path temp = Files.createTempFile(links, "link", ".part");
+        try {
+            Files.writeString(temp, hash, StandardCharsets.US_ASCII);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    // Local storage links name the hash of their content, so those downloads can be checked
+    private static String expectedHash(String link) {
+        if (link.startsWith(LocalBlobStore.LINK_PREFIX)) {
+            String hash = link.substring(LocalBlobStore.LINK_PREFIX.length());
+            return SHA256_HEX.matcher(hash).matches() ? hash : null;
+        }
+        return null;
+    }
+
+    private Path pathOf(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    // Links are arbitrary URLs, so their files are named by the hash of the link
+    private Path linkPath(String link) {
+        return links.resolve(Sha256.hashOf(link.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String sha256(FileChannel channel) throws IOException {
+        MessageDigest digest = Sha256.newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) != -1) {
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return Sha256.hexOf(digest);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {} from download cache", path, e);
+        }
+    }
+
+    /**
+     * Writes everything to the caller's stream and to the cache copy. Closing it closes
+     * neither.
+     */
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        private TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package domain.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * What a single read of an uploaded file tells about it: its size, the SHA-256 of its
+ * content and its content type. The file is read once in fixed-size blocks, so this takes
+ * the same memory for any file size.
+ * <p>
+ * The content type comes from the first bytes of the file where they have a well-known
+ * signature, so a PDF renamed to ".txt" is still treated as a PDF, and from the file name
+ * otherwise.
+ */
+record FileFingerprint(long size, String sha256, String contentType) {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    // Enough of the start of the file to recognize its type
+    private static final int HEAD_SIZE = 512;
+
+    private static final String ZIP_MAGIC = "PK\u0003\u0004";
+    private static final byte[] OLE2_MAGIC = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    static FileFingerprint of(Path file) throws IOException {
+        MessageDigest digest = Sha256.newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        byte[] head = new byte[HEAD_SIZE];
+        int headLength = 0;
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                if (headLength < HEAD_SIZE) {
+                    int count = Math.min(HEAD_SIZE - headLength, buffer.remaining());
+                    buffer.duplicate().get(head, headLength, count);
+                    headLength += count;
+                }
+                size += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        String contentType = sniffContentType(Arrays.copyOf(head, headLength), file.getFileName().toString());
+        return new FileFingerprint(size, Sha256.hexOf(digest), contentType);
+    }
+
+    /**
+     * Returns the content type of a file from its first bytes, falling back to its name.
+     * Office files are zip or OLE2 containers, so for those the name tells which kind.
+     *
+     * @param head     the first bytes of the file
+     * @param filename name of the file
+     * @return the MIME type, "application/octet-stream" if unknown
+     */
+    static String sniffContentType(byte[] head, String filename) throws IOException {
+        String byName = Files.probeContentType(Path.of(filename));
+        String start = new String(head, 0, Math.min(head.length, 8), StandardCharsets.ISO_8859_1);
+
+        if (start.startsWith("%PDF-")) {
+            return "application/pdf";
+        }
+        if (start.startsWith("\u0089PNG")) {
+            return "image/png";
+        }
+        if (start.startsWith("\u00FF\u00D8\u00FF")) {
+            return "image/jpeg";
+        }
+        if (start.startsWith("GIF8")) {
+            return "image/gif";
+        }
+        if (start.startsWith(ZIP_MAGIC)) {
+            return byName != null && (byName.startsWith("application/vnd.") || byName.contains("zip")) ? byName : "application/zip";
+        }
+        if (head.length >= OLE2_MAGIC.length && Arrays.equals(head, 0, OLE2_MAGIC.length, OLE2_MAGIC, 0, OLE2_MAGIC.length)) {
+            return byName != null && byName.startsWith("application/") ? byName : "application/octet-stream";
+        }
+        if (byName != null) {
+            return byName;
+        }
+        return looksLikeText(head) ? "text/plain" : "application/octet-stream";
+    }
+
+    private static boolean looksLikeText(byte[] head) {
+        if (head.length == 0) {
+            return false;
+        }
+        for (byte b : head) {
+            if (b == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
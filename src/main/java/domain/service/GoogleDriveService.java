@@ -6,40 +6,125 @@ import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.googleapis.media.MediaHttpUploader;
 import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.FileContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpBackOffIOExceptionHandler;
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.ExponentialBackOff;
 import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.DriveScopes;
 import com.google.api.services.drive.model.File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service class responsible for interacting with Google Drive API.
  * Supports file upload and download operations using user credentials.
+ * This is the {@link BlobStore} used unless local storage is configured.
+ * <p>
+ * One client is shared by the whole application (see {@link #getInstance()}). It is
+ * authorized the first time a file is actually uploaded or downloaded, not when a page
+ * that might do so is opened, and then reuses the same HTTP transport, and with it the
+ * open connections, for every request. The access token is refreshed in the background
+ * shortly before it expires, so requests don't wait for a refresh either.
  */
-public class GoogleDriveService {
-    private final Drive driveService;
+public class GoogleDriveService implements BlobStore {
+    private static final Logger logger = LoggerFactory.getLogger(GoogleDriveService.class);
+
     // add file credentials.json to this path
     private static final String CREDENTIALS_PATH = "src/main/resources/credentials/credentials.json";
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
     private static final List<String> SCOPES = Collections.singletonList(DriveScopes.DRIVE_FILE);
+    // How long before expiry the access token is refreshed, and how soon a failed refresh is retried
+    private static final long REFRESH_MARGIN_SECONDS = 300;
+    private static final long REFRESH_RETRY_SECONDS = 60;
+    // Files read from disk go up in resumable chunks of this size; only one chunk is held in memory
+    private static final int UPLOAD_CHUNK_SIZE = 32 * MediaHttpUploader.MINIMUM_CHUNK_SIZE;
+    private static final String SHA256_PROPERTY = "sha256";
+    // The id in a web view link ".../file/d/{fileId}/view" or a link with "?id={fileId}"
+    private static final Pattern FILE_ID = Pattern.compile("/d/([\\w-]+)|[?&]id=([\\w-]+)");
+
+    private volatile Drive driveService;
+    private Credential credential;
+
+    private static final class InstanceHolder {
+        private static final GoogleDriveService instance = new GoogleDriveService();
+    }
+
+    private static final class RefresherHolder {
+        private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "drive-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     /**
-     * Initializes the Google Drive client using OAuth 2.0 credentials.
-     * Requires a valid credentials.json file under src/main/resources/credentials/.
+     * Returns the Drive client shared by the whole application. Getting it is cheap; the
+     * OAuth authorization runs on its first upload or download.
      */
-    public GoogleDriveService() {
+    public static GoogleDriveService getInstance() {
+        return InstanceHolder.instance;
+    }
+
+    private GoogleDriveService() {}
+
+    // Whether the credentials have been read and the Drive client built
+    boolean isAuthorized() {
+        return driveService != null;
+    }
+
+    /**
+     * Returns the authorized Drive client, authorizing on the first call.
+     *
+     * @throws IOException if the credentials cannot be read or authorization fails
+     */
+    private Drive drive() throws IOException {
+        Drive drive = driveService;
+        if (drive == null) {
+            synchronized (this) {
+                if (driveService == null) {
+                    driveService = authorize();
+                }
+                drive = driveService;
+            }
+        }
+        return drive;
+    }
+
+    /**
+     * Authorizes with OAuth 2.0 credentials, opening the browser for consent if no token has
+     * been stored yet. Requires a valid credentials.json file under src/main/resources/credentials/.
+     */
+    private Drive authorize() throws IOException {
         try {
             NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-            GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(JSON_FACTORY,
-                    new FileReader(CREDENTIALS_PATH));
+            GoogleClientSecrets clientSecrets;
+            try (Reader reader = new FileReader(CREDENTIALS_PATH)) {
+                clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, reader);
+            }
 
             GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
                     httpTransport, JSON_FACTORY, clientSecrets, SCOPES)
@@ -48,16 +133,66 @@ public class GoogleDriveService {
                     .build();
 
             LocalServerReceiver receiver = new LocalServerReceiver.Builder().setPort(8888).build();
-            Credential credential = new AuthorizationCodeInstalledApp(flow, receiver).authorize("user");
+            credential = new AuthorizationCodeInstalledApp(flow, receiver).authorize("user");
+            scheduleRefresh(false);
 
-            driveService = new Drive.Builder(httpTransport, JSON_FACTORY, credential)
+            return new Drive.Builder(httpTransport, JSON_FACTORY, retrying(credential))
                     .setApplicationName("StudyShelf")
                     .build();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize Google Drive service", e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to initialize Google Drive service", e);
         }
     }
 
+    /**
+     * Authorizes every request with the credential and retries it with exponential backoff
+     * after a server error. A dropped connection is only retried for a read or a resumable
+     * upload: the upload asks Drive how much it received before retrying a chunk and carries
+     * on from there, whereas resending a one-shot upload that may have arrived could store
+     * the file twice.
+     */
+    private static HttpRequestInitializer retrying(Credential credential) {
+        return request -> {
+            credential.initialize(request);
+            HttpBackOffUnsuccessfulResponseHandler serverErrors = new HttpBackOffUnsuccessfulResponseHandler(new ExponentialBackOff());
+            request.setUnsuccessfulResponseHandler((retried, response, supportsRetry) ->
+                    credential.handleResponse(retried, response, supportsRetry)
+                            || serverErrors.handleResponse(retried, response, supportsRetry));
+            HttpBackOffIOExceptionHandler dropped = new HttpBackOffIOExceptionHandler(new ExponentialBackOff());
+            request.setIOExceptionHandler((failed, supportsRetry) ->
+                    isSafeToResend(failed) && dropped.handleIOException(failed, supportsRetry));
+        };
+    }
+
+    // The method and URL are checked when the request fails, since they are set after the initializer runs
+    private static boolean isSafeToResend(HttpRequest request) {
+        GenericUrl url = request.getUrl();
+        return HttpMethods.GET.equals(request.getRequestMethod())
+                || "resumable".equals(url.getFirst("uploadType"))
+                || url.getFirst("upload_id") != null;
+    }
+
+    private void scheduleRefresh(boolean afterFailure) {
+        Long expiresIn = credential.getExpiresInSeconds();
+        long delay = afterFailure || expiresIn == null
+                ? REFRESH_RETRY_SECONDS
+                : Math.max(0, expiresIn - REFRESH_MARGIN_SECONDS);
+        RefresherHolder.refresher.schedule(this::refreshToken, delay, TimeUnit.SECONDS);
+    }
+
+    private void refreshToken() {
+        boolean refreshed = false;
+        try {
+            refreshed = credential.refreshToken();
+            if (!refreshed) {
+                logger.warn("Google Drive did not issue a new access token");
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to refresh Google Drive access token", e);
+        }
+        scheduleRefresh(!refreshed);
+    }
+
     /**
      * Uploads a file to Google Drive.
      *
@@ -67,19 +202,46 @@ public class GoogleDriveService {
      * @return a public web view link to the uploaded file
      * @throws IOException if an upload error occurs
      */
+    @Override
     public String uploadFile(byte[] content, String filename, String contentType) throws IOException {
         File fileMetadata = new File();
         fileMetadata.setName(filename);
 
         ByteArrayContent mediaContent = new ByteArrayContent(contentType, content);
 
-        File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
+        File uploadedFile = drive().files().create(fileMetadata, mediaContent)
                 .setFields("id, webViewLink")
                 .execute();
 
         return uploadedFile.getWebViewLink();
     }
 
+    /**
+     * Uploads a file from disk to Google Drive as a resumable upload in fixed-size chunks.
+     * The file's hash is kept in its Drive properties.
+     *
+     * @param source      the file to upload
+     * @param filename    name of the file to be stored
+     * @param contentType MIME type of the file
+     * @param sha256      hex SHA-256 of the file
+     * @return a public web view link to the uploaded file
+     * @throws IOException if an upload error occurs
+     */
+    @Override
+    public String uploadFile(Path source, String filename, String contentType, String sha256) throws IOException {
+        File fileMetadata = new File();
+        fileMetadata.setName(filename);
+        fileMetadata.setAppProperties(Map.of(SHA256_PROPERTY, sha256));
+
+        Drive.Files.Create create = drive().files().create(fileMetadata, new FileContent(contentType, source.toFile()))
+                .setFields("id, webViewLink");
+        create.getMediaHttpUploader()
+                .setDirectUploadEnabled(false)
+                .setChunkSize(UPLOAD_CHUNK_SIZE);
+
+        return create.execute().getWebViewLink();
+    }
+
     /**
      * Downloads a file from Google Drive based on its shared webViewLink.
      *
@@ -87,18 +249,20 @@ public class GoogleDriveService {
      * @return the file contents as a byte array
      * @throws IOException if download fails
      */
+    @Override
     public void downloadFile(String fileUrl, OutputStream outputStream, Consumer<Long> progressCallback) throws IOException {
         String fileId = extractFileIdFromUrl(fileUrl);
-        InputStream in = driveService.files().get(fileId).executeMediaAsInputStream();
-        byte[] buffer = new byte[8192];
-        long totalRead = 0;
-        int bytesRead;
-        while ((bytesRead = in.read(buffer)) != -1) {
-            outputStream.write(buffer, 0, bytesRead);
-            totalRead += bytesRead;
-            progressCallback.accept(totalRead);
+        // Reading to the end and closing hands the connection back for reuse
+        try (InputStream in = drive().files().get(fileId).executeMediaAsInputStream()) {
+            byte[] buffer = new byte[8192];
+            long totalRead = 0;
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, bytesRead);
+                totalRead += bytesRead;
+                progressCallback.accept(totalRead);
+            }
         }
-        in.close();
     }
 
     /**
@@ -107,19 +271,25 @@ public class GoogleDriveService {
      *
      * @param url the shared Google Drive URL
      * @return the extracted file ID
+     * @throws IOException if the URL holds no file ID
      */
-    private String extractFileIdFromUrl(String url) {
-        String[] parts = url.split("/");
-        return parts[5];
+    static String extractFileIdFromUrl(String url) throws IOException {
+        Matcher matcher = FILE_ID.matcher(url);
+        if (!matcher.find()) {
+            throw new IOException("Not a Google Drive file link: " + url);
+        }
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
     }
 
+    @Override
     public long getFileSize(String fileUrl) throws IOException {
         String fileId = extractFileIdFromUrl(fileUrl);
-        File file = driveService.files().get(fileId).setFields("size").execute();
+        File file = drive().files().get(fileId).setFields("size").execute();
         return file.getSize();
     }
 
-
-
-
-}
\ No newline at end of file
+    @Override
+    public boolean owns(String link) {
+        return link != null && link.startsWith("https://drive.google.com/");
+    }
+}
@@ -0,0 +1,337 @@
+package domain.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over documents with a fixed number of text fields. Each stemmed term maps
+ * to one {@link PostingList} per field; a forward map keeps the terms of every document
+ * so it can be removed or have a single field replaced without a rescan.
+ * <p>
+ * Documents are ranked with BM25F: term frequencies are normalized by field length, weighted
+ * per field and combined before BM25 saturation, so a word repeated across fields is not
+ * counted as several independent matches.
+ * <p>
+ * A query word that matches no term at all is looked up in a {@link TrigramIndex} of the
+ * dictionary and replaced by the terms within a few typing mistakes of it.
+ * <p>
+ * Not thread-safe; {@link SearchIndex} guards it with a read-write lock.
+ */
+final class InvertedIndex {
+    // How many dictionary terms one query word may expand to as a prefix
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    // A dictionary term that only starts with the query word counts for less than an exact match
+    private static final float PREFIX_WEIGHT = 0.5f;
+    // Each typing mistake between query word and term multiplies the weight of a match by this
+    private static final float FUZZY_WEIGHT = 0.4f;
+    private static final int MAX_FUZZY_TERMS = 8;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final int fieldCount;
+    private final TreeMap<String, PostingList[]> dictionary = new TreeMap<>();
+    private final Map<Integer, String[][]> documentTerms = new HashMap<>();
+    private final Map<Integer, int[]> fieldLengths = new HashMap<>();
+    private final long[] totalFieldLengths;
+    private final TrigramIndex vocabulary = new TrigramIndex();
+
+    InvertedIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+        this.totalFieldLengths = new long[fieldCount];
+    }
+
+    int size() {
+        return documentTerms.size();
+    }
+
+    boolean contains(int docId) {
+        return documentTerms.containsKey(docId);
+    }
+
+    // Replaces the document if it is already indexed
+    void add(int docId, String... fieldTexts) {
+        remove(docId);
+        String[][] terms = new String[fieldCount][];
+        int[] lengths = new int[fieldCount];
+        fieldLengths.put(docId, lengths);
+        for (int field = 0; field < fieldCount; field++) {
+            terms[field] = indexField(docId, field, field < fieldTexts.length ? fieldTexts[field] : null);
+        }
+        documentTerms.put(docId, terms);
+    }
+
+    void replaceField(int docId, int field, String text) {
+        String[][] terms = documentTerms.get(docId);
+        if (terms == null) {
+            return;
+        }
+        removeField(docId, field, terms[field]);
+        terms[field] = indexField(docId, field, text);
+    }
+
+    void remove(int docId) {
+        String[][] terms = documentTerms.remove(docId);
+        if (terms == null) {
+            return;
+        }
+        for (int field = 0; field < fieldCount; field++) {
+            removeField(docId, field, terms[field]);
+        }
+        fieldLengths.remove(docId);
+    }
+
+    /**
+     * Returns the sorted ids of the documents that match every word of the query in some
+     * field. A query word matches a term equal to or starting with one of its stems, so
+     * partly typed words still find results; a word matching no term matches the terms
+     * closest to it instead.
+     */
+    int[] match(String query) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+
+        int[] result = null;
+        for (String token : tokens) {
+            int[] docs = docsMatching(token);
+            result = result == null ? docs : intersect(result, docs);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scores the documents that match every word of the query, matching words the same way
+     * as {@link #match}.
+     *
+     * @param fieldBoosts weight of a match in each field
+     * @return the matching documents with their BM25F scores
+     */
+    ScoredDocs score(String query, float[] fieldBoosts) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || documentTerms.isEmpty()) {
+            return ScoredDocs.EMPTY;
+        }
+
+        float[] averageLengths = new float[fieldCount];
+        for (int field = 0; field < fieldCount; field++) {
+            averageLengths[field] = Math.max(1f, (float) totalFieldLengths[field] / documentTerms.size());
+        }
+
+        ScoredDocs result = null;
+        for (String token : tokens) {
+            ScoredDocs scored = scoreToken(token, fieldBoosts, averageLengths);
+            result = result == null ? scored : result.intersectSum(scored);
+            if (result.size() == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private ScoredDocs scoreToken(String token, float[] fieldBoosts, float[] averageLengths) {
+        ScoredDocs.Accumulator frequencies = new ScoredDocs.Accumulator();
+        for (Map.Entry<String, Float> termWeight : termsFor(token).entrySet()) {
+            PostingList[] lists = dictionary.get(termWeight.getKey());
+            for (int field = 0; field < fieldCount; field++) {
+                PostingList list = lists[field];
+                if (list == null || fieldBoosts[field] == 0f) {
+                    continue;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    int doc = list.doc(i);
+                    float lengthNorm = 1 - B + B * fieldLengths.get(doc)[field] / averageLengths[field];
+                    frequencies.add(doc, termWeight.getValue() * fieldBoosts[field] * list.freq(i) / lengthNorm);
+                }
+            }
+        }
+
+        ScoredDocs weighted = frequencies.sum();
+        int documentCount = documentTerms.size();
+        float idf = (float) Math.log(1 + (documentCount - weighted.size() + 0.5) / (weighted.size() + 0.5));
+        int[] docs = new int[weighted.size()];
+        float[] scores = new float[weighted.size()];
+        for (int i = 0; i < docs.length; i++) {
+            float frequency = weighted.score(i);
+            docs[i] = weighted.doc(i);
+            scores[i] = idf * frequency * (K1 + 1) / (frequency + K1);
+        }
+        return new ScoredDocs(docs, scores);
+    }
+
+    private int[] docsMatching(String token) {
+        PostingList.IntBuffer docs = new PostingList.IntBuffer();
+        for (String term : termsFor(token).keySet()) {
+            for (PostingList list : dictionary.get(term)) {
+                if (list != null) {
+                    list.copyDocsTo(docs);
+                }
+            }
+        }
+        return docs.toSortedSet();
+    }
+
+    /**
+     * Returns the dictionary terms a query word stands for with the weight of a match on
+     * each: terms equal to or starting with one of its stems, or, when there are none, the
+     * terms closest to its stems. Terms reached through both stems are weighted once, the
+     * higher weight taking precedence.
+     */
+    private Map<String, Float> termsFor(String token) {
+        Map<String, Float> termWeights = new HashMap<>();
+        Set<String> stems = TextAnalyzer.stems(token);
+        for (String stem : stems) {
+            int expansions = 0;
+            for (String term : withPrefix(stem).keySet()) {
+                termWeights.merge(term, term.equals(stem) ? 1f : PREFIX_WEIGHT, Math::max);
+                if (++expansions == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+        }
+        if (termWeights.isEmpty()) {
+            for (String stem : stems) {
+                List<TrigramIndex.Correction> corrections = vocabulary.nearest(stem, TrigramIndex.maxDistance(stem.length()));
+                for (TrigramIndex.Correction correction : corrections.subList(0, Math.min(MAX_FUZZY_TERMS, corrections.size()))) {
+                    termWeights.merge(correction.term(), (float) Math.pow(FUZZY_WEIGHT, correction.distance()), Math::max);
+                }
+            }
+        }
+        return termWeights;
+    }
+
+    /**
+     * Whether the word matches some term as typed, without correcting it.
+     */
+    boolean matchesAsTyped(String token) {
+        for (String stem : TextAnalyzer.stems(token)) {
+            if (!withPrefix(stem).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the likeliest intended term for a word that matches nothing as typed: the
+     * fewest edits away, and among those the one in the most documents. Null if the word
+     * matches as typed or nothing is close enough.
+     */
+    TrigramIndex.Correction correct(String token) {
+        if (matchesAsTyped(token)) {
+            return null;
+        }
+        TrigramIndex.Correction best = null;
+        int bestFrequency = 0;
+        for (String stem : TextAnalyzer.stems(token)) {
+            for (TrigramIndex.Correction correction : vocabulary.nearest(stem, TrigramIndex.maxDistance(stem.length()))) {
+                int frequency = documentFrequency(correction.term());
+                if (best == null || correction.distance() < best.distance()
+                        || correction.distance() == best.distance() && frequency > bestFrequency) {
+                    best = correction;
+                    bestFrequency = frequency;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int documentFrequency(String term) {
+        int frequency = 0;
+        for (PostingList list : dictionary.get(term)) {
+            if (list != null) {
+                frequency = Math.max(frequency, list.size());
+            }
+        }
+        return frequency;
+    }
+
+    private NavigableMap<String, PostingList[]> withPrefix(String prefix) {
+        return dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private String[] indexField(int docId, int field, String text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Map<String, String> words = new HashMap<>();
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        setFieldLength(docId, field, tokens.size());
+        for (String token : tokens) {
+            for (String stem : TextAnalyzer.stems(token)) {
+                counts.merge(stem, 1, Integer::sum);
+                words.putIfAbsent(stem, token);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            PostingList[] lists = dictionary.computeIfAbsent(entry.getKey(), term -> {
+                vocabulary.add(term, words.get(term));
+                return new PostingList[fieldCount];
+            });
+            if (lists[field] == null) {
+                lists[field] = new PostingList();
+            }
+            lists[field].put(docId, entry.getValue());
+        }
+        return counts.keySet().toArray(new String[0]);
+    }
+
+    private void setFieldLength(int docId, int field, int length) {
+        int[] lengths = fieldLengths.get(docId);
+        totalFieldLengths[field] += length - lengths[field];
+        lengths[field] = length;
+    }
+
+    private void removeField(int docId, int field, String[] terms) {
+        setFieldLength(docId, field, 0);
+        for (String term : terms) {
+            PostingList[] lists = dictionary.get(term);
+            if (lists == null || lists[field] == null) {
+                continue;
+            }
+            lists[field].remove(docId);
+            if (lists[field].isEmpty()) {
+                lists[field] = null;
+                if (allNull(lists)) {
+                    dictionary.remove(term);
+                    vocabulary.remove(term);
+                }
+            }
+        }
+    }
+
+    private static boolean allNull(PostingList[] lists) {
+        for (PostingList list : lists) {
+            if (list != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
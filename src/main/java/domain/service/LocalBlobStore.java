@@ -0,0 +1,186 @@
+package domain.service;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} that keeps files in a local directory, addressed by the SHA-256 of their
+ * content: the same file uploaded twice is stored once, and a stored file never changes.
+ * <p>
+ * A file with hash {@code abcd...} lives at {@code <root>/ab/cd/abcd...} and its link is
+ * {@code local:sha256:abcd...}. Files are written to a temporary file next to their final
+ * place and moved there atomically, so a reader never sees half a file. An upload from disk
+ * is hashed as it is copied and refused if it doesn't match the hash it was given.
+ * Downloads go through {@link FileChannel#transferTo}, which copies file to file inside
+ * the kernel.
+ * <p>
+ * Selected with the system property {@code studyshelf.storage=local}; the directory is
+ * set with {@code studyshelf.storage.dir} and defaults to "blobs" in the working directory.
+ */
+public class LocalBlobStore implements BlobStore {
+    public static final String LINK_PREFIX = "local:sha256:";
+
+    private static final String STORE_PROPERTY = "studyshelf.storage";
+    private static final String DIRECTORY_PROPERTY = "studyshelf.storage.dir";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    // Bytes per transferTo call, so progress is reported while large files copy
+    private static final long TRANSFER_CHUNK = 4L * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+
+    private final Path root;
+
+    private static final class InstanceHolder {
+        private static final LocalBlobStore instance = new LocalBlobStore(Path.of(System.getProperty(DIRECTORY_PROPERTY, "blobs")));
+    }
+
+    /**
+     * Returns the store in the configured directory.
+     */
+    public static LocalBlobStore getInstance() {
+        return InstanceHolder.instance;
+    }
+
+    static boolean isSelected() {
+        return "local".equalsIgnoreCase(System.getProperty(STORE_PROPERTY));
+    }
+
+    /**
+     * Creates a store in the given directory, which is created on the first upload.
+     *
+     * @param root directory to keep the files in
+     */
+    public LocalBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String uploadFile(byte[] content, String filename, String contentType) throws IOException {
+        String hash = Sha256.hashOf(content);
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            return LINK_PREFIX + hash;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".part");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored by a concurrent upload of the same content
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return LINK_PREFIX + hash;
+    }
+
+    // The caller's hash names the file, so the copy is hashed on the way and must match it
+    @Override
+    public String uploadFile(Path source, String filename, String contentType, String sha256) throws IOException {
+        Path target = pathOf(hashOf(LINK_PREFIX + sha256));
+        if (Files.exists(target)) {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                checkHash(copyHashing(in, null), sha256, source);
+            }
+            return LINK_PREFIX + sha256;
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), sha256, ".part");
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                checkHash(copyHashing(in, out), sha256, source);
+                out.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored by a concurrent upload of the same content
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return LINK_PREFIX + sha256;
+    }
+
+    @Override
+    public void downloadFile(String link, OutputStream outputStream, Consumer<Long> progressCallback) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(hashOf(link)), StandardOpenOption.READ)) {
+            // Not closed: closing either channel would close the caller's stream
+            WritableByteChannel target = outputStream instanceof FileOutputStream file
+                    ? file.getChannel()
+                    : Channels.newChannel(outputStream);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), target);
+                progressCallback.accept(position);
+            }
+        }
+    }
+
+    @Override
+    public long getFileSize(String link) throws IOException {
+        return Files.size(pathOf(hashOf(link)));
+    }
+
+    @Override
+    public boolean owns(String link) {
+        return link != null && link.startsWith(LINK_PREFIX);
+    }
+
+    // Reads the whole channel, writing it to out unless out is null, and returns its SHA-256
+    private static String copyHashing(FileChannel in, FileChannel out) throws IOException {
+        MessageDigest digest = Sha256.newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            digest.update(buffer);
+            if (out != null) {
+                buffer.rewind();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            buffer.clear();
+        }
+        return Sha256.hexOf(digest);
+    }
+
+    private static void checkHash(String actual, String expected, Path source) throws IOException {
+        if (!actual.equals(expected)) {
+            throw new IOException("Content of " + source + " does not match its SHA-256 " + expected + " (is " + actual + ")");
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    // Only well-formed hashes are accepted, so a link can't point outside the root
+    private String hashOf(String link) throws IOException {
+        String hash = owns(link) ? link.substring(LINK_PREFIX.length()) : "";
+        if (!SHA256_HEX.matcher(hash).matches()) {
+            throw new IOException("Not a local storage link: " + link);
+        }
+        return hash;
+    }
+}
@@ -1,14 +1,22 @@
 package domain.service;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 import net.coobird.thumbnailator.Thumbnails;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import java.awt.Graphics2D;
 import java.awt.Color;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import java.io.IOException;
@@ -18,6 +26,11 @@ import java.io.IOException;
  * for various file types such as PDF, images, Word documents, etc.
  */
 public class PreviewGeneratorService {
+    private static final int PREVIEW_SIZE = 200;
+    // PDF objects past this much memory are buffered in a temporary file
+    private static final long PDF_MEMORY_BYTES = 16L * 1024 * 1024;
+    // Characters of a Word document drawn on its preview
+    private static final int WORD_PREVIEW_CHARS = 80;
 
     /**
      * Generates a preview image (in PNG format) from the given file content and type.
@@ -46,6 +59,94 @@ public class PreviewGeneratorService {
         }
     }
 
+    /**
+     * Generates a preview image (in PNG format) from a file on disk, reading only as much
+     * of it as the preview needs: the first page of a PDF, a subsampled decode of an image
+     * and the first line of a Word document. Memory use doesn't grow with the file size.
+     *
+     * @param file     The file to preview
+     * @param fileType The MIME type of the file
+     * @return A byte array representing the preview image (PNG format)
+     * @throws IOException if processing fails
+     */
+    public byte[] generatePreview(Path file, String fileType) throws IOException {
+        if (fileType == null || fileType.isEmpty()) {
+            return generateDefaultPreview();
+        }
+        switch(fileType) {
+            case "application/pdf":
+                return generatePDFPreview(file);
+            case "image/jpeg":
+            case "image/png":
+            case "image/gif":
+                return generateImagePreview(file);
+            case "application/vnd.openxmlformats-officedocument.wordprocessingml.document":
+                return generateWordPreview(file, fileType);
+            default:
+                return generateDefaultPreview();
+        }
+    }
+
+    /**
+     * Renders the first page of a PDF on disk; PDFBox reads the other pages only as far as
+     * needed to find the first.
+     */
+    private byte[] generatePDFPreview(Path file) throws IOException {
+        try (PDDocument document = PDDocument.load(file.toFile(), MemoryUsageSetting.setupMixed(PDF_MEMORY_BYTES))) {
+            BufferedImage image = new PDFRenderer(document).renderImageWithDPI(0, 50);
+            return toPng(Thumbnails.of(image).size(PREVIEW_SIZE, PREVIEW_SIZE).asBufferedImage());
+        }
+    }
+
+    /**
+     * Decodes only every n-th pixel of an image on disk, so a large photo is never held in
+     * memory at full resolution.
+     */
+    private byte[] generateImagePreview(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return generateDefaultPreview();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, Math.min(reader.getWidth(0), reader.getHeight(0)) / (2 * PREVIEW_SIZE));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                return toPng(Thumbnails.of(image).size(PREVIEW_SIZE, PREVIEW_SIZE).asBufferedImage());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Draws the start of the text of a Word document on disk, reading the document only
+     * until that much text is found.
+     */
+    private byte[] generateWordPreview(Path file, String fileType) throws IOException {
+        String text;
+        try (InputStream in = Files.newInputStream(file)) {
+            text = new ContentExtractorService().extractText(in, fileType, WORD_PREVIEW_CHARS);
+        }
+        if (text.isEmpty()) {
+            return generateDefaultPreview();
+        }
+        BufferedImage image = new BufferedImage(PREVIEW_SIZE, PREVIEW_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.drawString(text, 10, 20);
+        g2d.dispose();
+        return toPng(image);
+    }
+
+    private static byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", baos);
+        return baos.toByteArray();
+    }
+
     /**
      * Generates a preview for PDF documents by rendering the first page.
      */
@@ -2,11 +2,14 @@ package domain.service;
 
 import domain.model.PermissionType;
 import domain.model.Rating;
+import domain.model.RatingStats;
 import domain.model.StudyMaterial;
 import domain.model.User;
 import infrastructure.repository.RatingRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class responsible for handling rating-related operations,
@@ -31,18 +34,26 @@ public class RatingService {
             throw new SecurityException("You do not have permission to create a rating.");
         }
         Rating rating = new Rating(ratingScore, material, user);
-        return ratingRepository.save(rating);
+        Rating saved = ratingRepository.save(rating);
+        refreshSearchRating(material);
+        return saved;
     }
 
     /**
-     * Calculates and returns the average rating score for a material.
+     * Returns the average rating score for a material from its stored rating totals.
      */
     public double getAverageRating(StudyMaterial material) {
-        return ratingRepository.findByMaterial(material)
-                .stream()
-                .mapToInt(Rating::getRatingScore)
-                .average()
-                .orElse(0.0);
+        Double average = ratingRepository.findAverageRatingByMaterial(material);
+        return average != null ? average : 0.0;
+    }
+
+    /**
+     * Returns the average score and rating count of each material in one grouped query.
+     * Materials without ratings are missing from the map. The map has boxed material ids;
+     * the stats inside are primitive.
+     */
+    public Map<Integer, RatingStats> getAverageRatings(Collection<Integer> materialIds) {
+        return ratingRepository.findAverageRatings(materialIds);
     }
 
     /**
@@ -57,8 +68,9 @@ public class RatingService {
         if (!permissionService.hasPermission(user, PermissionType.UPDATE_OWN_RATING)) {
             throw new SecurityException("You do not have permission to update your rating.");
         }
-        rating.setRatingScore(newScore);
-        return ratingRepository.save(rating);
+        Rating updated = ratingRepository.updateScore(rating, newScore);
+        refreshSearchRating(rating.getStudyMaterial());
+        return updated;
     }
 
     /**
@@ -88,6 +100,15 @@ public class RatingService {
             throw new SecurityException("You do not have permission to delete this rating.");
         }
         ratingRepository.deleteById(rating.getRatingId());
+        refreshSearchRating(rating.getStudyMaterial());
+    }
+
+    // Search ranking blends in the average rating, so the index needs the new one
+    private void refreshSearchRating(StudyMaterial material) {
+        SearchIndex index = SearchIndex.getInstance();
+        if (index.isReady() && material != null) {
+            index.updateRating(material.getMaterialId(), getAverageRating(material));
+        }
     }
 
     /**
@@ -10,8 +10,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import presentation.view.LanguageManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 
 /**
@@ -21,20 +29,41 @@ import java.util.Map;
 public class ReviewService {
     private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
 
+    // "reviewId:language" of lazy translations in progress, so repeated reads start only one
+    private static final Set<String> translationsInFlight = ConcurrentHashMap.newKeySet();
+
     private final ReviewRepository reviewRepository;
     private final PermissionService permissionService;
     private final ReviewTranslationRepository translationRepository;
-    private final TranslationService translationService;
+    private TranslationService translationService;
 
     public ReviewService(ReviewRepository reviewRepository, PermissionService permissionService) {
+        this(reviewRepository, permissionService, new ReviewTranslationRepository(), null);
+    }
+
+    /**
+     * Creates the service with its own translation repository and service, for testing.
+     * A null translation service is created on first use.
+     */
+    ReviewService(ReviewRepository reviewRepository, PermissionService permissionService,
+                  ReviewTranslationRepository translationRepository, TranslationService translationService) {
         this.reviewRepository = reviewRepository;
         this.permissionService = permissionService;
-        this.translationRepository = new ReviewTranslationRepository();
-        this.translationService = new TranslationService();
+        this.translationRepository = translationRepository;
+        this.translationService = translationService;
+    }
+
+    // Created on first use, since lazy mode never translates when writing
+    private synchronized TranslationService translationService() {
+        if (translationService == null) {
+            translationService = new TranslationService();
+        }
+        return translationService;
     }
 
     /**
-     * Adds a new review and automatically translates it into supported languages.
+     * Adds a new review. In eager mode it is translated into all supported languages right
+     * away; in lazy mode only its source language is recorded.
      */
     // CREATE_REVIEW
     public Review addReview(User user, StudyMaterial material, String text) {
@@ -45,16 +74,21 @@ public class ReviewService {
             throw new SecurityException("You do not have permission to create a review.");
         }
 
+        // Get current language from LanguageManager
+        String sourceLanguage = LanguageManager.getInstance().getCurrentLanguage();
+
         Review review = new Review(text, material, user);
+        review.setSourceLanguage(sourceLanguage);
         Review savedReview = reviewRepository.save(review);
 
-        // Get current language from LanguageManager
-        String sourceLanguage = LanguageManager.getInstance().getCurrentLanguage();
+        if (TranslationService.getMode() == TranslationService.Mode.LAZY) {
+            return savedReview;
+        }
 
         try {
 
             // Translate the review text to all supported languages
-            Map<String, String> translations = translationService.translateToAllLanguages(text, sourceLanguage);
+            Map<String, String> translations = translationService().translateToAllLanguages(text, sourceLanguage);
 
             // Save translations
             translationRepository.saveTranslations(savedReview.getReviewId(), translations);
@@ -68,7 +102,8 @@ public class ReviewService {
     }
 
     /**
-     * Updates an existing review text and re-generates its translations.
+     * Updates an existing review text and re-generates its translations, or in lazy mode
+     * drops them so they are translated again from the new text when read.
      */
     // UPDATE_OWN_REVIEW
     public Review updateReview(User user, Review review, String newText) {
@@ -82,15 +117,25 @@ public class ReviewService {
             throw new SecurityException("You do not have permission to update your review.");
         }
 
+        // Get current language from LanguageManager
+        String sourceLanguage = LanguageManager.getInstance().getCurrentLanguage();
+
         review.setReviewText(newText);
+        review.setSourceLanguage(sourceLanguage);
         Review updatedReview = reviewRepository.save(review);
 
-        // Get current language from LanguageManager
-        String sourceLanguage = LanguageManager.getInstance().getCurrentLanguage();
+        if (TranslationService.getMode() == TranslationService.Mode.LAZY) {
+            try {
+                translationRepository.deleteTranslations(updatedReview.getReviewId());
+            } catch (Exception e) {
+                logger.error("Failed to drop stale translations of review {}", updatedReview.getReviewId(), e);
+            }
+            return updatedReview;
+        }
 
         try {
             // Translate the review text to all supported languages
-            Map<String, String> translations = translationService.translateToAllLanguages(newText, sourceLanguage);
+            Map<String, String> translations = translationService().translateToAllLanguages(newText, sourceLanguage);
 
             // Save translations
             translationRepository.saveTranslations(updatedReview.getReviewId(), translations);
@@ -149,7 +194,9 @@ public class ReviewService {
     }
 
     /**
-     * Returns the translated text of a review for the current language.
+     * Returns the translated text of a review for the current language. A review that has
+     * never been read in this language is translated in the background and written back,
+     * and the original text is returned until then.
      */
     public String getTranslatedReviewText(Review review) {
         if (review == null) {
@@ -158,11 +205,90 @@ public class ReviewService {
 
         String currentLanguage = LanguageManager.getInstance().getCurrentLanguage();
         String translatedText = translationRepository.getTranslation(review.getReviewId(), currentLanguage);
+        if (translatedText == null && needsTranslation(review, currentLanguage)) {
+            translateLater(List.of(review), currentLanguage);
+        }
 
         // If no translation found, return original text
         return translatedText != null ? translatedText : review.getReviewText();
     }
 
+    /**
+     * Returns the text of each review for the current language, keyed by review id, looked up
+     * with one query for the whole list. Reviews without a translation keep their original text.
+     */
+    public Map<Integer, String> getTranslatedReviewTexts(Collection<Review> reviews) {
+        return getTranslatedReviewTexts(reviews, translated -> {});
+    }
+
+    /**
+     * Like {@link #getTranslatedReviewTexts(Collection)}, but reviews missing a translation
+     * are translated in the background, written back, and handed to {@code onTranslated}
+     * on a background thread once done.
+     */
+    public Map<Integer, String> getTranslatedReviewTexts(Collection<Review> reviews, Consumer<Map<Integer, String>> onTranslated) {
+        String currentLanguage = LanguageManager.getInstance().getCurrentLanguage();
+        Map<Integer, String> translations = translationRepository.findTranslations(
+                reviews.stream().map(Review::getReviewId).toList(), currentLanguage);
+
+        Map<Integer, String> texts = new HashMap<>(reviews.size() * 2);
+        List<Review> untranslated = new ArrayList<>();
+        for (Review review : reviews) {
+            String translated = translations.get(review.getReviewId());
+            texts.put(review.getReviewId(), translated != null ? translated : review.getReviewText());
+            if (translated == null && needsTranslation(review, currentLanguage)) {
+                untranslated.add(review);
+            }
+        }
+        if (!untranslated.isEmpty()) {
+            translateLater(untranslated, currentLanguage).thenAccept(onTranslated);
+        }
+        return texts;
+    }
+
+    private static boolean needsTranslation(Review review, String language) {
+        return review.getSourceLanguage() != null && !review.getSourceLanguage().equals(language);
+    }
+
+    // One request per source language; the results are saved so later reads find them
+    private CompletableFuture<Map<Integer, String>> translateLater(List<Review> reviews, String targetLanguage) {
+        List<Review> claimed = reviews.stream()
+                .filter(review -> translationsInFlight.add(review.getReviewId() + ":" + targetLanguage))
+                .toList();
+        Map<String, List<Review>> bySource = claimed.stream().collect(Collectors.groupingBy(Review::getSourceLanguage));
+
+        List<CompletableFuture<Map<Integer, String>>> requests = new ArrayList<>();
+        bySource.forEach((sourceLanguage, group) -> requests.add(translationService()
+                .translateAsync(group.stream().map(Review::getReviewText).toList(), sourceLanguage, targetLanguage)
+                .thenApply(texts -> {
+                    Map<Integer, String> translated = new HashMap<>(group.size() * 2);
+                    for (int i = 0; i < group.size(); i++) {
+                        translated.put(group.get(i).getReviewId(), texts.get(i));
+                    }
+                    return translated;
+                })
+                .exceptionally(e -> {
+                    logger.error("Failed to translate {} reviews from {} to {}", group.size(), sourceLanguage, targetLanguage, e);
+                    return Map.of();
+                })));
+
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    Map<Integer, String> translated = new HashMap<>();
+                    requests.forEach(request -> translated.putAll(request.join()));
+                    Map<Integer, Map<String, String>> rows = new HashMap<>(translated.size() * 2);
+                    translated.forEach((reviewId, text) -> rows.put(reviewId, Map.of(targetLanguage, text)));
+                    try {
+                        translationRepository.saveAllTranslations(rows);
+                    } catch (Exception e) {
+                        logger.error("Failed to save lazily translated reviews", e);
+                    }
+                    return translated;
+                })
+                .whenComplete((translated, e) ->
+                        claimed.forEach(review -> translationsInFlight.remove(review.getReviewId() + ":" + targetLanguage)));
+    }
+
     /**
      * Returns the original review text.
      */
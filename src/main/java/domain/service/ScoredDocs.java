@@ -0,0 +1,99 @@
+package domain.service;
+
+import java.util.Arrays;
+
+/**
+ * Document ids sorted ascending with a relevance score each, in two parallel primitive
+ * arrays. Produced by {@link InvertedIndex#score} and combined across query words by
+ * intersecting and adding the scores.
+ */
+final class ScoredDocs {
+    static final ScoredDocs EMPTY = new ScoredDocs(new int[0], new float[0]);
+
+    private final int[] docs;
+    private final float[] scores;
+
+    // docs sorted ascending without repeats
+    ScoredDocs(int[] docs, float[] scores) {
+        this.docs = docs;
+        this.scores = scores;
+    }
+
+    int size() {
+        return docs.length;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    float score(int index) {
+        return scores[index];
+    }
+
+    float maxScore() {
+        float max = 0f;
+        for (float score : scores) {
+            max = Math.max(max, score);
+        }
+        return max;
+    }
+
+    // Documents in both, scored with the sum of their two scores
+    ScoredDocs intersectSum(ScoredDocs other) {
+        int[] resultDocs = new int[Math.min(size(), other.size())];
+        float[] resultScores = new float[resultDocs.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < docs.length && j < other.docs.length) {
+            if (docs[i] < other.docs[j]) {
+                i++;
+            } else if (docs[i] > other.docs[j]) {
+                j++;
+            } else {
+                resultDocs[size] = docs[i];
+                resultScores[size++] = scores[i++] + other.scores[j++];
+            }
+        }
+        return new ScoredDocs(Arrays.copyOf(resultDocs, size), Arrays.copyOf(resultScores, size));
+    }
+
+    /**
+     * Collects (document, weight) pairs in any order, with repeats, and sums them per
+     * document. Each pair is packed into one long, document id in the high half, so a
+     * single primitive sort groups them.
+     */
+    static final class Accumulator {
+        private long[] pairs = new long[16];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = ((long) doc << 32) | (Float.floatToRawIntBits(weight) & 0xFFFFFFFFL);
+        }
+
+        /**
+         * Returns every document once with its summed weight.
+         */
+        ScoredDocs sum() {
+            Arrays.sort(pairs, 0, size);
+            int[] docs = new int[size];
+            float[] sums = new float[size];
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = (int) (pairs[i] >>> 32);
+                float weight = Float.intBitsToFloat((int) pairs[i]);
+                if (distinct > 0 && docs[distinct - 1] == doc) {
+                    sums[distinct - 1] += weight;
+                } else {
+                    docs[distinct] = doc;
+                    sums[distinct++] = weight;
+                }
+            }
+            return new ScoredDocs(Arrays.copyOf(docs, distinct), Arrays.copyOf(sums, distinct));
+        }
+    }
+}
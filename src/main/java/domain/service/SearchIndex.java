@@ -0,0 +1,568 @@
+package domain.service;
+
+import domain.model.Category;
+import domain.model.SearchDocument;
+import domain.model.StudyMaterial;
+import domain.model.Tag;
+import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.MaterialContentRepository;
+import infrastructure.repository.StudyMaterialRepository;
+import infrastructure.repository.TagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory full-text index of study materials, courses and tags that {@link SearchService}
+ * answers queries from, so a search no longer scans the materials table.
+ * <p>
+ * Materials are indexed on five fields: name, description, tag names, course name and the
+ * text extracted from the uploaded file, which is stored compressed in the database so the
+ * files themselves are never fetched to search them.
+ * The index is built once at startup on a background thread and then kept current by the
+ * services that write materials, courses and tags. Until the first build has finished
+ * {@link #isReady()} is false and updates are ignored; updates made while a build is
+ * running are replayed on the new index once it is in place. Builds run one at a time, and
+ * a build that another was requested after gives way to it, so an older snapshot of the
+ * database never replaces a newer one.
+ * <p>
+ * Ranked searches score text with BM25F, boosting the name and tags over the description
+ * and weighting the file text lowest, since long documents mention many words in passing.
+ * A material's text score is blended with its average rating and how recently it was
+ * uploaded.
+ */
+public class SearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    static final int NAME = 0;
+    static final int DESCRIPTION = 1;
+    static final int TAGS = 2;
+    static final int COURSE = 3;
+    static final int CONTENT = 4;
+    private static final int MATERIAL_FIELDS = 5;
+
+    private static final float[] MATERIAL_BOOSTS = {3f, 1f, 2f, 0.5f, 0.3f};
+    private static final float[] NAME_BOOST = {1f};
+
+    // A material's score: text relevance scaled to [0, 1] by the best match, plus signals in [0, 1]
+    static final double TEXT_WEIGHT = 0.7;
+    static final double RATING_WEIGHT = 0.2;
+    static final double RECENCY_WEIGHT = 0.1;
+    private static final double MAX_RATING = 5.0;
+    private static final double RECENCY_HALF_LIFE_DAYS = 180;
+
+    private enum State { EMPTY, BUILDING, READY }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private final AtomicLong buildRequests = new AtomicLong();
+    private final List<Runnable> changesDuringBuild = new ArrayList<>();
+    private volatile State state = State.EMPTY;
+
+    private InvertedIndex materials = new InvertedIndex(MATERIAL_FIELDS);
+    private InvertedIndex categories = new InvertedIndex(1);
+    private InvertedIndex tags = new InvertedIndex(1);
+
+    // What a course or tag rename has to rewrite in the material index, and the ranking signals
+    private Map<Integer, MaterialInfo> materialInfo = new HashMap<>();
+    private Map<Integer, String> tagNames = new HashMap<>();
+
+    private record MaterialInfo(int categoryId, int[] tagIds, double ratingAverage, long uploadedAt) {
+        MaterialInfo withRating(double average) {
+            return new MaterialInfo(categoryId, tagIds, average, uploadedAt);
+        }
+    }
+
+    /**
+     * A ranked search result: the id of a material, course or tag and its score.
+     */
+    public record Hit(int id, double score) {}
+
+    private static final class InstanceHolder {
+        private static final SearchIndex instance = new SearchIndex();
+    }
+
+    private static final class BuilderHolder {
+        private static final ExecutorService builder = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the index shared by every SearchService in this client.
+     */
+    public static SearchIndex getInstance() {
+        return InstanceHolder.instance;
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Builds the index on a daemon thread from the database. Searches fall back to the
+     * database until the first build is done.
+     */
+    public void buildInBackground() {
+        long request = buildRequests.incrementAndGet();
+        BuilderHolder.builder.execute(() -> {
+            try {
+                build(request, new StudyMaterialRepository(), new CategoryRepository(), new TagRepository(), new MaterialContentRepository());
+            } catch (Exception e) {
+                logger.error("Failed to build search index", e);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds an index that has already been built, for changes too wide to apply one by
+     * one, such as deleting a user with everything they created.
+     */
+    public void rebuild() {
+        if (state != State.EMPTY) {
+            buildInBackground();
+        }
+    }
+
+    /**
+     * Loads every material, course and tag and the extracted file texts, and replaces the
+     * index with one built from them.
+     */
+    public void build(StudyMaterialRepository materialRepository, CategoryRepository categoryRepository, TagRepository tagRepository,
+                      MaterialContentRepository contentRepository) {
+        build(buildRequests.incrementAndGet(), materialRepository, categoryRepository, tagRepository, contentRepository);
+    }
+
+    private void build(long request, StudyMaterialRepository materialRepository, CategoryRepository categoryRepository,
+                       TagRepository tagRepository, MaterialContentRepository contentRepository) {
+        buildLock.lock();
+        try {
+            if (request == buildRequests.get()) {
+                buildLatest(request, materialRepository, categoryRepository, tagRepository, contentRepository);
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    // Called with the build lock held, so only one build loads and swaps at a time
+    private void buildLatest(long request, StudyMaterialRepository materialRepository, CategoryRepository categoryRepository,
+                             TagRepository tagRepository, MaterialContentRepository contentRepository) {
+        lock.writeLock().lock();
+        State previous = state;
+        try {
+            state = State.BUILDING;
+            changesDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long started = System.nanoTime();
+            List<SearchDocument> documents = materialRepository.findSearchDocuments();
+            List<Category> allCategories = categoryRepository.findAll();
+            List<Tag> allTags = tagRepository.findAll();
+
+            InvertedIndex newMaterials = new InvertedIndex(MATERIAL_FIELDS);
+            InvertedIndex newCategories = new InvertedIndex(1);
+            InvertedIndex newTags = new InvertedIndex(1);
+            Map<Integer, MaterialInfo> newMaterialInfo = new HashMap<>(documents.size() * 2);
+            Map<Integer, String> newTagNames = new HashMap<>(allTags.size() * 2);
+            for (SearchDocument document : documents) {
+                addMaterial(newMaterials, newMaterialInfo, document);
+            }
+            contentRepository.forEachText((text, materialId) -> newMaterials.replaceField(materialId, CONTENT, text));
+            for (Category category : allCategories) {
+                newCategories.add(category.getCategoryId(), category.getCategoryName());
+            }
+            for (Tag tag : allTags) {
+                newTags.add(tag.getTagId(), tag.getTagName());
+                newTagNames.put(tag.getTagId(), tag.getTagName());
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (request != buildRequests.get()) {
+                    // A newer build is waiting and will read everything this one missed
+                    state = previous;
+                    changesDuringBuild.clear();
+                    return;
+                }
+                materials = newMaterials;
+                categories = newCategories;
+                tags = newTags;
+                materialInfo = newMaterialInfo;
+                tagNames = newTagNames;
+                changesDuringBuild.forEach(Runnable::run);
+                changesDuringBuild.clear();
+                state = State.READY;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Built search index with {} materials, {} courses and {} tags in {} ms",
+                    documents.size(), allCategories.size(), allTags.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                state = previous;
+                changesDuringBuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    public void indexMaterial(StudyMaterial material) {
+        if (state != State.EMPTY) {
+            indexMaterial(SearchDocument.of(material));
+        }
+    }
+
+    public void indexMaterial(SearchDocument document) {
+        update(() -> addMaterial(materials, materialInfo, document));
+    }
+
+    /**
+     * Indexes the text extracted from a material's file, replacing any earlier text. Does
+     * nothing for a material that is not in the index.
+     */
+    public void indexContent(int materialId, String text) {
+        update(() -> materials.replaceField(materialId, CONTENT, text));
+    }
+
+    public void removeMaterial(int materialId) {
+        update(() -> {
+            materials.remove(materialId);
+            materialInfo.remove(materialId);
+        });
+    }
+
+    public void updateRating(int materialId, double ratingAverage) {
+        update(() -> materialInfo.computeIfPresent(materialId, (id, info) -> info.withRating(ratingAverage)));
+    }
+
+    // Also rewrites the course field of the course's materials when the name changed
+    public void indexCategory(Category category) {
+        if (state == State.EMPTY) {
+            return;
+        }
+        int categoryId = category.getCategoryId();
+        String name = category.getCategoryName();
+        update(() -> {
+            categories.add(categoryId, name);
+            materialInfo.forEach((materialId, info) -> {
+                if (info.categoryId() == categoryId) {
+                    materials.replaceField(materialId, COURSE, name);
+                }
+            });
+        });
+    }
+
+    // Deleting a course deletes its materials, so they leave the index with it
+    public void removeCategory(int categoryId) {
+        update(() -> {
+            categories.remove(categoryId);
+            List<Integer> removed = new ArrayList<>();
+            materialInfo.forEach((materialId, info) -> {
+                if (info.categoryId() == categoryId) {
+                    removed.add(materialId);
+                }
+            });
+            for (int materialId : removed) {
+                materials.remove(materialId);
+                materialInfo.remove(materialId);
+            }
+        });
+    }
+
+    public void indexTag(Tag tag) {
+        if (state == State.EMPTY) {
+            return;
+        }
+        int tagId = tag.getTagId();
+        String name = tag.getTagName();
+        update(() -> {
+            tags.add(tagId, name);
+            String previous = tagNames.put(tagId, name);
+            if (previous != null && !previous.equals(name)) {
+                rewriteTagField(tagId);
+            }
+        });
+    }
+
+    public void removeTag(int tagId) {
+        update(() -> {
+            tags.remove(tagId);
+            tagNames.remove(tagId);
+            rewriteTagField(tagId);
+        });
+    }
+
+    /**
+     * Returns the ids of the materials matching every word of the query.
+     */
+    public int[] searchMaterials(String query) {
+        return search(() -> materials.match(query));
+    }
+
+    public int[] searchCategories(String query) {
+        return search(() -> categories.match(query));
+    }
+
+    public int[] searchTags(String query) {
+        return search(() -> tags.match(query));
+    }
+
+    /**
+     * Returns the best matching materials, best first. Text relevance is blended with the
+     * average rating and upload recency. The best text matches are scored first, and every
+     * other match is skipped without looking up its signals once even a perfectly rated new
+     * material with its text score could no longer make the top.
+     *
+     * @param limit the most hits to return
+     */
+    public List<Hit> rankMaterials(String query, int limit) {
+        return search(() -> {
+            ScoredDocs scored = materials.score(query, MATERIAL_BOOSTS);
+            if (scored.size() == 0 || limit <= 0) {
+                return List.of();
+            }
+
+            double maxText = scored.maxScore();
+            long now = System.currentTimeMillis();
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+            boolean[] seen = new boolean[scored.size()];
+            for (int index : topByScore(scored, limit)) {
+                seen[index] = true;
+                offer(best, limit, scored, index, maxText, now);
+            }
+            for (int index = 0; index < scored.size(); index++) {
+                if (!seen[index]) {
+                    offer(best, limit, scored, index, maxText, now);
+                }
+            }
+            return bestFirst(best);
+        });
+    }
+
+    /**
+     * Returns the best matching courses, best first, scored on text relevance alone on the
+     * same scale as the text part of a material's score.
+     */
+    public List<Hit> rankCategories(String query, int limit) {
+        return search(() -> rankByText(categories.score(query, NAME_BOOST), limit));
+    }
+
+    public List<Hit> rankTags(String query, int limit) {
+        return search(() -> rankByText(tags.score(query, NAME_BOOST), limit));
+    }
+
+    /**
+     * Returns the query with every word that matches nothing replaced by the closest word
+     * in the materials, courses or tags, for a "did you mean" hint. Null if every word
+     * matches as typed or no close word exists.
+     */
+    public String suggest(String query) {
+        return search(() -> {
+            List<String> words = new ArrayList<>();
+            boolean corrected = false;
+            for (String token : TextAnalyzer.tokenize(query)) {
+                TrigramIndex.Correction best = null;
+                for (InvertedIndex index : List.of(materials, categories, tags)) {
+                    if (index.matchesAsTyped(token)) {
+                        best = null;
+                        break;
+                    }
+                    TrigramIndex.Correction correction = index.correct(token);
+                    if (correction != null && (best == null || correction.distance() < best.distance())) {
+                        best = correction;
+                    }
+                }
+                words.add(best != null ? best.word() : token);
+                corrected |= best != null;
+            }
+            return corrected ? String.join(" ", words) : null;
+        });
+    }
+
+    private void offer(PriorityQueue<Hit> best, int limit, ScoredDocs scored, int index, double maxText, long now) {
+        double text = TEXT_WEIGHT * scored.score(index) / maxText;
+        if (best.size() == limit && text + RATING_WEIGHT + RECENCY_WEIGHT <= best.peek().score()) {
+            return;
+        }
+        int materialId = scored.doc(index);
+        best.add(new Hit(materialId, text + signals(materialInfo.get(materialId), now)));
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static List<Hit> rankByText(ScoredDocs scored, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        double maxText = scored.maxScore();
+        int[] top = topByScore(scored, limit);
+        List<Hit> hits = new ArrayList<>(top.length);
+        for (int index : top) {
+            hits.add(new Hit(scored.doc(index), TEXT_WEIGHT * scored.score(index) / maxText));
+        }
+        return hits;
+    }
+
+    private static double signals(MaterialInfo info, long now) {
+        if (info == null) {
+            return 0;
+        }
+        double rating = Math.min(info.ratingAverage() / MAX_RATING, 1.0);
+        double ageDays = Math.max(0, now - info.uploadedAt()) / (double) Duration.ofDays(1).toMillis();
+        double recency = Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS);
+        return RATING_WEIGHT * rating + RECENCY_WEIGHT * recency;
+    }
+
+    // Positions of the k highest scores in the scored docs, highest first. A min-heap of k
+    // keys is kept instead of sorting every match; score and position are packed into one long
+    private static int[] topByScore(ScoredDocs scored, int k) {
+        long[] heap = new long[Math.min(k, scored.size())];
+        int count = 0;
+        for (int i = 0; i < scored.size(); i++) {
+            // Scores are non-negative, so their bits order like the floats themselves
+            long key = ((long) Float.floatToIntBits(scored.score(i)) << 32) | i;
+            if (count < heap.length) {
+                heap[count] = key;
+                siftUp(heap, count++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, count);
+            }
+        }
+        // Taking the smallest key each time fills the order from the back
+        int[] order = new int[count];
+        for (int size = count; size > 0; size--) {
+            order[size - 1] = (int) heap[0];
+            heap[0] = heap[size - 1];
+            siftDown(heap, size - 1);
+        }
+        return order;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent] <= heap[i]) {
+                return;
+            }
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[i] <= heap[child]) {
+                return;
+            }
+            swap(heap, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(long[] heap, int i, int j) {
+        long t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+    }
+
+    private static List<Hit> bestFirst(PriorityQueue<Hit> hits) {
+        List<Hit> ordered = new ArrayList<>(hits);
+        ordered.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return ordered;
+    }
+
+    private <T> T search(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (state == State.EMPTY) {
+                return;
+            }
+            change.run();
+            if (state == State.BUILDING) {
+                changesDuringBuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rewriteTagField(int tagId) {
+        materialInfo.forEach((materialId, info) -> {
+            for (int id : info.tagIds()) {
+                if (id == tagId) {
+                    materials.replaceField(materialId, TAGS, tagText(info.tagIds()));
+                    break;
+                }
+            }
+        });
+    }
+
+    private String tagText(int[] tagIds) {
+        StringBuilder text = new StringBuilder();
+        for (int tagId : tagIds) {
+            String name = tagNames.get(tagId);
+            if (name != null) {
+                text.append(name).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    // Re-indexing a material keeps the file text, which only changes through indexContent
+    private static void addMaterial(InvertedIndex index, Map<Integer, MaterialInfo> materialInfo, SearchDocument document) {
+        int[] tagIds = document.tags().keySet().stream().mapToInt(Integer::intValue).toArray();
+        int materialId = document.materialId();
+        String tagText = String.join(" ", document.tags().values());
+        if (index.contains(materialId)) {
+            index.replaceField(materialId, NAME, document.name());
+            index.replaceField(materialId, DESCRIPTION, document.description());
+            index.replaceField(materialId, TAGS, tagText);
+            index.replaceField(materialId, COURSE, document.courseName());
+        } else {
+            index.add(materialId, document.name(), document.description(), tagText, document.courseName());
+        }
+        LocalDateTime timestamp = document.timestamp();
+        long uploadedAt = timestamp != null ? timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        materialInfo.put(materialId, new MaterialInfo(document.categoryId(), tagIds, document.ratingAverage(), uploadedAt));
+    }
+}
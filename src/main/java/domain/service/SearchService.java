@@ -1,22 +1,35 @@
 package domain.service;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
+import domain.model.SearchResult;
 import domain.model.StudyMaterial;
 import domain.model.Tag;
 import infrastructure.repository.CategoryRepository;
 import infrastructure.repository.StudyMaterialRepository;
 import infrastructure.repository.TagRepository;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
 
 /**
  * Service class that provides search functionality across
  * study materials, categories, and tags.
+ * Queries are answered from the shared {@link SearchIndex} once it has been built, and
+ * only the matching rows are fetched from the database; before that they fall back to
+ * substring queries.
  */
 public class SearchService {
+    public static final int DEFAULT_LIMIT = 50;
+
     private final StudyMaterialRepository materialRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
+    private final SearchIndex index;
 
     /**
      * Constructs the SearchService with required repositories.
@@ -26,10 +39,23 @@ public class SearchService {
      * @param tagRepository      Repository for tags
      */
     public SearchService(StudyMaterialRepository materialRepository, CategoryRepository categoryRepository, TagRepository tagRepository) {
+        this(materialRepository, categoryRepository, tagRepository, SearchIndex.getInstance());
+    }
+
+    /**
+     * Constructs the SearchService on a given index.
+     *
+     * @param materialRepository Repository for study materials
+     * @param categoryRepository Repository for categories
+     * @param tagRepository      Repository for tags
+     * @param index              Index to answer queries from
+     */
+    public SearchService(StudyMaterialRepository materialRepository, CategoryRepository categoryRepository, TagRepository tagRepository,
+                         SearchIndex index) {
         this.materialRepository = materialRepository;
         this.categoryRepository = categoryRepository;
         this.tagRepository = tagRepository;
-
+        this.index = index;
     }
 
     /**
@@ -39,7 +65,127 @@ public class SearchService {
      * @return List of matched StudyMaterial objects
      */
     public List<StudyMaterial> searchMaterials(String query) {
-        return materialRepository.findByNameOrDescription(query);
+        if (!index.isReady()) {
+            return materialRepository.findByNameOrDescription(query);
+        }
+        List<Integer> ids = newestFirst(index.searchMaterials(query));
+        return inOrder(ids, materialRepository.findAllById(ids), StudyMaterial::getMaterialId);
+    }
+
+    /**
+     * Searches materials, courses and tags at once and returns one list ordered by relevance.
+     * Materials are ranked on their text match blended with average rating and recency,
+     * courses and tags on their text match alone. Only the best {@code limit} hits are
+     * fetched from the database.
+     *
+     * @param query              Search keyword
+     * @param includeMaterials   whether to search materials
+     * @param includeCategories  whether to search courses
+     * @param includeTags        whether to search tags
+     * @param limit              the most results to return
+     * @return the best results, highest score first
+     */
+    public List<SearchResult> search(String query, boolean includeMaterials, boolean includeCategories,
+                                     boolean includeTags, int limit) {
+        if (!index.isReady()) {
+            return unranked(query, includeMaterials, includeCategories, includeTags, limit);
+        }
+
+        List<RankedId> ranked = new ArrayList<>();
+        if (includeMaterials) {
+            index.rankMaterials(query, limit).forEach(hit -> ranked.add(new RankedId(SearchResult.Kind.MATERIAL, hit)));
+        }
+        if (includeCategories) {
+            index.rankCategories(query, limit).forEach(hit -> ranked.add(new RankedId(SearchResult.Kind.CATEGORY, hit)));
+        }
+        if (includeTags) {
+            index.rankTags(query, limit).forEach(hit -> ranked.add(new RankedId(SearchResult.Kind.TAG, hit)));
+        }
+        ranked.sort(Comparator.comparingDouble((RankedId r) -> r.hit().score()).reversed());
+        List<RankedId> best = ranked.subList(0, Math.min(limit, ranked.size()));
+
+        Map<Integer, MaterialSummary> materials = byId(materialRepository.findSummariesByIds(idsOf(best, SearchResult.Kind.MATERIAL)),
+                MaterialSummary::materialId);
+        Map<Integer, Category> categories = byId(categoryRepository.findAllById(idsOf(best, SearchResult.Kind.CATEGORY)),
+                Category::getCategoryId);
+        Map<Integer, Tag> tags = byId(tagRepository.findAllById(idsOf(best, SearchResult.Kind.TAG)), Tag::getTagId);
+
+        List<SearchResult> results = new ArrayList<>(best.size());
+        for (RankedId r : best) {
+            int id = r.hit().id();
+            double score = r.hit().score();
+            switch (r.kind()) {
+                case MATERIAL -> {
+                    if (materials.containsKey(id)) {
+                        results.add(SearchResult.of(materials.get(id), score));
+                    }
+                }
+                case CATEGORY -> {
+                    if (categories.containsKey(id)) {
+                        results.add(SearchResult.of(categories.get(id), score));
+                    }
+                }
+                case TAG -> {
+                    if (tags.containsKey(id)) {
+                        results.add(SearchResult.of(tags.get(id), score));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Suggests a corrected query when some of its words match nothing, e.g. "algorithm"
+     * for "algorthm".
+     *
+     * @param query Search keyword
+     * @return the corrected query, or null if there is nothing to correct
+     */
+    public String suggest(String query) {
+        return index.isReady() ? index.suggest(query) : null;
+    }
+
+    // Before the index is built: database matches in the old order, materials first, without scores
+    private List<SearchResult> unranked(String query, boolean includeMaterials, boolean includeCategories,
+                                        boolean includeTags, int limit) {
+        List<SearchResult> results = new ArrayList<>();
+        if (includeMaterials) {
+            materialRepository.findSummariesByNameOrDescription(query).forEach(m -> results.add(SearchResult.of(m, 0)));
+        }
+        if (includeCategories && results.size() < limit) {
+            categoryRepository.findByName(query).forEach(c -> results.add(SearchResult.of(c, 0)));
+        }
+        if (includeTags && results.size() < limit) {
+            tagRepository.searchByName(query).forEach(t -> results.add(SearchResult.of(t, 0)));
+        }
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    private record RankedId(SearchResult.Kind kind, SearchIndex.Hit hit) {}
+
+    private static List<Integer> idsOf(List<RankedId> ranked, SearchResult.Kind kind) {
+        List<Integer> ids = new ArrayList<>();
+        for (RankedId r : ranked) {
+            if (r.kind() == kind) {
+                ids.add(r.hit().id());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Searches for study materials like {@link #searchMaterials(String)}, returning
+     * lightweight summaries for result lists instead of full entities.
+     *
+     * @param query Search keyword
+     * @return List of matched MaterialSummary objects
+     */
+    public List<MaterialSummary> searchMaterialSummaries(String query) {
+        if (!index.isReady()) {
+            return materialRepository.findSummariesByNameOrDescription(query);
+        }
+        return materialRepository.findSummariesByIds(newestFirst(index.searchMaterials(query)));
     }
 
     /**
@@ -49,7 +195,11 @@ public class SearchService {
      * @return List of matched Category objects
      */
     public List<Category> searchCategories(String query) {
-        return categoryRepository.findByName(query);
+        if (!index.isReady()) {
+            return categoryRepository.findByName(query);
+        }
+        List<Integer> ids = newestFirst(index.searchCategories(query));
+        return inOrder(ids, categoryRepository.findAllById(ids), Category::getCategoryId);
     }
 
     /**
@@ -59,7 +209,37 @@ public class SearchService {
      * @return List of matched Tag objects
      */
     public List<Tag> searchTags(String query) {
-        return tagRepository.searchByName(query);
+        if (!index.isReady()) {
+            return tagRepository.searchByName(query);
+        }
+        List<Integer> ids = newestFirst(index.searchTags(query));
+        return inOrder(ids, tagRepository.findAllById(ids), Tag::getTagId);
     }
 
+    // Ids grow with insertion, so the highest id is the newest row
+    private static List<Integer> newestFirst(int[] ids) {
+        List<Integer> ordered = new ArrayList<>(ids.length);
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ordered.add(ids[i]);
+        }
+        return ordered;
+    }
+
+    private static <T> Map<Integer, T> byId(List<T> rows, ToIntFunction<T> idOf) {
+        Map<Integer, T> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byId.put(idOf.applyAsInt(row), row));
+        return byId;
+    }
+
+    private static <T> List<T> inOrder(List<Integer> ids, List<T> rows, ToIntFunction<T> idOf) {
+        Map<Integer, T> byId = byId(rows, idOf);
+        List<T> ordered = new ArrayList<>(rows.size());
+        for (int id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
 }
@@ -0,0 +1,31 @@
+package domain.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests and their lowercase hex form, which is how the stored files, the blob
+ * store links and the download cache name content.
+ */
+final class Sha256 {
+    private Sha256() {}
+
+    // Every Java platform must provide SHA-256, so a missing one is a broken runtime
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String hashOf(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    // Completes the digest, so it can't be updated afterwards
+    static String hexOf(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
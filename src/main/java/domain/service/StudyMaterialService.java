@@ -1,26 +1,40 @@
 package domain.service;
 
 import domain.model.*;
+import infrastructure.repository.MaterialContentRepository;
+import infrastructure.repository.StoredFileRepository;
 import infrastructure.repository.StudyMaterialRepository;
 import infrastructure.repository.StudyMaterialTranslationRepository;
 import domain.model.PermissionType;
-import javafx.application.Platform;
 import javafx.concurrent.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import presentation.view.LanguageManager;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static domain.model.RoleType.ADMIN;
 
@@ -32,25 +46,91 @@ import static domain.model.RoleType.ADMIN;
 public class StudyMaterialService {
     private static final Logger logger = LoggerFactory.getLogger(StudyMaterialService.class);
 
-    private final GoogleDriveService driveService;
+    // "materialId:language" of lazy translations in progress, so repeated reads start only one
+    private static final Set<String> translationsInFlight = ConcurrentHashMap.newKeySet();
+
+    private final BlobStore blobStore;
     private final StudyMaterialRepository repository;
     private final PermissionService permissionService;
+    private MaterialContentRepository contentRepository;
+    private StoredFileRepository storedFileRepository;
+    private DownloadCache downloadCache;
+    private StudyMaterialTranslationRepository translationRepository;
+    private TranslationService translationService;
+
+    // Text is extracted one upload at a time. A waiting upload made from a byte array holds the
+    // whole array, so only a few may wait; past that an upload is stored without its file text
+    private static final int MAX_PENDING_EXTRACTIONS = 4;
+
+    private static final class ExtractorHolder {
+        private static final ExecutorService extractor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_EXTRACTIONS), task -> {
+                    Thread thread = new Thread(task, "content-extraction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
     /**
      * Constructs a new StudyMaterialService.
      *
-     * @param driveService      Google Drive service for file storage
+     * @param blobStore         Storage for the uploaded files
      * @param repository        Repository for study materials
      * @param permissionService Permission service for authorization
      */
-    public StudyMaterialService(GoogleDriveService driveService, StudyMaterialRepository repository, PermissionService permissionService) {
-        this.driveService = driveService;
+    public StudyMaterialService(BlobStore blobStore, StudyMaterialRepository repository, PermissionService permissionService) {
+        this.blobStore = blobStore;
         this.repository = repository;
         this.permissionService = permissionService;
     }
 
     /**
-     * Uploads a new study material and generates translations and preview image.
+     * Constructs a new StudyMaterialService that stores extracted file text and the index
+     * of stored files in the given repositories, and caches downloads in the given cache.
+     *
+     * @param blobStore            Storage for the uploaded files
+     * @param repository           Repository for study materials
+     * @param permissionService    Permission service for authorization
+     * @param contentRepository    Repository for text extracted from uploaded files
+     * @param storedFileRepository Index of stored files by content hash
+     * @param downloadCache        Local cache of downloaded files
+     * @param translationRepository Repository for translated names and descriptions
+     */
+    public StudyMaterialService(BlobStore blobStore, StudyMaterialRepository repository, PermissionService permissionService,
+                                MaterialContentRepository contentRepository, StoredFileRepository storedFileRepository,
+                                DownloadCache downloadCache, StudyMaterialTranslationRepository translationRepository) {
+        this(blobStore, repository, permissionService);
+        this.contentRepository = contentRepository;
+        this.storedFileRepository = storedFileRepository;
+        this.downloadCache = downloadCache;
+        this.translationRepository = translationRepository;
+    }
+
+    private synchronized StudyMaterialTranslationRepository translationRepository() {
+        if (translationRepository == null) {
+            translationRepository = new StudyMaterialTranslationRepository();
+        }
+        return translationRepository;
+    }
+
+    // Pages build a new service each time they open, so the default translator is shared by all of them
+    private static final class TranslationServiceHolder {
+        private static final TranslationService instance = new TranslationService();
+    }
+
+    private synchronized TranslationService translationService() {
+        if (translationService == null) {
+            translationService = TranslationServiceHolder.instance;
+        }
+        return translationService;
+    }
+
+    /**
+     * Uploads a new study material and generates its preview image. A file whose content
+     * was uploaded before isn't stored again: the material reuses the stored link and
+     * preview. The text of the file is then extracted for search in the background. In
+     * eager translation mode the name and description are also translated into every
+     * supported language.
      *
      * @param content     File content in bytes
      * @param filename    Name of the file
@@ -66,19 +146,141 @@ public class StudyMaterialService {
         checkUploadPermission(uploader);
 
         String fileType = resolveFileType(filename);
-        String fileUrl = driveService.uploadFile(content, filename, fileType);
-        byte[] preview = new PreviewGeneratorService().generatePreview(content, fileType);
+        String sha256 = Sha256.hashOf(content);
+        StoredFile stored = findStoredFile(sha256);
+        if (stored == null) {
+            String fileUrl = blobStore.uploadFile(content, filename, fileType);
+            byte[] preview = new PreviewGeneratorService().generatePreview(content, fileType);
+            stored = storedFiles().remember(new StoredFile(sha256, fileUrl, fileType, content.length, preview));
+        }
+
+        return saveUploadedMaterial(uploader, name, description, stored, category, tags,
+                () -> new ByteArrayInputStream(content));
+    }
 
+    /**
+     * Uploads a new study material streamed from a file on disk, so the memory used doesn't
+     * grow with the file size. The file is read once to hash it and detect its type, then
+     * stored in chunks unless the same content was uploaded before; the preview and the
+     * extracted text read only what they need of it.
+     *
+     * @param file        The file to upload
+     * @param uploader    User uploading the file
+     * @param name        Display name of the material
+     * @param description Description of the material
+     * @param category    Category to which the material belongs
+     * @param tags        Tags associated with the material
+     * @return Uploaded StudyMaterial
+     * @throws IOException if reading, storing or previewing the file fails
+     */
+    public StudyMaterial uploadMaterial(Path file, User uploader, String name, String description, Category category, Set<Tag> tags) throws IOException {
+        checkUploadPermission(uploader);
+
+        FileFingerprint fingerprint = FileFingerprint.of(file);
+        StoredFile stored = findStoredFile(fingerprint.sha256());
+        if (stored == null) {
+            String fileType = fingerprint.contentType();
+            String fileUrl = blobStore.uploadFile(file, file.getFileName().toString(), fileType, fingerprint.sha256());
+            byte[] preview = new PreviewGeneratorService().generatePreview(file, fileType);
+            stored = storedFiles().remember(new StoredFile(fingerprint.sha256(), fileUrl, fileType, fingerprint.size(), preview));
+        }
+
+        return saveUploadedMaterial(uploader, name, description, stored, category, tags,
+                () -> Files.newInputStream(file));
+    }
+
+    /**
+     * Looks up a previously stored file with the same content.
+     *
+     * @param sha256 hex SHA-256 of the file content
+     * @return the stored file, or null if the content is new
+     */
+    private StoredFile findStoredFile(String sha256) {
+        StoredFile stored = storedFiles().findByHash(sha256);
+        if (stored != null) {
+            logger.info("Reusing stored file {} for identical upload", stored.getLink());
+        }
+        return stored;
+    }
+
+    private StoredFileRepository storedFiles() {
+        if (storedFileRepository == null) {
+            storedFileRepository = new StoredFileRepository();
+        }
+        return storedFileRepository;
+    }
+
+    /**
+     * Saves and indexes an uploaded material, then starts the text extraction and, in eager
+     * translation mode, translates the name and description. The preview stays in the stored
+     * file, shared with other uploads of the same content, and is only set on the returned
+     * material for display.
+     */
+    private StudyMaterial saveUploadedMaterial(User uploader, String name, String description, StoredFile stored,
+                                               Category category, Set<Tag> tags, ContentSource content) {
         MaterialStatus status = determineStatus(category, uploader);
-        StudyMaterial material = buildMaterial(uploader, name, description, fileUrl, fileType, preview, category, status, tags);
+        StudyMaterial material = buildMaterial(uploader, name, description, stored.getLink(), stored.getFileType(),
+                stored.getPreviewImage(), category, status, tags);
+        material.setSourceLanguage(currentLanguage());
 
         StudyMaterial savedMaterial = repository.save(material);
-        generateAndSaveTranslations(name, description, savedMaterial);
+        savedMaterial.setPreviewImage(stored.getPreviewImage());
+        SearchIndex.getInstance().indexMaterial(savedMaterial);
+        extractContentInBackground(savedMaterial.getMaterialId(), content, stored.getFileType());
+        if (TranslationService.getMode() == TranslationService.Mode.EAGER) {
+            generateAndSaveTranslations(name, description, savedMaterial);
+        }
 
         logger.info("User {} uploaded new study material: {}", uploader.getEmail(), name);
         return savedMaterial;
     }
 
+    /**
+     * Opens the content of an uploaded file, which may be in memory or on disk.
+     */
+    @FunctionalInterface
+    private interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Extracts the text of an uploaded file, stores it compressed and adds it to the search
+     * index, on a background thread so the upload doesn't wait for it.
+     *
+     * @param materialId id of the saved material
+     * @param content    opens the file content
+     * @param fileType   MIME type of the file
+     */
+    private void extractContentInBackground(int materialId, ContentSource content, String fileType) {
+        try {
+            ExtractorHolder.extractor.execute(() -> extractContent(materialId, content, fileType));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Too many uploads waiting for text extraction, material {} is searchable without its file text", materialId);
+        }
+    }
+
+    private void extractContent(int materialId, ContentSource content, String fileType) {
+        try {
+            String text;
+            try (InputStream in = content.open()) {
+                text = new ContentExtractorService().extractText(in, fileType);
+            }
+            if (text.isEmpty()) {
+                return;
+            }
+            if (contentRepository == null) {
+                contentRepository = new MaterialContentRepository();
+            }
+            if (!contentRepository.saveText(materialId, text)) {
+                return;
+            }
+            SearchIndex.getInstance().indexContent(materialId, text);
+            logger.info("Extracted {} characters of text from material {}", text.length(), materialId);
+        } catch (Exception e) {
+            logger.error("Failed to extract text from material {}", materialId, e);
+        }
+    }
+
     /**
      * Checks whether the user has permission to upload material.
      *
@@ -133,7 +335,6 @@ public class StudyMaterialService {
                 status
         );
         material.setCategory(category);
-        material.setPreviewImage(preview);
         material.getTags().addAll(tags);
         return material;
     }
@@ -147,15 +348,10 @@ public class StudyMaterialService {
      */
     private void generateAndSaveTranslations(String name, String description, StudyMaterial savedMaterial) {
         try {
-            StudyMaterialTranslationRepository translationRepo = new StudyMaterialTranslationRepository();
-            TranslationService translationService = new TranslationService();
+            StudyMaterialTranslationRepository translationRepo = translationRepository();
+            TranslationService translationService = translationService();
 
-            String sourceLanguage = LanguageManager.getInstance().getCurrentLanguage();
-            if (sourceLanguage == null || sourceLanguage.isEmpty()) {
-                sourceLanguage = "en";
-            }
-
-            String[] targetLanguages = {"en", "fi", "ru", "zh"};
+            String sourceLanguage = currentLanguage();
 
             Map<String, String> nameTranslations = new HashMap<>();
             Map<String, String> descriptionTranslations = new HashMap<>();
@@ -163,21 +359,16 @@ public class StudyMaterialService {
             nameTranslations.put(sourceLanguage, name);
             descriptionTranslations.put(sourceLanguage, description);
 
-            for (String targetLanguage : targetLanguages) {
-                if (!targetLanguage.equals(sourceLanguage)) {
-                    try {
-                        String translatedName = translationService.translate(name, sourceLanguage, targetLanguage);
-                        String translatedDescription = (description != null && !description.isEmpty())
-                                ? translationService.translate(description, sourceLanguage, targetLanguage)
-                                : "";
-
-                        nameTranslations.put(targetLanguage, translatedName);
-                        descriptionTranslations.put(targetLanguage, translatedDescription);
-                    } catch (Exception e) {
-                        logger.error("Failed to translate study material from {} to {}: {}",
-                                sourceLanguage, targetLanguage, e.getMessage());
-                    }
-                }
+            // Name and description go out together, one request per language, all languages at once
+            TranslationService.BatchResult result = translationService.translateBatch(
+                    Arrays.asList(name, description), sourceLanguage, translationService.otherLanguages(sourceLanguage));
+            result.translations().forEach((targetLanguage, texts) -> {
+                nameTranslations.put(targetLanguage, texts.get(0));
+                descriptionTranslations.put(targetLanguage, texts.get(1));
+            });
+            for (Map.Entry<String, Exception> failure : result.failures().entrySet()) {
+                logger.error("Failed to translate study material from {} to {}: {}",
+                        sourceLanguage, failure.getKey(), failure.getValue().getMessage());
             }
 
             translationRepo.saveTranslations(savedMaterial.getMaterialId(), nameTranslations, descriptionTranslations);
@@ -187,6 +378,55 @@ public class StudyMaterialService {
         }
     }
 
+    private static String currentLanguage() {
+        String language = LanguageManager.getInstance().getCurrentLanguage();
+        return (language == null || language.isEmpty()) ? "en" : language;
+    }
+
+    /**
+     * Returns the name and description of a material in the given language, or null if it
+     * has no translation yet. A material that has never been read in this language is
+     * translated in the background and written back, and {@code onTranslated} receives the
+     * result on a background thread; until then callers show the original text.
+     *
+     * @param material     the material to look up
+     * @param languageCode language to show it in
+     * @param onTranslated receives a translation made by this call
+     * @return the stored translation, or null
+     */
+    public MaterialTranslation getTranslation(StudyMaterial material, String languageCode, Consumer<MaterialTranslation> onTranslated) {
+        StudyMaterialTranslationRepository translationRepo = translationRepository();
+        MaterialTranslation stored = translationRepo.findTranslations(List.of(material.getMaterialId()), languageCode)
+                .get(material.getMaterialId());
+        String sourceLanguage = material.getSourceLanguage();
+        if (stored != null || sourceLanguage == null || sourceLanguage.equals(languageCode)) {
+            return stored;
+        }
+
+        String key = material.getMaterialId() + ":" + languageCode;
+        if (!translationsInFlight.add(key)) {
+            return null;
+        }
+        String description = material.getDescription() != null ? material.getDescription() : "";
+        translationService().translateAsync(Arrays.asList(material.getName(), description), sourceLanguage, languageCode)
+                .thenApply(texts -> {
+                    MaterialTranslation translation = new MaterialTranslation(texts.get(0), texts.get(1));
+                    translationRepo.saveTranslations(material.getMaterialId(),
+                            Map.of(languageCode, translation.name()), Map.of(languageCode, translation.description()));
+                    return translation;
+                })
+                .whenComplete((translation, e) -> {
+                    translationsInFlight.remove(key);
+                    if (e != null) {
+                        logger.error("Failed to translate material {} from {} to {}",
+                                material.getMaterialId(), sourceLanguage, languageCode, e);
+                    } else {
+                        onTranslated.accept(translation);
+                    }
+                });
+        return null;
+    }
+
     /**
      * Updates a study material if the user has proper permission.
      *
@@ -209,13 +449,23 @@ public class StudyMaterialService {
             throw new SecurityException("You do not have permission to update this study material.");
         }
 
+        boolean textChanged = !Objects.equals(existingMaterial.getName(), updatedMaterial.getName())
+                || !Objects.equals(existingMaterial.getDescription(), updatedMaterial.getDescription());
         existingMaterial.setName(updatedMaterial.getName());
         existingMaterial.setDescription(updatedMaterial.getDescription());
         existingMaterial.setCategory(updatedMaterial.getCategory());
         existingMaterial.setStatus(MaterialStatus.PENDING);
+        if (textChanged) {
+            existingMaterial.setSourceLanguage(currentLanguage());
+        }
 
         logger.info("User {} updated study material: {} (pending review)", user.getEmail(), existingMaterial.getName());
-        return repository.save(existingMaterial);
+        StudyMaterial saved = repository.save(existingMaterial);
+        SearchIndex.getInstance().indexMaterial(saved);
+        if (textChanged) {
+            refreshTranslations(saved);
+        }
+        return saved;
     }
 
     /**
@@ -268,26 +518,7 @@ public class StudyMaterialService {
             @Override
             protected Void call() throws Exception {
                 try {
-                    boolean canDownload = (material.getStatus() == MaterialStatus.APPROVED &&
-                            permissionService.hasPermission(user, PermissionType.READ_RESOURCES))
-                            || permissionService.hasPermission(user, PermissionType.REVIEW_PENDING_RESOURCES);
-
-                    if (!canDownload) {
-                        throw new SecurityException("You do not have permission to download this material.");
-                    }
-
-                    long fileSize = driveService.getFileSize(material.getLink());
-
-                    try (OutputStream out = new FileOutputStream(saveLocation)) {
-                        driveService.downloadFile(material.getLink(), out, (bytesCopied) -> {
-                            updateProgress(bytesCopied, fileSize);
-                        });
-                    }
-
-                    Platform.runLater(() -> {
-                        logger.info("User {} downloaded material: {}", user.getEmail(), material.getName());
-                    });
-
+                    download(user, material, saveLocation, this::updateProgress);
                     return null;
                 } catch (Exception e) {
                     logger.error("Error downloading material: {}", e.getMessage());
@@ -299,6 +530,44 @@ public class StudyMaterialService {
         return downloadTask;
     }
 
+    // The body of the download task, kept apart from the Task so it runs without the JavaFX toolkit
+    void download(User user, StudyMaterial material, File saveLocation, BiConsumer<Long, Long> progress) throws IOException {
+        boolean canDownload = (material.getStatus() == MaterialStatus.APPROVED &&
+                permissionService.hasPermission(user, PermissionType.READ_RESOURCES))
+                || permissionService.hasPermission(user, PermissionType.REVIEW_PENDING_RESOURCES);
+
+        if (!canDownload) {
+            throw new SecurityException("You do not have permission to download this material.");
+        }
+
+        DownloadCache cache = downloadCache();
+        try (OutputStream out = new FileOutputStream(saveLocation)) {
+            // A cached file is copied from disk without asking the store anything
+            if (cache.serve(material.getLink(), out, progress)) {
+                logger.info("Served {} from the download cache ({} bytes saved, hit ratio {})",
+                        material.getName(), cache.getBytesSaved(), String.format("%.2f", cache.getHitRatio()));
+            } else {
+                BlobStore store = storeFor(material.getLink());
+                long fileSize = store.getFileSize(material.getLink());
+                cache.fetch(store, material.getLink(), out, fileSize, bytesCopied -> progress.accept(bytesCopied, fileSize));
+            }
+        }
+
+        logger.info("User {} downloaded material: {}", user.getEmail(), material.getName());
+    }
+
+    private DownloadCache downloadCache() {
+        if (downloadCache == null) {
+            downloadCache = DownloadCache.getInstance();
+        }
+        return downloadCache;
+    }
+
+    // Materials uploaded before the storage was switched stay in the store they were uploaded to
+    private BlobStore storeFor(String link) {
+        return blobStore.owns(link) ? blobStore : BlobStore.forLink(link);
+    }
+
     /**
      * Deletes the specified study material if the user has proper rights.
      */
@@ -320,6 +589,7 @@ public class StudyMaterialService {
         }
 
         repository.delete(material);
+        SearchIndex.getInstance().removeMaterial(material.getMaterialId());
         logger.info("User {} deleted study material: {}", user.getEmail(), material.getName());
     }
 
@@ -338,6 +608,8 @@ public class StudyMaterialService {
 
         material.setStatus(MaterialStatus.APPROVED);
         repository.updateMaterialStatus(material.getMaterialId(), MaterialStatus.APPROVED);
+        CategoryService.invalidatePendingCounts();
+        SearchIndex.getInstance().indexMaterial(material);
 
         logger.info("User {} approved study material: {}", user.getEmail(), material.getName());
     }
@@ -358,6 +630,7 @@ public class StudyMaterialService {
 
         material.setStatus(MaterialStatus.REJECTED);
         repository.updateMaterialStatus(material.getMaterialId(), MaterialStatus.REJECTED);
+        CategoryService.invalidatePendingCounts();
 
         logger.info("User {} rejected study material: {}", user.getEmail(), material.getName());
     }
@@ -366,7 +639,9 @@ public class StudyMaterialService {
      * Directly updates the material without permission check (used internally).
      */
     public StudyMaterial updateMaterial(StudyMaterial material) {
-        return repository.update(material);
+        StudyMaterial updated = repository.update(material);
+        SearchIndex.getInstance().indexMaterial(updated);
+        return updated;
     }
 
     /**
@@ -376,7 +651,12 @@ public class StudyMaterialService {
         if ((user.getUserId() == sm.getUploader().getUserId()
                 && permissionService.hasPermission(user, PermissionType.UPDATE_OWN_RESOURCE))
                 || user.getRole().getName() == ADMIN) {
-            repository.updateMaterialDescription(sm.getMaterialId(), description);
+            String sourceLanguage = currentLanguage();
+            repository.updateMaterialDescription(sm.getMaterialId(), description, sourceLanguage);
+            sm.setDescription(description);
+            sm.setSourceLanguage(sourceLanguage);
+            SearchIndex.getInstance().indexMaterial(sm);
+            refreshTranslations(sm);
         } else {
             throw new SecurityException("You do not have permission to modify this description.");
         }
@@ -389,12 +669,35 @@ public class StudyMaterialService {
         if ((user.getUserId() == sm.getUploader().getUserId()
                 && permissionService.hasPermission(user, PermissionType.UPDATE_OWN_RESOURCE))
                 || user.getRole().getName() == ADMIN) {
-            repository.updateMaterialTitle(sm.getMaterialId(), title);
+            String sourceLanguage = currentLanguage();
+            repository.updateMaterialTitle(sm.getMaterialId(), title, sourceLanguage);
+            sm.setName(title);
+            sm.setSourceLanguage(sourceLanguage);
+            SearchIndex.getInstance().indexMaterial(sm);
+            refreshTranslations(sm);
         } else {
             throw new SecurityException("You do not have permission to modify this title.");
         }
     }
 
+    /**
+     * Drops the translations of a material whose name or description changed, since they
+     * translate the old text. In lazy mode the next read translates the new text; in eager
+     * mode it is translated right away, as on upload.
+     */
+    private void refreshTranslations(StudyMaterial material) {
+        try {
+            translationRepository().deleteTranslations(material.getMaterialId());
+        } catch (Exception e) {
+            logger.error("Failed to drop stale translations of material {}", material.getMaterialId(), e);
+            return;
+        }
+        if (TranslationService.getMode() == TranslationService.Mode.EAGER) {
+            String description = material.getDescription() != null ? material.getDescription() : "";
+            generateAndSaveTranslations(material.getName(), description, material);
+        }
+    }
+
     /**
      * Returns all materials uploaded by the user.
      */
@@ -6,7 +6,10 @@ import domain.model.PermissionType;
 
 import infrastructure.repository.TagRepository;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for managing tags.
@@ -47,7 +50,46 @@ public class TagService {
         }
 
         Tag tag = new Tag(normalizedTagName, creator);
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        SearchIndex.getInstance().indexTag(saved);
+        return saved;
+    }
+
+    /**
+     * Creates every tag that doesn't already exist, looking up existing tags in one query
+     * and saving the missing ones in one batched transaction.
+     *
+     * @param tagNames names of the tags
+     * @param creator  user who creates the new tags
+     * @return existing and newly created tags
+     */
+    public Set<Tag> createTags(Collection<String> tagNames, User creator) {
+        Set<String> normalizedTagNames = new HashSet<>();
+        for (String tagName : tagNames) {
+            if (tagName == null || tagName.trim().isEmpty()) {
+                throw new IllegalArgumentException("Tag name cannot be empty");
+            }
+            normalizedTagNames.add(tagName.trim().toLowerCase());
+        }
+
+        Set<Tag> tags = new HashSet<>();
+        if (normalizedTagNames.isEmpty()) {
+            return tags;
+        }
+
+        for (Tag existingTag : tagRepository.findByNames(normalizedTagNames)) {
+            tags.add(existingTag);
+            normalizedTagNames.remove(existingTag.getTagName().toLowerCase());
+        }
+
+        List<Tag> newTags = normalizedTagNames.stream()
+                .map(tagName -> new Tag(tagName, creator))
+                .toList();
+        for (Tag saved : tagRepository.saveAll(newTags)) {
+            tags.add(saved);
+            SearchIndex.getInstance().indexTag(saved);
+        }
+        return tags;
     }
 
     /**
@@ -91,7 +133,9 @@ public class TagService {
         }
 
         tag.setTagName(newName);
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        SearchIndex.getInstance().indexTag(saved);
+        return saved;
     }
 
     /**
@@ -125,5 +169,6 @@ public class TagService {
             throw new SecurityException("You do not have permission to delete this tag.");
         }
         tagRepository.delete(tag);
+        SearchIndex.getInstance().removeTag(tag.getTagId());
     }
 }
@@ -0,0 +1,142 @@
+package domain.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-case word tokens and reduces them to stems for the search index.
+ * <p>
+ * Materials are written in English or Finnish and the index can't tell which, so every
+ * token is indexed and queried under both its English and its Finnish stem. A query word
+ * then matches a document word if either stem agrees. The stemmers are deliberately light:
+ * they strip common inflections and never shorten a word below three letters.
+ */
+final class TextAnalyzer {
+    private static final int MIN_STEM = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "the", "to", "with",
+            "ja", "ei", "se", "tai", "kuin", "myös", "että");
+
+    // Longest first, so "issa" wins over "ssa" and "a"
+    private static final String[] FINNISH_SUFFIXES = {
+            "iden", "itten", "ineen", "issa", "issä", "ista", "istä", "illa", "illä", "ilta", "iltä", "ille", "iksi",
+            "ssa", "ssä", "sta", "stä", "lla", "llä", "lta", "ltä", "lle", "ksi", "tta", "ttä", "ien", "jen",
+            "ina", "inä", "na", "nä", "ja", "jä", "ta", "tä", "in", "en", "an", "än", "t", "n", "a", "ä"
+    };
+
+    private TextAnalyzer() {}
+
+    /**
+     * Lower-cases the text and splits it at every character that is not a letter or digit.
+     * Stop words are dropped.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the distinct English and Finnish stems of a token; one entry when they agree.
+     */
+    static Set<String> stems(String token) {
+        Set<String> stems = new LinkedHashSet<>(2);
+        stems.add(stemEnglish(token));
+        stems.add(stemFinnish(token));
+        return stems;
+    }
+
+    static String stemEnglish(String word) {
+        if (word.length() <= MIN_STEM || !isAlphabetic(word)) {
+            return word;
+        }
+
+        String stem = word;
+        if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        stem = replaceSuffix(stem, "ational", "ate");
+        stem = replaceSuffix(stem, "ization", "ize");
+        stem = replaceSuffix(stem, "ation", "ate");
+        for (String suffix : new String[]{"ness", "ment", "ing", "ed", "ly", "er"}) {
+            if (stem.endsWith(suffix) && stem.length() - suffix.length() >= MIN_STEM) {
+                stem = stem.substring(0, stem.length() - suffix.length());
+                // running -> runn -> run
+                int n = stem.length();
+                if ((suffix.equals("ing") || suffix.equals("ed") || suffix.equals("er")) && n > MIN_STEM
+                        && stem.charAt(n - 1) == stem.charAt(n - 2) && !isVowel(stem.charAt(n - 1))
+                        && stem.charAt(n - 1) != 'l' && stem.charAt(n - 1) != 's') {
+                    stem = stem.substring(0, n - 1);
+                }
+                break;
+            }
+        }
+        return stem;
+    }
+
+    static String stemFinnish(String word) {
+        if (word.length() <= MIN_STEM + 1 || !isAlphabetic(word)) {
+            return word;
+        }
+
+        for (String suffix : FINNISH_SUFFIXES) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM + 1) {
+                String stem = word.substring(0, word.length() - suffix.length());
+                // Plural and partitive stems end in i or j left over from the case ending
+                char last = stem.charAt(stem.length() - 1);
+                if ((last == 'i' || last == 'j') && stem.length() > MIN_STEM + 1) {
+                    stem = stem.substring(0, stem.length() - 1);
+                }
+                return stem;
+            }
+        }
+        return word;
+    }
+
+    private static String replaceSuffix(String word, String suffix, String replacement) {
+        if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM) {
+            return word.substring(0, word.length() - suffix.length()) + replacement;
+        }
+        return word;
+    }
+
+    private static boolean isVowel(char c) {
+        return "aeiouyäö".indexOf(c) >= 0;
+    }
+
+    private static boolean isAlphabetic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
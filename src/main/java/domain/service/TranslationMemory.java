@@ -0,0 +1,190 @@
+package domain.service;
+
+import domain.model.TranslationMemoryEntry;
+import infrastructure.repository.TranslationMemoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers every translation fetched from the translation API so the same text is never
+ * sent twice. Translations are keyed by a SHA-256 hash of the text and language pair and
+ * kept in the translation_memory table, with a bounded least-recently-used map in front
+ * of it for the texts this client has seen lately.
+ * <p>
+ * Failures of the table are logged and treated as misses, so a broken memory only costs
+ * API calls, never a translation.
+ */
+public class TranslationMemory {
+    private static final Logger logger = LoggerFactory.getLogger(TranslationMemory.class);
+    private static final int DEFAULT_CAPACITY = 2000;
+
+    private static TranslationMemory instance;
+
+    private final TranslationMemoryRepository repository;
+    private final Map<String, String> recent;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TranslationMemory(TranslationMemoryRepository repository, int capacity) {
+        this.repository = repository;
+        this.recent = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the memory shared by every TranslationService in this client.
+     */
+    public static synchronized TranslationMemory getInstance() {
+        if (instance == null) {
+            instance = new TranslationMemory(new TranslationMemoryRepository(), DEFAULT_CAPACITY);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the remembered translation of the text, or null if it has never been translated.
+     */
+    public String lookup(String text, String sourceLanguage, String targetLanguage) {
+        return lookupAll(List.of(text), sourceLanguage, targetLanguage).get(text);
+    }
+
+    /**
+     * Returns the remembered translations of the given texts, keyed by original text. Texts
+     * missing from the in-process map are looked up in the table with one query.
+     */
+    public Map<String, String> lookupAll(Collection<String> texts, String sourceLanguage, String targetLanguage) {
+        Map<String, String> found = new HashMap<>(texts.size() * 2);
+        Map<String, String> missingByKey = new HashMap<>();
+        synchronized (recent) {
+            for (String text : texts) {
+                String key = keyOf(text, sourceLanguage, targetLanguage);
+                String translated = recent.get(key);
+                if (translated != null) {
+                    found.put(text, translated);
+                    memoryHits.incrementAndGet();
+                } else {
+                    missingByKey.put(key, text);
+                }
+            }
+        }
+        if (missingByKey.isEmpty()) {
+            return found;
+        }
+
+        Map<String, String> stored = Map.of();
+        try {
+            stored = repository.findTranslations(missingByKey.keySet());
+        } catch (Exception e) {
+            logger.warn("Translation memory lookup failed: {}", e.getMessage());
+        }
+        synchronized (recent) {
+            recent.putAll(stored);
+        }
+        for (Map.Entry<String, String> missing : missingByKey.entrySet()) {
+            String translated = stored.get(missing.getKey());
+            if (translated != null) {
+                found.put(missing.getValue(), translated);
+                storeHits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stores a translation fetched from the API.
+     */
+    public void remember(String text, String sourceLanguage, String targetLanguage, String translated) {
+        rememberAll(Map.of(text, translated), sourceLanguage, targetLanguage);
+    }
+
+    /**
+     * Stores many translations of one language pair, keyed by original text, with one upsert.
+     */
+    public void rememberAll(Map<String, String> translations, String sourceLanguage, String targetLanguage) {
+        List<TranslationMemoryEntry> entries = new ArrayList<>(translations.size());
+        synchronized (recent) {
+            translations.forEach((text, translated) -> {
+                String key = keyOf(text, sourceLanguage, targetLanguage);
+                recent.put(key, translated);
+                entries.add(new TranslationMemoryEntry(key, sourceLanguage, targetLanguage, translated));
+            });
+        }
+        try {
+            repository.saveEntries(entries);
+        } catch (Exception e) {
+            logger.warn("Failed to store {} translations in translation memory: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the most recently stored translations into the in-process map, e.g. at startup,
+     * so the first pages opened don't each pay for a table lookup.
+     *
+     * @param limit the most entries to load
+     * @return how many entries were loaded
+     */
+    public int preWarm(int limit) {
+        List<TranslationMemoryEntry> entries;
+        try {
+            entries = repository.findMostRecent(limit);
+        } catch (Exception e) {
+            logger.warn("Failed to pre-warm translation memory: {}", e.getMessage());
+            return 0;
+        }
+        synchronized (recent) {
+            // Oldest first, so the newest end up most recently used
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                TranslationMemoryEntry entry = entries.get(i);
+                recent.put(entry.getTextHash(), entry.getTranslatedText());
+            }
+        }
+        logger.info("Pre-warmed translation memory with {} entries", entries.size());
+        return entries.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(memoryHits.get(), storeHits.get(), misses.get());
+    }
+
+    /**
+     * Hit and miss counts since startup. Hits are split by whether the in-process map or
+     * the table answered.
+     */
+    public record Stats(long memoryHits, long storeHits, long misses) {
+        public long lookups() {
+            return memoryHits + storeHits + misses;
+        }
+
+        public double hitRate() {
+            long lookups = lookups();
+            return lookups == 0 ? 0.0 : (double) (memoryHits + storeHits) / lookups;
+        }
+    }
+
+    static String keyOf(String text, String sourceLanguage, String targetLanguage) {
+        MessageDigest digest = Sha256.newDigest();
+        digest.update(sourceLanguage.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(targetLanguage.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        return Sha256.hexOf(digest);
+    }
+}
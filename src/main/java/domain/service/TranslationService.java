@@ -8,25 +8,63 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Provides language translation functionality using Google Cloud Translate API.
  * Supports multiple languages and automatic translation of content.
+ * Every translation goes through the shared {@link TranslationMemory}, so text that has
+ * been translated before is answered without a network call.
  */
 public class TranslationService {
     private static final Logger logger = LoggerFactory.getLogger(TranslationService.class);
     private static final List<String> SUPPORTED_LANGUAGES = List.of("en", "fi", "ru", "zh");
+    private static final Duration DEFAULT_BATCH_TIMEOUT = Duration.ofSeconds(10);
+    private static final String MODE_PROPERTY = "studyshelf.translation.mode";
     private Translate translate;
+    private final TranslationMemory memory;
+    private final Duration batchTimeout;
+
+    // One thread per target language is enough to send every language at once, and the
+    // threads are shared by all service instances since callers create their own.
+    private static final class DispatcherHolder {
+        private static final AtomicInteger threadCount = new AtomicInteger();
+        private static final ExecutorService dispatcher = Executors.newFixedThreadPool(SUPPORTED_LANGUAGES.size(), task -> {
+            Thread thread = new Thread(task, "translation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     /**
      * Initializes the translation service using API key stored in properties file.
      */
     public TranslationService() {
         initializeTranslationService();
+        this.memory = TranslationMemory.getInstance();
+        this.batchTimeout = DEFAULT_BATCH_TIMEOUT;
+    }
+
+    //    constructor for testing
+    TranslationService(Translate translate, TranslationMemory memory, Duration batchTimeout) {
+        this.translate = translate;
+        this.memory = memory;
+        this.batchTimeout = batchTimeout;
     }
 
     /**
@@ -60,6 +98,24 @@ public class TranslationService {
         }
     }
 
+    /**
+     * When content is translated.
+     */
+    public enum Mode {
+        /** Every language is translated when the material or review is written. */
+        EAGER,
+        /** Only the source text and language are written; each other language is translated on its first read. */
+        LAZY
+    }
+
+    /**
+     * Returns the translation mode, set with the {@code studyshelf.translation.mode} system
+     * property. Lazy unless set to "eager".
+     */
+    public static Mode getMode() {
+        return "eager".equalsIgnoreCase(System.getProperty(MODE_PROPERTY)) ? Mode.EAGER : Mode.LAZY;
+    }
+
     /**
      * Translates a given text to all supported target languages.
      *
@@ -73,25 +129,101 @@ public class TranslationService {
         translations.put(sourceLanguage, text);
 
         // Translate to all other supported languages
-        for (String targetLang : SUPPORTED_LANGUAGES) {
-            if (!targetLang.equals(sourceLanguage)) {
-                try {
-                    Translation translation = translate.translate(
-                            text,
-                            Translate.TranslateOption.sourceLanguage(sourceLanguage),
-                            Translate.TranslateOption.targetLanguage(targetLang)
-                    );
-                    translations.put(targetLang, translation.getTranslatedText());
-                } catch (Exception e) {
-                    logger.error("Translation failed for language: " + targetLang, e);
-                    translations.put(targetLang, text);
-                }
-            }
+        BatchResult result = translateBatch(List.of(text), sourceLanguage, otherLanguages(sourceLanguage));
+        for (String targetLang : otherLanguages(sourceLanguage)) {
+            List<String> translated = result.translations().get(targetLang);
+            translations.put(targetLang, translated != null ? translated.get(0) : text);
         }
 
         return translations;
     }
 
+    /**
+     * Returns every supported language except the given one.
+     */
+    public List<String> otherLanguages(String sourceLanguage) {
+        return SUPPORTED_LANGUAGES.stream().filter(language -> !language.equals(sourceLanguage)).toList();
+    }
+
+    /**
+     * Translates several texts into several languages at once. All texts for a target
+     * language go out in one request, and the target languages are sent concurrently, so
+     * the call takes about as long as the slowest language.
+     * <p>
+     * A language that fails or doesn't answer within the timeout is reported in
+     * {@link BatchResult#failures()} and left out of the translations; the others are
+     * still returned. Blank texts translate to "".
+     *
+     * @param texts texts to translate
+     * @param sourceLanguage source language code
+     * @param targetLanguages target language codes
+     * @return translations per target language, in the order of the texts, and the failures
+     */
+    public BatchResult translateBatch(List<String> texts, String sourceLanguage, Collection<String> targetLanguages) {
+        Map<String, Future<List<String>>> pending = new LinkedHashMap<>();
+        for (String targetLanguage : targetLanguages) {
+            pending.put(targetLanguage, DispatcherHolder.dispatcher.submit(
+                    () -> translateAll(texts, sourceLanguage, targetLanguage)));
+        }
+
+        Map<String, List<String>> translations = new HashMap<>();
+        Map<String, Exception> failures = new HashMap<>();
+        long deadline = System.nanoTime() + batchTimeout.toNanos();
+        for (Map.Entry<String, Future<List<String>>> entry : pending.entrySet()) {
+            String targetLanguage = entry.getKey();
+            try {
+                translations.put(targetLanguage, entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                logger.error("Translation to {} timed out after {} ms", targetLanguage, batchTimeout.toMillis());
+                failures.put(targetLanguage, e);
+            } catch (ExecutionException e) {
+                logger.error("Translation failed for language: " + targetLanguage, e.getCause());
+                failures.put(targetLanguage, e.getCause() instanceof Exception cause ? cause : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                entry.getValue().cancel(true);
+                failures.put(targetLanguage, e);
+            }
+        }
+        return new BatchResult(translations, failures);
+    }
+
+    /**
+     * Translates several texts into one language on a background thread, in one request,
+     * so it can be called from the FX thread. The future fails if the request fails or
+     * takes longer than the batch timeout; a request that times out or is cancelled is
+     * interrupted so it stops holding one of the shared dispatcher threads.
+     *
+     * @param texts texts to translate
+     * @param sourceLanguage source language code
+     * @param targetLanguage target language code
+     * @return the translations, in the order of the texts
+     */
+    public CompletableFuture<List<String>> translateAsync(List<String> texts, String sourceLanguage, String targetLanguage) {
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        Future<?> task = DispatcherHolder.dispatcher.submit(() -> {
+            try {
+                result.complete(translateAll(texts, sourceLanguage, targetLanguage));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((translations, error) -> {
+            if (error != null) {
+                task.cancel(true);
+            }
+        });
+        return result.orTimeout(batchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Result of {@link #translateBatch}: the translated texts per target language and the
+     * reason each missing language failed.
+     */
+    public record BatchResult(Map<String, List<String>> translations, Map<String, Exception> failures) {
+    }
+
     /**
      * Translates text from a source language to a target language.
      *
@@ -106,12 +238,7 @@ public class TranslationService {
         }
 
         try {
-            Translation translation = translate.translate(
-                    text,
-                    Translate.TranslateOption.sourceLanguage(sourceLanguage),
-                    Translate.TranslateOption.targetLanguage(targetLanguage)
-            );
-            return translation.getTranslatedText();
+            return rememberedOrFetched(text, sourceLanguage, targetLanguage);
         } catch (Exception e) {
             logger.error("Translation failed", e);
             return text;
@@ -132,16 +259,53 @@ public class TranslationService {
         }
 
         try {
-            com.google.cloud.translate.Translation translation = translate.translate(
-                    text,
-                    com.google.cloud.translate.Translate.TranslateOption.sourceLanguage(sourceLanguage),
-                    com.google.cloud.translate.Translate.TranslateOption.targetLanguage(targetLanguage)
-            );
-
-            return translation.getTranslatedText();
+            return rememberedOrFetched(text, sourceLanguage, targetLanguage);
         } catch (Exception e) {
             logger.error("Translation failed: {}", e.getMessage());
             throw new RuntimeException("Translation failed", e);
         }
     }
+
+    private String rememberedOrFetched(String text, String sourceLanguage, String targetLanguage) {
+        String remembered = memory.lookup(text, sourceLanguage, targetLanguage);
+        if (remembered != null) {
+            return remembered;
+        }
+
+        Translation translation = translate.translate(
+                text,
+                Translate.TranslateOption.sourceLanguage(sourceLanguage),
+                Translate.TranslateOption.targetLanguage(targetLanguage)
+        );
+        String translated = translation.getTranslatedText();
+        memory.remember(text, sourceLanguage, targetLanguage, translated);
+        return translated;
+    }
+
+    // Remembered texts are answered from memory; the rest go out as one request
+    private List<String> translateAll(List<String> texts, String sourceLanguage, String targetLanguage) {
+        List<String> blankless = texts.stream().filter(text -> text != null && !text.trim().isEmpty()).distinct().toList();
+        Map<String, String> known = new HashMap<>(memory.lookupAll(blankless, sourceLanguage, targetLanguage));
+
+        List<String> missing = blankless.stream().filter(text -> !known.containsKey(text)).toList();
+        if (!missing.isEmpty()) {
+            List<Translation> fetched = translate.translate(
+                    missing,
+                    Translate.TranslateOption.sourceLanguage(sourceLanguage),
+                    Translate.TranslateOption.targetLanguage(targetLanguage)
+            );
+            Map<String, String> translated = new HashMap<>(missing.size() * 2);
+            for (int i = 0; i < missing.size(); i++) {
+                translated.put(missing.get(i), fetched.get(i).getTranslatedText());
+            }
+            memory.rememberAll(translated, sourceLanguage, targetLanguage);
+            known.putAll(translated);
+        }
+
+        List<String> results = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            results.add(known.getOrDefault(text, ""));
+        }
+        return results;
+    }
 }
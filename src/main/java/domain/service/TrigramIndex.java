@@ -0,0 +1,234 @@
+package domain.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Character trigram index over the terms of an {@link InvertedIndex}, used to find the terms
+ * a mistyped query word was probably meant to be.
+ * <p>
+ * Every term gets an int id, and every trigram of the term padded with '$' at both ends is
+ * packed into an int key. Keys map to {@link PostingList}s of term ids through an
+ * open-addressing table, so a lookup never boxes. Candidates sharing enough trigrams with
+ * the query word are then checked with a bounded edit distance.
+ * <p>
+ * Not thread-safe; it is only used under the owning index's lock.
+ */
+final class TrigramIndex {
+    private static final int EMPTY = -1;
+    private static final char PAD = '$';
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final PostingList.IntBuffer freeIds = new PostingList.IntBuffer();
+    private String[] terms = new String[64];
+    private String[] words = new String[64];
+    private int nextId;
+
+    private int[] keys = new int[256];
+    private PostingList[] postings = new PostingList[256];
+    private int keyCount;
+
+    TrigramIndex() {
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * A term within the allowed distance of a query word, with a word it was indexed from
+     * to show to the user.
+     */
+    record Correction(String term, String word, int distance) {}
+
+    int size() {
+        return termIds.size();
+    }
+
+    void add(String term, String word) {
+        if (termIds.containsKey(term)) {
+            return;
+        }
+        int id = freeIds.size() > 0 ? freeIds.pop() : nextId++;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, id * 2);
+            words = Arrays.copyOf(words, id * 2);
+        }
+        terms[id] = term;
+        words[id] = word;
+        termIds.put(term, id);
+        for (int key : trigrams(term)) {
+            postingsFor(key).put(id, 1);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = termIds.remove(term);
+        if (id == null) {
+            return;
+        }
+        for (int key : trigrams(term)) {
+            int slot = slotOf(key);
+            if (keys[slot] == key) {
+                postings[slot].remove(id);
+            }
+        }
+        terms[id] = null;
+        words[id] = null;
+        freeIds.add(id);
+    }
+
+    /**
+     * Returns the terms within {@code maxDistance} edits of the text, closest first.
+     */
+    List<Correction> nearest(String text, int maxDistance) {
+        List<Correction> found = new ArrayList<>();
+        if (maxDistance <= 0) {
+            return found;
+        }
+
+        int[] queryKeys = distinct(trigrams(text));
+        PostingList.IntBuffer candidates = new PostingList.IntBuffer();
+        for (int key : queryKeys) {
+            int slot = slotOf(key);
+            if (keys[slot] == key) {
+                postings[slot].copyDocsTo(candidates);
+            }
+        }
+
+        // An edit breaks at most three trigrams, a swap four, so a close term shares the rest
+        int minShared = Math.max(1, queryKeys.length - 4 * maxDistance);
+        int[] sorted = candidates.toSortedArray();
+        for (int start = 0; start < sorted.length; ) {
+            int end = start;
+            while (end < sorted.length && sorted[end] == sorted[start]) {
+                end++;
+            }
+            String term = terms[sorted[start]];
+            if (end - start >= minShared && Math.abs(term.length() - text.length()) <= maxDistance) {
+                int distance = editDistance(text, term, maxDistance);
+                if (distance <= maxDistance) {
+                    found.add(new Correction(term, words[sorted[start]], distance));
+                }
+            }
+            start = end;
+        }
+        found.sort(Comparator.comparingInt(Correction::distance).thenComparing(Correction::term));
+        return found;
+    }
+
+    /**
+     * How many edits a word of this length may be away from what was meant: none for very
+     * short words, where any change yields a different word, two for long ones.
+     */
+    static int maxDistance(int length) {
+        if (length < 4) {
+            return 0;
+        }
+        return length < 7 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and swaps of
+     * adjacent letters each cost one. Gives up with {@code bound + 1} as soon as the distance
+     * is known to exceed the bound.
+     */
+    static int editDistance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        int previousRowMin = 0;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            // A swap can reach back one more row, so both rows must be past the bound
+            if (rowMin > bound && previousRowMin >= bound) {
+                return bound + 1;
+            }
+            previousRowMin = rowMin;
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    // Ten bits per character; folded characters only add candidates, which the distance check removes
+    private static int[] trigrams(String term) {
+        String padded = PAD + term + PAD;
+        int[] result = new int[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (padded.charAt(i) & 0x3FF) << 20 | (padded.charAt(i + 1) & 0x3FF) << 10 | (padded.charAt(i + 2) & 0x3FF);
+        }
+        return result;
+    }
+
+    private static int[] distinct(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+
+    private PostingList postingsFor(int key) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            if ((keyCount + 1) * 2 > keys.length) {
+                grow();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            postings[slot] = new PostingList();
+            keyCount++;
+        }
+        return postings[slot];
+    }
+
+    // The slot holding the key, or the empty slot where it would go
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        PostingList[] oldPostings = postings;
+        keys = new int[oldKeys.length * 2];
+        postings = new PostingList[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                postings[slot] = oldPostings[i];
+            }
+        }
+    }
+}
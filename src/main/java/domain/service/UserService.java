@@ -125,6 +125,8 @@ public class UserService {
      */
     public void deleteUser(User user) {
         userRepository.delete(user);
+        // The user's courses, materials and tags went with them
+        SearchIndex.getInstance().rebuild();
     }
 
 
@@ -141,6 +143,7 @@ public class UserService {
         }
 
         userRepository.deleteUser(curUser);
+        SearchIndex.getInstance().rebuild();
     }
 
     /**
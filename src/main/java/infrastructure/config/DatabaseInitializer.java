@@ -2,15 +2,22 @@ package infrastructure.config;
 
 import domain.model.*;
 import infrastructure.repository.PermissionRepository;
+import infrastructure.repository.RatingRepository;
+import infrastructure.repository.ReviewTranslationRepository;
+import infrastructure.repository.StudyMaterialTranslationRepository;
+import infrastructure.repository.TranslationMemoryRepository;
 import infrastructure.repository.RoleRepository;
 import infrastructure.repository.UserRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
 import domain.service.PasswordService;
 
 import java.util.*;
 
 public class DatabaseInitializer {
+    private static final String RATING_TOTALS_MIGRATION = "rating-totals";
+
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
     private final EntityManager em;
@@ -38,6 +45,143 @@ public class DatabaseInitializer {
         }
     }
 
+    // Databases created while StudyMaterial used IDENTITY keys already hold ids the new
+    // sequence would hand out again, so move the sequence past the highest existing id.
+    public void alignMaterialIdSequence() {
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            Number maxId = (Number) em.createNativeQuery("SELECT COALESCE(MAX(materialId), 0) FROM study_materials")
+                    .getSingleResult();
+            if (maxId.longValue() > 0) {
+                em.createNativeQuery("SELECT SETVAL(study_materials_seq, " + maxId.longValue() + ")")
+                        .getSingleResult();
+            }
+            tx.commit();
+        } catch (Exception e) {
+            tx.rollback();
+            throw e;
+        }
+    }
+
+    // Preview images used to live in study_materials.PreviewImage. Copy any left there into
+    // material_previews. The old column is kept so the previous build can still run against
+    // this database; dropLegacyPreviewColumn removes it once it's no longer needed.
+    public void migratePreviewImages() {
+        if (!hasLegacyPreviewColumn()) {
+            return;
+        }
+
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            em.createNativeQuery("INSERT INTO material_previews (MaterialId, PreviewImage) " +
+                            "SELECT s.materialId, s.PreviewImage FROM study_materials s " +
+                            "WHERE s.PreviewImage IS NOT NULL " +
+                            "AND NOT EXISTS (SELECT 1 FROM material_previews p WHERE p.MaterialId = s.materialId)")
+                    .executeUpdate();
+            tx.commit();
+        } catch (Exception e) {
+            tx.rollback();
+            throw e;
+        }
+    }
+
+    // Explicit migration step, never run at startup: DDL commits on its own in MariaDB, so
+    // after this the previous build can no longer be rolled back to.
+    public void dropLegacyPreviewColumn() {
+        if (!hasLegacyPreviewColumn()) {
+            return;
+        }
+        migratePreviewImages();
+
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            em.createNativeQuery("ALTER TABLE study_materials DROP COLUMN PreviewImage")
+                    .executeUpdate();
+            tx.commit();
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private boolean hasLegacyPreviewColumn() {
+        Number legacyColumns = (Number) em.createNativeQuery(
+                        "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'study_materials' AND COLUMN_NAME = 'PreviewImage'")
+                .getSingleResult();
+        return legacyColumns.intValue() > 0;
+    }
+
+    // Repairs the denormalized rating totals on study_materials, e.g. after ratings were
+    // changed outside the application. The rating writes keep the totals right, so this is an
+    // explicit maintenance step: it updates every material row.
+    public void rebuildRatingTotals() {
+        new RatingRepository().rebuildRatingTotals();
+    }
+
+    // The rating total columns start at 0 on a database that had ratings before they were
+    // added. Fill them in once, then record that in schema_migrations so later starts skip it.
+    public void backfillRatingTotals() {
+        if (isMigrationApplied(RATING_TOTALS_MIGRATION)) {
+            return;
+        }
+        rebuildRatingTotals();
+        markMigrationApplied(RATING_TOTALS_MIGRATION);
+    }
+
+    private boolean isMigrationApplied(String name) {
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            em.createNativeQuery("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                            "Name VARCHAR(100) NOT NULL PRIMARY KEY, AppliedAt TIMESTAMP NOT NULL)")
+                    .executeUpdate();
+            Number applied = (Number) em.createNativeQuery("SELECT COUNT(*) FROM schema_migrations WHERE Name = ?1")
+                    .setParameter(1, name)
+                    .getSingleResult();
+            tx.commit();
+            return applied.intValue() > 0;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    // Another client starting at the same time may have recorded it first, which is fine
+    private void markMigrationApplied(String name) {
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            em.createNativeQuery("INSERT INTO schema_migrations (Name, AppliedAt) VALUES (?1, CURRENT_TIMESTAMP)")
+                    .setParameter(1, name)
+                    .executeUpdate();
+            tx.commit();
+        } catch (PersistenceException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            if (!isMigrationApplied(name)) {
+                throw e;
+            }
+        }
+    }
+
+    // The translation tables live outside the entity model; make sure they exist with their
+    // (entity id, language_code) unique keys, which the translation upserts rely on, and that
+    // the translation memory holds text of any length.
+    public void ensureTranslationTables() {
+        new StudyMaterialTranslationRepository().createTableIfMissing();
+        new ReviewTranslationRepository().createTableIfMissing();
+        new TranslationMemoryRepository().widenTranslatedText();
+    }
+
     private Map<RoleType, Role> findOrCreateRolesWithPermissions() {
         Role adminRole   = roleRepository.findByName(RoleType.ADMIN);
         Role teacherRole = roleRepository.findByName(RoleType.TEACHER);
@@ -170,9 +314,21 @@ public class DatabaseInitializer {
         }
     }
 
+    // Without arguments sets up roles and permissions; maintenance steps are named explicitly,
+    // e.g. "rebuild-rating-totals" or "drop-legacy-preview-column"
     public static void main(String[] args) {
         DatabaseInitializer dbInit = new DatabaseInitializer();
-        dbInit.initializeRolesAndPermissions();
+        if (args.length == 0) {
+            dbInit.initializeRolesAndPermissions();
+            return;
+        }
+        for (String step : args) {
+            switch (step) {
+                case "rebuild-rating-totals" -> dbInit.rebuildRatingTotals();
+                case "drop-legacy-preview-column" -> dbInit.dropLegacyPreviewColumn();
+                default -> throw new IllegalArgumentException("Unknown migration step: " + step);
+            }
+        }
     }
 }
 
@@ -4,12 +4,20 @@ import infrastructure.config.DatabaseConnection;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public abstract class BaseRepository<T> {
+    private static final String BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
     private final Class<T> entityClass;
     private EntityManagerFactory emf;
+    private int batchSize;
 
     protected BaseRepository(Class<T> entityClass) {
         this.entityClass = entityClass;
@@ -23,7 +31,8 @@ public abstract class BaseRepository<T> {
     }
 
     protected EntityManager getEntityManager() {
-        return emf.createEntityManager();
+        EntityManager scoped = UnitOfWork.join(emf);
+        return scoped != null ? scoped : emf.createEntityManager();
     }
 
     public T save(T entity) {
@@ -32,6 +41,7 @@ public abstract class BaseRepository<T> {
         try {
             transaction.begin();
             em.persist(entity);
+            afterPersist(em, entity);
             transaction.commit();
             return entity;
         } catch (Exception e) {
@@ -63,6 +73,28 @@ public abstract class BaseRepository<T> {
         }
     }
 
+    // One query per batch of ids; rows come back in no particular order and missing ids are skipped
+    public List<T> findAllById(Collection<Integer> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return found;
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            String query = "SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e." + getIdAttributeName(em) + " IN :ids";
+            List<Integer> idList = new ArrayList<>(ids);
+            for (int from = 0; from < idList.size(); from += getBatchSize()) {
+                found.addAll(em.createQuery(query, entityClass)
+                        .setParameter("ids", idList.subList(from, Math.min(from + getBatchSize(), idList.size())))
+                        .getResultList());
+            }
+            return found;
+        } finally {
+            em.close();
+        }
+    }
+
     public T update(T entity) {
         EntityManager em = getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -99,4 +131,127 @@ public abstract class BaseRepository<T> {
             em.close();
         }
     }
+
+    // Bulk writes run in one transaction and are flushed/cleared every batchSize entities,
+    // so Hibernate can send them as JDBC batches. Clearing detaches everything loaded
+    // through a shared UnitOfWork EntityManager as well.
+    public List<T> saveAll(Collection<T> entities) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            int count = 0;
+            for (T entity : entities) {
+                em.persist(entity);
+                afterPersist(em, entity);
+                if (++count % getBatchSize() == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            transaction.commit();
+            return new ArrayList<>(entities);
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<T> updateAll(Collection<T> entities) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            List<T> updatedEntities = new ArrayList<>(entities.size());
+            int count = 0;
+            for (T entity : entities) {
+                updatedEntities.add(em.merge(entity));
+                if (++count % getBatchSize() == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            transaction.commit();
+            return updatedEntities;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public int deleteAllById(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            String query = "SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e." + getIdAttributeName(em) + " IN :ids";
+            List<Integer> idList = new ArrayList<>(ids);
+            int deleted = 0;
+            for (int from = 0; from < idList.size(); from += getBatchSize()) {
+                List<Integer> chunk = idList.subList(from, Math.min(from + getBatchSize(), idList.size()));
+                beforeDeleteAll(em, chunk);
+                List<T> entities = em.createQuery(query, entityClass)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (T entity : entities) {
+                    em.remove(entity);
+                }
+                deleted += entities.size();
+                em.flush();
+                em.clear();
+            }
+            transaction.commit();
+            return deleted;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Hook for persisting dependent rows inside the save/saveAll transaction
+    protected void afterPersist(EntityManager em, T entity) {
+    }
+
+    // Hook for removing dependent rows of a chunk inside the deleteAllById transaction
+    protected void beforeDeleteAll(EntityManager em, List<Integer> ids) {
+    }
+
+    public int getBatchSize() {
+        if (batchSize == 0) {
+            Object configured = emf.getProperties().get(BATCH_SIZE_PROPERTY);
+            batchSize = configured != null ? Integer.parseInt(configured.toString()) : DEFAULT_BATCH_SIZE;
+        }
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    private String getIdAttributeName(EntityManager em) {
+        return em.getMetamodel().entity(entityClass).getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .map(Attribute::getName)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No id attribute on " + entityClass.getSimpleName()));
+    }
 }
@@ -0,0 +1,131 @@
+package infrastructure.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set-based deletes for users, courses, tags and study materials. Each method issues a
+ * fixed handful of {@code DELETE ... WHERE ... IN (subquery)} statements on the caller's
+ * EntityManager, so the caller decides the transaction and the row count doesn't change
+ * the number of round trips.
+ * <p>
+ * Native SQL because the translation tables have no entities. Materials are matched by a
+ * condition on study_materials written without an alias, so it can be used both inside the
+ * child subqueries and in the final delete of the material rows.
+ */
+final class CascadeDelete {
+    private static final String MATERIAL_TRANSLATIONS = "study_material_translations";
+    private static final String REVIEW_TRANSLATIONS = "review_translations";
+    // Weak keys, so a closed factory (e.g. between test classes) is dropped with its entry
+    private static final Map<EntityManagerFactory, Set<String>> EXISTING_TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private CascadeDelete() {}
+
+    static int material(EntityManager em, int materialId) {
+        return materialsWhere(em, "materialId = :id", materialId);
+    }
+
+    static int materialsUploadedBy(EntityManager em, int userId) {
+        return materialsWhere(em, "UploaderId = :id", userId);
+    }
+
+    // Deletes every material in the user's courses (whoever uploaded it), then the courses
+    static int coursesCreatedBy(EntityManager em, int userId) {
+        materialsWhere(em, "CategoryId IN (SELECT categoryId FROM categories WHERE CreatorId = :id)", userId);
+        return execute(em, "DELETE FROM categories WHERE CreatorId = :id", userId);
+    }
+
+    static int tagsCreatedBy(EntityManager em, int userId) {
+        execute(em, "DELETE FROM MaterialTag WHERE TagId IN (SELECT tagId FROM tags WHERE CreatorId = :id)", userId);
+        return execute(em, "DELETE FROM tags WHERE CreatorId = :id", userId);
+    }
+
+    static int reviewsWrittenBy(EntityManager em, int userId) {
+        if (tableExists(em, REVIEW_TRANSLATIONS)) {
+            execute(em, "DELETE FROM review_translations WHERE review_id IN " +
+                    "(SELECT reviewId FROM reviews WHERE userId = :id)", userId);
+        }
+        return execute(em, "DELETE FROM reviews WHERE userId = :id", userId);
+    }
+
+    // Takes the user's scores back out of the rated materials' totals before deleting them
+    static int ratingsGivenBy(EntityManager em, int userId) {
+        execute(em, "UPDATE study_materials SET " +
+                "RatingCount = RatingCount - (SELECT COUNT(*) FROM ratings r WHERE r.materialId = study_materials.materialId AND r.userId = :id), " +
+                "RatingSum = RatingSum - (SELECT COALESCE(SUM(r.ratingScore), 0) FROM ratings r WHERE r.materialId = study_materials.materialId AND r.userId = :id) " +
+                "WHERE materialId IN (SELECT materialId FROM ratings WHERE userId = :id)", userId);
+        execute(em, "UPDATE study_materials SET " +
+                "RatingAverage = CASE WHEN RatingCount > 0 THEN RatingSum * 1.0 / RatingCount ELSE 0 END " +
+                "WHERE materialId IN (SELECT materialId FROM ratings WHERE userId = :id)", userId);
+        return execute(em, "DELETE FROM ratings WHERE userId = :id", userId);
+    }
+
+    static void materialTranslations(EntityManager em, Collection<Integer> materialIds) {
+        if (!materialIds.isEmpty() && tableExists(em, MATERIAL_TRANSLATIONS)) {
+            em.createNativeQuery("DELETE FROM study_material_translations WHERE material_id IN :ids")
+                    .setParameter("ids", materialIds)
+                    .executeUpdate();
+        }
+    }
+
+    static void reviewTranslations(EntityManager em, Collection<Integer> reviewIds) {
+        if (!reviewIds.isEmpty() && tableExists(em, REVIEW_TRANSLATIONS)) {
+            em.createNativeQuery("DELETE FROM review_translations WHERE review_id IN :ids")
+                    .setParameter("ids", reviewIds)
+                    .executeUpdate();
+        }
+    }
+
+    private static int materialsWhere(EntityManager em, String condition, int id) {
+        String materials = "(SELECT materialId FROM study_materials WHERE " + condition + ")";
+
+        if (tableExists(em, REVIEW_TRANSLATIONS)) {
+            execute(em, "DELETE FROM review_translations WHERE review_id IN " +
+                    "(SELECT reviewId FROM reviews WHERE materialId IN " + materials + ")", id);
+        }
+        execute(em, "DELETE FROM reviews WHERE materialId IN " + materials, id);
+        execute(em, "DELETE FROM ratings WHERE materialId IN " + materials, id);
+        execute(em, "DELETE FROM material_previews WHERE MaterialId IN " + materials, id);
+        execute(em, "DELETE FROM material_contents WHERE MaterialId IN " + materials, id);
+        execute(em, "DELETE FROM MaterialTag WHERE MaterialId IN " + materials, id);
+        if (tableExists(em, MATERIAL_TRANSLATIONS)) {
+            execute(em, "DELETE FROM study_material_translations WHERE material_id IN " + materials, id);
+        }
+        return execute(em, "DELETE FROM study_materials WHERE " + condition, id);
+    }
+
+    private static int execute(EntityManager em, String sql, int id) {
+        Query query = em.createNativeQuery(sql);
+        query.setParameter("id", id);
+        return query.executeUpdate();
+    }
+
+    // The translation tables are created outside Hibernate and may be missing, e.g. in tests.
+    // Tables found are remembered per factory: ensureTranslationTables creates them at startup
+    // and they're never dropped, so deletes don't query the catalog again. A missing table is
+    // checked again next time, as it may be created later.
+    private static boolean tableExists(EntityManager em, String table) {
+        Set<String> known = EXISTING_TABLES.computeIfAbsent(em.getEntityManagerFactory(), factory -> ConcurrentHashMap.newKeySet());
+        if (known.contains(table)) {
+            return true;
+        }
+        Number count = (Number) em.createNativeQuery(
+                        "SELECT COUNT(*) FROM information_schema.TABLES " +
+                                "WHERE TABLE_SCHEMA = SCHEMA() AND LOWER(TABLE_NAME) = :table")
+                .setParameter("table", table)
+                .getSingleResult();
+        if (count.intValue() > 0) {
+            known.add(table);
+            return true;
+        }
+        return false;
+    }
+}
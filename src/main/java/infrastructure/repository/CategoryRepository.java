@@ -1,6 +1,8 @@
 package infrastructure.repository;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
+import domain.model.PendingCount;
 import domain.model.StudyMaterial;
 import domain.model.User;
 import infrastructure.config.DatabaseConnection;
@@ -12,7 +14,12 @@ import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static domain.model.MaterialStatus.APPROVED;
 import static domain.model.MaterialStatus.PENDING;
@@ -68,6 +75,105 @@ public class CategoryRepository extends BaseRepository<Category> {
         }
     }
 
+    public Page<StudyMaterial> findApprovedMaterialsByCategory(Category category, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetch(em, "s.category = :category AND s.status = :status",
+                    Map.of("category", category, "status", APPROVED), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<MaterialSummary> findApprovedSummariesByCategory(Category category, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetchSummaries(em, "s.category = :category AND s.status = :status",
+                    Map.of("category", category, "status", APPROVED), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<MaterialSummary> findApprovedCreatorSummariesByCategory(Category category, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetchSummaries(em, "s.category = :category AND s.status = :status AND s.uploader = :creator",
+                    Map.of("category", category, "status", APPROVED, "creator", category.getCreator()), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<MaterialSummary> findApprovedOtherSummariesByCategory(Category category, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetchSummaries(em, "s.category = :category AND s.status = :status AND s.uploader <> :creator",
+                    Map.of("category", category, "status", APPROVED, "creator", category.getCreator()), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    // Two round trips whatever the number of courses: the courses with their creators, then the
+    // newest materialsPerCourse + 1 approved summaries of every course, with their ratings, from
+    // one windowed query. The extra row per course only tells whether that course has another page.
+    public List<CourseOverview> findCourseOverview(int materialsPerCourse) {
+        PageRequest firstPage = PageRequest.first(materialsPerCourse);
+        EntityManager em = getEntityManager();
+        try {
+            List<Category> categories = em.createQuery(
+                            "SELECT c FROM Category c JOIN FETCH c.creator ORDER BY c.categoryId", Category.class)
+                    .getResultList();
+            if (categories.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            List<Object[]> rows = em.createNativeQuery(
+                            "SELECT ranked.CategoryId, ranked.materialId, ranked.MaterialName, ranked.UploaderName, " +
+                                    "ranked.TimeStamp, ranked.FileType, ranked.RatingAverage FROM (" +
+                                    "SELECT s.CategoryId, s.materialId, s.MaterialName, " +
+                                    "CONCAT(u.FirstName, ' ', u.LastName) AS UploaderName, s.TimeStamp, s.FileType, s.RatingAverage, " +
+                                    "ROW_NUMBER() OVER (PARTITION BY s.CategoryId ORDER BY s.TimeStamp DESC, s.materialId DESC) AS RowNumber " +
+                                    "FROM study_materials s JOIN users u ON u.userId = s.UploaderId " +
+                                    "WHERE s.Status = :status AND s.CategoryId IS NOT NULL) ranked " +
+                                    "WHERE ranked.RowNumber <= :limit ORDER BY ranked.CategoryId, ranked.RowNumber")
+                    .setParameter("status", APPROVED.name())
+                    .setParameter("limit", materialsPerCourse + 1)
+                    .getResultList();
+
+            Map<Integer, List<MaterialSummary>> byCategory = new HashMap<>();
+            for (Object[] row : rows) {
+                byCategory.computeIfAbsent(((Number) row[0]).intValue(), id -> new ArrayList<>())
+                        .add(new MaterialSummary(((Number) row[1]).intValue(), (String) row[2], (String) row[3],
+                                toLocalDateTime(row[4]), (String) row[5], ((Number) row[6]).doubleValue()));
+            }
+
+            List<CourseOverview> overview = new ArrayList<>(categories.size());
+            for (Category category : categories) {
+                List<MaterialSummary> summaries = byCategory.getOrDefault(category.getCategoryId(), List.of());
+                if (summaries.size() <= materialsPerCourse) {
+                    overview.add(new CourseOverview(category, new Page<>(summaries, null)));
+                } else {
+                    List<MaterialSummary> content = summaries.subList(0, materialsPerCourse);
+                    MaterialSummary last = content.get(content.size() - 1);
+                    overview.add(new CourseOverview(category,
+                            new Page<>(content, firstPage.after(last.timestamp(), last.materialId()))));
+                }
+            }
+            return overview;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
     public List<Category> findByName(String name) {
         EntityManager em = getEntityManager();
         try {
@@ -126,6 +232,40 @@ public class CategoryRepository extends BaseRepository<Category> {
         }
     }
 
+    // One grouped count over the creator's courses, then the courses that have pending rows
+    public List<PendingCount> findPendingCountsByCreator(User creator) {
+        EntityManager em = getEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "SELECT s.category.categoryId, COUNT(s) FROM StudyMaterial s " +
+                                    "WHERE s.category.creator = :creator AND s.status = :status " +
+                                    "GROUP BY s.category.categoryId", Object[].class)
+                    .setParameter("creator", creator)
+                    .setParameter("status", PENDING)
+                    .getResultList();
+            if (rows.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            Map<Integer, Long> counts = new HashMap<>();
+            for (Object[] row : rows) {
+                counts.put((Integer) row[0], ((Number) row[1]).longValue());
+            }
+            List<Category> categories = em.createQuery(
+                            "SELECT c FROM Category c JOIN FETCH c.creator WHERE c.categoryId IN :ids ORDER BY c.categoryId", Category.class)
+                    .setParameter("ids", counts.keySet())
+                    .getResultList();
+
+            List<PendingCount> pending = new ArrayList<>(categories.size());
+            for (Category category : categories) {
+                pending.add(new PendingCount(category, counts.get(category.getCategoryId())));
+            }
+            return pending;
+        } finally {
+            em.close();
+        }
+    }
+
     public void updateCategoryTitle(int categoryId, String title) {
         EntityManager em = getEntityManager();
         try {
@@ -145,23 +285,7 @@ public class CategoryRepository extends BaseRepository<Category> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-
-            List<Category> categories = em.createQuery("SELECT c FROM Category c WHERE c.creator = :user", Category.class)
-                    .setParameter("user", user)
-                    .getResultList();
-
-            for (Category category : categories) {
-                List<StudyMaterial> materials = findMaterialsByCategory(category);
-                for (StudyMaterial material : materials) {
-                    new ReviewRepository().deleteByMaterial(material);
-                    new RatingRepository().deleteByMaterial(material);
-                    StudyMaterial mergedMaterial = em.merge(material);
-                    em.remove(mergedMaterial);
-                }
-                Category mergedCategory = em.merge(category);
-                em.remove(mergedCategory);
-            }
-
+            CascadeDelete.coursesCreatedBy(em, user.getUserId());
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -172,4 +296,4 @@ public class CategoryRepository extends BaseRepository<Category> {
             em.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package infrastructure.repository;
+
+import domain.model.Category;
+import domain.model.MaterialSummary;
+
+/**
+ * A course with its creator loaded and the first page of its approved materials, newest first.
+ * {@code materials.next()} continues the course's list through the usual keyset queries.
+ */
+public record CourseOverview(Category category, Page<MaterialSummary> materials) {
+}
@@ -0,0 +1,87 @@
+package infrastructure.repository;
+
+import domain.model.MaterialContent;
+import domain.model.StudyMaterial;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
+
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+public class MaterialContentRepository extends BaseRepository<MaterialContent> {
+    public MaterialContentRepository() {
+        super(MaterialContent.class);
+    }
+
+    //    constructor for testing
+    public MaterialContentRepository(EntityManagerFactory emf) {
+        super(MaterialContent.class, emf);
+    }
+
+    // Replaces the text stored for the material, if any. Returns false without saving if the
+    // material was deleted meanwhile; its row stays locked until commit so a delete can't slip in
+    public boolean saveText(int materialId, String text) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            StudyMaterial material = em.find(StudyMaterial.class, materialId, LockModeType.PESSIMISTIC_READ);
+            if (material == null) {
+                transaction.commit();
+                return false;
+            }
+            MaterialContent content = em.find(MaterialContent.class, materialId);
+            if (content != null) {
+                content.setText(text);
+            } else {
+                em.persist(new MaterialContent(material, text));
+            }
+            transaction.commit();
+            return true;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public String findText(int materialId) {
+        MaterialContent content = findById(materialId);
+        return content != null ? content.getText() : null;
+    }
+
+    /**
+     * Passes the text of every material to the consumer, reading one batch of compressed
+     * rows at a time and inflating one text at a time, so only a single text is held
+     * uncompressed.
+     */
+    public void forEachText(ObjIntConsumer<String> consumer) {
+        EntityManager em = getEntityManager();
+        try {
+            int after = Integer.MIN_VALUE;
+            while (true) {
+                List<Object[]> rows = em.createQuery(
+                                "SELECT c.materialId, c.compressedText FROM MaterialContent c " +
+                                        "WHERE c.materialId > :after ORDER BY c.materialId", Object[].class)
+                        .setParameter("after", after)
+                        .setMaxResults(getBatchSize())
+                        .getResultList();
+                for (Object[] row : rows) {
+                    after = (Integer) row[0];
+                    consumer.accept(MaterialContent.decompress((byte[]) row[1]), after);
+                }
+                if (rows.size() < getBatchSize()) {
+                    return;
+                }
+                em.clear();
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
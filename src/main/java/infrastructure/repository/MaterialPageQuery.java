@@ -0,0 +1,67 @@
+package infrastructure.repository;
+
+import domain.model.MaterialSummary;
+import domain.model.StudyMaterial;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Builds the keyset query shared by the paginated study material lists. Rows are ordered
+ * by (timestamp, materialId) and one extra row is fetched to tell whether another page exists.
+ */
+final class MaterialPageQuery {
+    static final String SUMMARY_SELECT =
+            "SELECT NEW domain.model.MaterialSummary(s.materialId, s.name, CONCAT(u.firstName, ' ', u.lastName), " +
+                    "s.timestamp, s.fileType, s.ratingAverage) " +
+                    "FROM StudyMaterial s JOIN s.uploader u";
+
+    private static final String ENTITY_SELECT = "SELECT s FROM StudyMaterial s";
+
+    private MaterialPageQuery() {}
+
+    static Page<StudyMaterial> fetch(EntityManager em, String condition, Map<String, Object> parameters, PageRequest request) {
+        return fetch(em, ENTITY_SELECT, StudyMaterial.class, condition, parameters, request,
+                StudyMaterial::getTimestamp, StudyMaterial::getMaterialId);
+    }
+
+    static Page<MaterialSummary> fetchSummaries(EntityManager em, String condition, Map<String, Object> parameters, PageRequest request) {
+        return fetch(em, SUMMARY_SELECT, MaterialSummary.class, condition, parameters, request,
+                MaterialSummary::timestamp, MaterialSummary::materialId);
+    }
+
+    private static <R> Page<R> fetch(EntityManager em, String select, Class<R> type, String condition,
+                                     Map<String, Object> parameters, PageRequest request,
+                                     Function<R, LocalDateTime> timestampOf, ToIntFunction<R> idOf) {
+        boolean newestFirst = request.sort() == PageRequest.Sort.NEWEST_FIRST;
+        String comparison = newestFirst ? "<" : ">";
+        String direction = newestFirst ? "DESC" : "ASC";
+
+        StringBuilder jpql = new StringBuilder(select).append(" WHERE ").append(condition);
+        if (!request.isFirst()) {
+            jpql.append(" AND (s.timestamp ").append(comparison).append(" :afterTimestamp")
+                    .append(" OR (s.timestamp = :afterTimestamp AND s.materialId ").append(comparison).append(" :afterId))");
+        }
+        jpql.append(" ORDER BY s.timestamp ").append(direction).append(", s.materialId ").append(direction);
+
+        TypedQuery<R> query = em.createQuery(jpql.toString(), type);
+        parameters.forEach(query::setParameter);
+        if (!request.isFirst()) {
+            query.setParameter("afterTimestamp", request.afterTimestamp());
+            query.setParameter("afterId", request.afterId());
+        }
+        List<R> rows = query.setMaxResults(request.size() + 1).getResultList();
+
+        if (rows.size() <= request.size()) {
+            return new Page<>(rows, null);
+        }
+        List<R> content = rows.subList(0, request.size());
+        R last = content.get(content.size() - 1);
+        return new Page<>(content, request.after(timestampOf.apply(last), idOf.applyAsInt(last)));
+    }
+}
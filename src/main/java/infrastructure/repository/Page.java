@@ -0,0 +1,21 @@
+package infrastructure.repository;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated list. {@code next} is the request for the following
+ * slice, or null when this is the last one.
+ */
+public record Page<T>(List<T> content, PageRequest next) {
+    public Page {
+        content = List.copyOf(content);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
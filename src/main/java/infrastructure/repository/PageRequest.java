@@ -0,0 +1,48 @@
+package infrastructure.repository;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Keyset page request for study material lists. Instead of an offset it carries the
+ * (timestamp, materialId) of the last row already shown, so every page costs the same
+ * index range scan no matter how deep the user has scrolled.
+ */
+public record PageRequest(int size, Sort sort, LocalDateTime afterTimestamp, Integer afterId) {
+    public static final int DEFAULT_SIZE = 20;
+
+    public enum Sort {
+        NEWEST_FIRST,
+        OLDEST_FIRST
+    }
+
+    public PageRequest {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        Objects.requireNonNull(sort, "sort");
+        if ((afterTimestamp == null) != (afterId == null)) {
+            throw new IllegalArgumentException("Cursor needs both timestamp and id");
+        }
+    }
+
+    public static PageRequest first() {
+        return first(DEFAULT_SIZE);
+    }
+
+    public static PageRequest first(int size) {
+        return first(size, Sort.NEWEST_FIRST);
+    }
+
+    public static PageRequest first(int size, Sort sort) {
+        return new PageRequest(size, sort, null, null);
+    }
+
+    public PageRequest after(LocalDateTime timestamp, int id) {
+        return new PageRequest(size, sort, Objects.requireNonNull(timestamp, "timestamp"), id);
+    }
+
+    public boolean isFirst() {
+        return afterId == null;
+    }
+}
@@ -0,0 +1,67 @@
+package infrastructure.repository;
+
+import domain.model.MaterialPreview;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PreviewRepository extends BaseRepository<MaterialPreview> {
+    public PreviewRepository() {
+        super(MaterialPreview.class);
+    }
+
+    //    constructor for testing
+    public PreviewRepository(EntityManagerFactory emf) {
+        super(MaterialPreview.class, emf);
+    }
+
+    public byte[] findImage(int materialId) {
+        return findImages(List.of(materialId)).get(materialId);
+    }
+
+    /**
+     * Returns the previews of the given materials by id. A material uploaded since files are
+     * stored by content has no preview row of its own and gets the one kept with its stored file.
+     */
+    public Map<Integer, byte[]> findImages(Collection<Integer> materialIds) {
+        Map<Integer, byte[]> images = new HashMap<>();
+        if (materialIds.isEmpty()) {
+            return images;
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            List<Integer> ids = new ArrayList<>(materialIds);
+            for (int from = 0; from < ids.size(); from += getBatchSize()) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + getBatchSize(), ids.size()));
+                List<Object[]> rows = em.createQuery(
+                                "SELECT p.materialId, p.image FROM MaterialPreview p WHERE p.materialId IN :ids", Object[].class)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    images.put((Integer) row[0], (byte[]) row[1]);
+                }
+                List<Integer> missing = chunk.stream().filter(id -> !images.containsKey(id)).toList();
+                if (missing.isEmpty()) {
+                    continue;
+                }
+                List<Object[]> shared = em.createQuery(
+                                "SELECT m.materialId, f.previewImage FROM StudyMaterial m, StoredFile f " +
+                                        "WHERE f.link = m.link AND f.previewImage IS NOT NULL AND m.materialId IN :ids", Object[].class)
+                        .setParameter("ids", missing)
+                        .getResultList();
+                for (Object[] row : shared) {
+                    images.put((Integer) row[0], (byte[]) row[1]);
+                }
+            }
+            return images;
+        } finally {
+            em.close();
+        }
+    }
+}
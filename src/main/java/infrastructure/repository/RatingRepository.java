@@ -3,15 +3,21 @@ package infrastructure.repository;
 
 import domain.model.Permission;
 import domain.model.Rating;
+import domain.model.RatingStats;
 import domain.model.StudyMaterial;
 import domain.model.User;
 import infrastructure.config.DatabaseConnection;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.NoResultException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RatingRepository extends BaseRepository<Rating> {
 
@@ -24,6 +30,92 @@ public class RatingRepository extends BaseRepository<Rating> {
         super(Rating.class, emf);
     }
 
+    // The material's RatingCount/RatingSum/RatingAverage columns are adjusted in the same
+    // transaction as every rating write, so averages never need to scan the ratings table.
+    @Override
+    public Rating save(Rating rating) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            em.persist(rating);
+            adjustTotals(em, rating.getStudyMaterial().getMaterialId(), rating.getRatingScore(), 1);
+            transaction.commit();
+            return rating;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public Rating updateScore(Rating rating, int newScore) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            Rating managed = em.find(Rating.class, rating.getRatingId());
+            if (managed == null) {
+                throw new EntityNotFoundException("Rating " + rating.getRatingId() + " no longer exists");
+            }
+            int delta = newScore - managed.getRatingScore();
+            managed.setRatingScore(newScore);
+            adjustTotals(em, managed.getStudyMaterial().getMaterialId(), delta, 0);
+            transaction.commit();
+            rating.setRatingScore(newScore);
+            return managed;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Repair job: recomputes every material's totals from the ratings table. Rewrites the
+    // whole study_materials table, so it's run on demand, never at startup.
+    public int rebuildRatingTotals() {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            int updated = em.createNativeQuery("UPDATE study_materials s SET " +
+                            "RatingCount = (SELECT COUNT(*) FROM ratings r WHERE r.materialId = s.materialId), " +
+                            "RatingSum = (SELECT COALESCE(SUM(r.ratingScore), 0) FROM ratings r WHERE r.materialId = s.materialId)")
+                    .executeUpdate();
+            em.createNativeQuery("UPDATE study_materials SET RatingAverage = " +
+                            "CASE WHEN RatingCount > 0 THEN RatingSum * 1.0 / RatingCount ELSE 0 END")
+                    .executeUpdate();
+            transaction.commit();
+            return updated;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private void adjustTotals(EntityManager em, int materialId, long scoreDelta, long countDelta) {
+        em.createQuery("UPDATE StudyMaterial s SET s.ratingSum = s.ratingSum + :scoreDelta, " +
+                        "s.ratingCount = s.ratingCount + :countDelta WHERE s.materialId = :id")
+                .setParameter("scoreDelta", scoreDelta)
+                .setParameter("countDelta", (int) countDelta)
+                .setParameter("id", materialId)
+                .executeUpdate();
+        em.createQuery("UPDATE StudyMaterial s SET s.ratingAverage = " +
+                        "CASE WHEN s.ratingCount > 0 THEN s.ratingSum * 1.0 / s.ratingCount ELSE 0.0 END WHERE s.materialId = :id")
+                .setParameter("id", materialId)
+                .executeUpdate();
+    }
+
     public List<Rating> findByMaterial(StudyMaterial material) {
         EntityManager em = getEntityManager();
         try {
@@ -50,8 +142,8 @@ public class RatingRepository extends BaseRepository<Rating> {
         EntityManager em = getEntityManager();
         try {
             return em.createQuery(
-                            "SELECT AVG(r.ratingScore) FROM Rating r WHERE r.studyMaterial = :material", Double.class)
-                    .setParameter("material", material)
+                            "SELECT s.ratingAverage FROM StudyMaterial s WHERE s.materialId = :id", Double.class)
+                    .setParameter("id", material.getMaterialId())
                     .getSingleResult();
         } catch (NoResultException e) {
             return 0.0;
@@ -60,6 +152,34 @@ public class RatingRepository extends BaseRepository<Rating> {
         }
     }
 
+    // One GROUP BY query per batch of ids. Keys are boxed Integers since the project has no
+    // primitive-collection library; RatingStats holds the average and count as primitives.
+    public Map<Integer, RatingStats> findAverageRatings(Collection<Integer> materialIds) {
+        Map<Integer, RatingStats> stats = new HashMap<>();
+        if (materialIds.isEmpty()) {
+            return stats;
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            List<Integer> ids = new ArrayList<>(materialIds);
+            for (int from = 0; from < ids.size(); from += getBatchSize()) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + getBatchSize(), ids.size()));
+                List<Object[]> rows = em.createQuery(
+                                "SELECT s.materialId, s.ratingAverage, s.ratingCount FROM StudyMaterial s " +
+                                        "WHERE s.materialId IN :ids AND s.ratingCount > 0", Object[].class)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    stats.put((Integer) row[0], new RatingStats(((Number) row[1]).doubleValue(), ((Number) row[2]).longValue()));
+                }
+            }
+            return stats;
+        } finally {
+            em.close();
+        }
+    }
+
     public boolean hasUserReviewedMaterial(User user, StudyMaterial material) {
         EntityManager em = getEntityManager();
         try {
@@ -81,6 +201,9 @@ public class RatingRepository extends BaseRepository<Rating> {
             em.createQuery("DELETE FROM Rating r WHERE r.studyMaterial = :studyMaterial")
                     .setParameter("studyMaterial", studyMaterial)
                     .executeUpdate();
+            em.createQuery("UPDATE StudyMaterial s SET s.ratingSum = 0, s.ratingCount = 0, s.ratingAverage = 0.0 WHERE s.materialId = :id")
+                    .setParameter("id", studyMaterial.getMaterialId())
+                    .executeUpdate();
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -109,9 +232,13 @@ public class RatingRepository extends BaseRepository<Rating> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-            em.createQuery("DELETE FROM Rating r WHERE r.id = :id")
-                    .setParameter("id", id)
-                    .executeUpdate();
+            Rating rating = em.find(Rating.class, id);
+            if (rating != null) {
+                em.createQuery("DELETE FROM Rating r WHERE r.id = :id")
+                        .setParameter("id", id)
+                        .executeUpdate();
+                adjustTotals(em, rating.getStudyMaterial().getMaterialId(), -rating.getRatingScore(), -1);
+            }
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -128,16 +255,7 @@ public class RatingRepository extends BaseRepository<Rating> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-
-            List<Rating> ratings = em.createQuery("SELECT r FROM Rating r WHERE r.user = :user", Rating.class)
-                    .setParameter("user", user)
-                    .getResultList();
-
-            for (Rating rating : ratings) {
-                Rating mergedRating = em.merge(rating);
-                em.remove(mergedRating);
-            }
-
+            CascadeDelete.ratingsGivenBy(em, user.getUserId());
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -148,4 +266,16 @@ public class RatingRepository extends BaseRepository<Rating> {
             em.close();
         }
     }
+
+    @Override
+    protected void beforeDeleteAll(EntityManager em, List<Integer> ids) {
+        List<Object[]> totals = em.createQuery(
+                        "SELECT r.studyMaterial.materialId, SUM(r.ratingScore), COUNT(r) FROM Rating r " +
+                                "WHERE r.ratingId IN :ids GROUP BY r.studyMaterial.materialId", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+        for (Object[] row : totals) {
+            adjustTotals(em, (Integer) row[0], -((Number) row[1]).longValue(), -((Number) row[2]).longValue());
+        }
+    }
 }
@@ -35,7 +35,7 @@ public class ReviewRepository extends BaseRepository<Review> {
     }
 
     public List<Review> findByUser(User u) {
-        EntityManager em = DatabaseConnection.getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManager();
         try {
             TypedQuery<Review> query = em.createQuery(
                     "SELECT r FROM Review r WHERE r.user = :user",
@@ -97,6 +97,7 @@ public class ReviewRepository extends BaseRepository<Review> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
+            CascadeDelete.reviewTranslations(em, List.of(id));
             em.createQuery("DELETE FROM Review r WHERE r.id = :id")
                     .setParameter("id", id)
                     .executeUpdate();
@@ -116,16 +117,7 @@ public class ReviewRepository extends BaseRepository<Review> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-
-            List<Review> reviews = em.createQuery("SELECT r FROM Review r WHERE r.user = :user", Review.class)
-                    .setParameter("user", user)
-                    .getResultList();
-
-            for (Review review : reviews) {
-                Review mergedReview = em.merge(review);
-                em.remove(mergedReview);
-            }
-
+            CascadeDelete.reviewsWrittenBy(em, user.getUserId());
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -136,4 +128,9 @@ public class ReviewRepository extends BaseRepository<Review> {
             em.close();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void beforeDeleteAll(EntityManager em, List<Integer> ids) {
+        CascadeDelete.reviewTranslations(em, ids);
+    }
+}
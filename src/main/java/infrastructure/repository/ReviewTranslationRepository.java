@@ -2,12 +2,15 @@ package infrastructure.repository;
 
 import domain.model.Review;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,53 +18,68 @@ import java.util.Map;
 public class ReviewTranslationRepository extends BaseRepository<Review> {
     private static final Logger logger = LoggerFactory.getLogger(ReviewTranslationRepository.class);
 
+    private static final TranslationUpsert UPSERT = new TranslationUpsert("review_translations",
+            List.of("review_id", "language_code"), List.of("review_text"));
+
     public ReviewTranslationRepository() {
         super(Review.class);
     }
 
-    public void saveTranslations(int reviewId, Map<String, String> textTranslations) {
+    //    constructor for testing
+    public ReviewTranslationRepository(EntityManagerFactory emf) {
+        super(Review.class, emf);
+    }
+
+    // Creates the table on new databases and adds the (review_id, language_code) key to older ones
+    public void createTableIfMissing() {
         EntityManager em = getEntityManager();
         EntityTransaction transaction = em.getTransaction();
-
         try {
             transaction.begin();
-
-            for (Map.Entry<String, String> entry : textTranslations.entrySet()) {
-                String languageCode = entry.getKey();
-                String translatedText = entry.getValue();
-
-                // Check if translation already exists
-                Query query = em.createNativeQuery(
-                        "SELECT COUNT(*) FROM review_translations " +
-                                "WHERE review_id = ? AND language_code = ?");
-                query.setParameter(1, reviewId);
-                query.setParameter(2, languageCode);
-
-                Long count = ((Number) query.getSingleResult()).longValue();
-
-                if (count > 0) {
-                    // Update existing translation
-                    Query updateQuery = em.createNativeQuery(
-                            "UPDATE review_translations SET review_text = ? " +
-                                    "WHERE review_id = ? AND language_code = ?");
-                    updateQuery.setParameter(1, translatedText);
-                    updateQuery.setParameter(2, reviewId);
-                    updateQuery.setParameter(3, languageCode);
-                    updateQuery.executeUpdate();
-                } else {
-                    // Insert new translation
-                    Query insertQuery = em.createNativeQuery(
-                            "INSERT INTO review_translations (review_id, language_code, review_text) " +
-                                    "VALUES (?, ?, ?)");
-                    insertQuery.setParameter(1, reviewId);
-                    insertQuery.setParameter(2, languageCode);
-                    insertQuery.setParameter(3, translatedText);
-                    insertQuery.executeUpdate();
-                }
+            em.createNativeQuery("CREATE TABLE IF NOT EXISTS review_translations (" +
+                            "review_id INT NOT NULL, " +
+                            "language_code VARCHAR(10) NOT NULL, " +
+                            "review_text VARCHAR(1000), " +
+                            "CONSTRAINT uk_review_translations UNIQUE (review_id, language_code))")
+                    .executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
             }
+            throw e;
+        } finally {
+            em.close();
+        }
 
+        EntityManager keyEm = getEntityManager();
+        try {
+            UPSERT.ensureUniqueKey(keyEm, "uk_review_translations");
+        } finally {
+            keyEm.close();
+        }
+    }
+
+    public void saveTranslations(int reviewId, Map<String, String> textTranslations) {
+        saveAllTranslations(Map.of(reviewId, textTranslations));
+        logger.info("Saved translations for review ID: {}", reviewId);
+    }
+
+    // Writes the translations of many reviews with one upsert per batch of rows
+    public void saveAllTranslations(Map<Integer, Map<String, String>> textTranslations) {
+        List<Object[]> rows = new ArrayList<>();
+        textTranslations.forEach((reviewId, texts) ->
+                texts.forEach((languageCode, text) -> rows.add(new Object[]{reviewId, languageCode, text})));
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            UPSERT.execute(em, rows, getBatchSize());
             transaction.commit();
-            logger.info("Saved translations for review ID: {}", reviewId);
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -73,6 +91,52 @@ public class ReviewTranslationRepository extends BaseRepository<Review> {
         }
     }
 
+    // Drops every language of a review, e.g. when its text changes and the old translations are stale
+    public void deleteTranslations(int reviewId) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            CascadeDelete.reviewTranslations(em, List.of(reviewId));
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // One query per batch of ids; reviews without a translation in the language are left out
+    public Map<Integer, String> findTranslations(Collection<Integer> reviewIds, String languageCode) {
+        Map<Integer, String> translations = new HashMap<>(reviewIds.size() * 2);
+        if (reviewIds.isEmpty()) {
+            return translations;
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            List<Integer> ids = new ArrayList<>(reviewIds);
+            for (int from = 0; from < ids.size(); from += getBatchSize()) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + getBatchSize(), ids.size()));
+                List<Object[]> rows = em.createNativeQuery(
+                                "SELECT review_id, review_text FROM review_translations " +
+                                        "WHERE language_code = :language AND review_id IN :ids")
+                        .setParameter("language", languageCode)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    translations.put(((Number) row[0]).intValue(), (String) row[1]);
+                }
+            }
+            return translations;
+        } finally {
+            em.close();
+        }
+    }
+
     public String getTranslation(int reviewId, String languageCode) {
         EntityManager em = getEntityManager();
         try {
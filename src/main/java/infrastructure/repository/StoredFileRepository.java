@@ -0,0 +1,60 @@
+package infrastructure.repository;
+
+import domain.model.StoredFile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
+
+public class StoredFileRepository extends BaseRepository<StoredFile> {
+    public StoredFileRepository() {
+        super(StoredFile.class);
+    }
+
+    //    constructor for testing
+    public StoredFileRepository(EntityManagerFactory emf) {
+        super(StoredFile.class, emf);
+    }
+
+    public StoredFile findByHash(String sha256) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.find(StoredFile.class, sha256);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Adds a stored file to the index unless its hash is already there. When two uploads
+     * of the same content finish together, the first one saved wins and both get it back.
+     *
+     * @return the indexed file for the hash
+     */
+    public StoredFile remember(StoredFile file) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            StoredFile existing = em.find(StoredFile.class, file.getSha256());
+            if (existing != null) {
+                transaction.commit();
+                return existing;
+            }
+            em.persist(file);
+            transaction.commit();
+            return file;
+        } catch (PersistenceException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            StoredFile winner = findByHash(file.getSha256());
+            if (winner == null) {
+                throw e;
+            }
+            return winner;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -10,7 +10,12 @@ import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static domain.model.MaterialStatus.APPROVED;
 
@@ -44,14 +49,18 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
 
     public List<StudyMaterial> findByTag(Tag tag) {
         EntityManager em = getEntityManager();
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<StudyMaterial> cq = cb.createQuery(StudyMaterial.class);
-        Root<StudyMaterial> root = cq.from(StudyMaterial.class);
+        try {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<StudyMaterial> cq = cb.createQuery(StudyMaterial.class);
+            Root<StudyMaterial> root = cq.from(StudyMaterial.class);
 
-        Predicate tagPredicate = cb.isMember(tag, root.get("tags"));
+            Predicate tagPredicate = cb.isMember(tag, root.get("tags"));
 
-        cq.where(cb.or(tagPredicate));
-        return em.createQuery(cq).getResultList();
+            cq.where(cb.or(tagPredicate));
+            return em.createQuery(cq).getResultList();
+        } finally {
+            em.close();
+        }
     }
 
 
@@ -71,6 +80,157 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
         }
     }
 
+    public Page<StudyMaterial> findByTag(Tag tag, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetch(em, ":tag MEMBER OF s.tags", Map.of("tag", tag), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<StudyMaterial> findByUser(User user, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetch(em, "s.uploader = :user", Map.of("user", user), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<StudyMaterial> findByStatus(MaterialStatus status, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetch(em, "s.status = :status", Map.of("status", status), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<MaterialSummary> findSummariesByTag(Tag tag, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetchSummaries(em, ":tag MEMBER OF s.tags", Map.of("tag", tag), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Page<MaterialSummary> findSummariesByUser(User user, PageRequest request) {
+        EntityManager em = getEntityManager();
+        try {
+            return MaterialPageQuery.fetchSummaries(em, "s.uploader = :user", Map.of("user", user), request);
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<MaterialSummary> findSummariesByNameOrDescription(String query) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery(MaterialPageQuery.SUMMARY_SELECT +
+                            " WHERE LOWER(s.name) LIKE :query OR LOWER(s.description) LIKE :query", MaterialSummary.class)
+                    .setParameter("query", "%" + query.toLowerCase() + "%")
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Returns the summaries in the order of the given ids; missing ids are skipped
+    public List<MaterialSummary> findSummariesByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            Map<Integer, MaterialSummary> byId = new HashMap<>(ids.size() * 2);
+            for (int from = 0; from < ids.size(); from += getBatchSize()) {
+                em.createQuery(MaterialPageQuery.SUMMARY_SELECT + " WHERE s.materialId IN :ids", MaterialSummary.class)
+                        .setParameter("ids", ids.subList(from, Math.min(from + getBatchSize(), ids.size())))
+                        .getResultList()
+                        .forEach(summary -> byId.put(summary.materialId(), summary));
+            }
+            List<MaterialSummary> summaries = new ArrayList<>(byId.size());
+            for (int id : ids) {
+                MaterialSummary summary = byId.get(id);
+                if (summary != null) {
+                    summaries.add(summary);
+                }
+            }
+            return summaries;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Text of every material for the search index: one query for the materials, one for their tags
+    public List<SearchDocument> findSearchDocuments() {
+        EntityManager em = getEntityManager();
+        try {
+            Map<Integer, Map<Integer, String>> tagsByMaterial = new HashMap<>();
+            em.createQuery("SELECT s.materialId, t.tagId, t.tagName FROM StudyMaterial s JOIN s.tags t", Object[].class)
+                    .getResultList()
+                    .forEach(row -> tagsByMaterial.computeIfAbsent((Integer) row[0], id -> new LinkedHashMap<>())
+                            .put((Integer) row[1], (String) row[2]));
+
+            List<Object[]> rows = em.createQuery("SELECT s.materialId, s.name, s.description, c.categoryId, c.name, " +
+                            "s.ratingAverage, s.timestamp FROM StudyMaterial s LEFT JOIN s.category c", Object[].class)
+                    .getResultList();
+            List<SearchDocument> documents = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                int materialId = (Integer) row[0];
+                documents.add(new SearchDocument(materialId, (String) row[1], (String) row[2],
+                        row[3] != null ? (Integer) row[3] : 0, (String) row[4],
+                        tagsByMaterial.getOrDefault(materialId, Map.of()),
+                        ((Number) row[5]).doubleValue(), (LocalDateTime) row[6]));
+            }
+            return documents;
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<MaterialSummary> findLatestSummaries(int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery(MaterialPageQuery.SUMMARY_SELECT +
+                            " WHERE s.status = :status ORDER BY s.timestamp DESC", MaterialSummary.class)
+                    .setParameter("status", APPROVED)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<MaterialSummary> findBestReviewedSummaries(int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery(MaterialPageQuery.SUMMARY_SELECT +
+                            " WHERE s.ratingCount > 0 ORDER BY s.ratingAverage DESC, s.ratingCount DESC", MaterialSummary.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<MaterialSummary> findReviewedSummariesByUserLatest10(User user) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery(MaterialPageQuery.SUMMARY_SELECT +
+                            " WHERE EXISTS (SELECT 1 FROM Rating ur WHERE ur.studyMaterial = s AND ur.user = :user)" +
+                            " ORDER BY s.timestamp DESC", MaterialSummary.class)
+                    .setParameter("user", user)
+                    .setMaxResults(10)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
     public List<StudyMaterial> findPendingMaterials() {
         EntityManager em = getEntityManager();
         try {
@@ -125,13 +285,15 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
         }
     }
 
-    public void updateMaterialDescription(int materialId, String description) {
+    // The text is now in the editor's language, which later translations start from
+    public void updateMaterialDescription(int materialId, String description, String sourceLanguage) {
         EntityManager em = getEntityManager();
         try {
             em.getTransaction().begin();
             StudyMaterial material = em.find(StudyMaterial.class, materialId);
             if (material != null) {
                 material.setDescription(description);
+                material.setSourceLanguage(sourceLanguage);
             }
             em.getTransaction().commit();
         } finally {
@@ -139,13 +301,14 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
         }
     }
 
-    public void updateMaterialTitle(int materialId, String title) {
+    public void updateMaterialTitle(int materialId, String title, String sourceLanguage) {
         EntityManager em = getEntityManager();
         try {
             em.getTransaction().begin();
             StudyMaterial material = em.find(StudyMaterial.class, materialId);
             if (material != null) {
                 material.setName(title);
+                material.setSourceLanguage(sourceLanguage);
             }
             em.getTransaction().commit();
         } finally {
@@ -166,7 +329,7 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
     }
 
     public StudyMaterial update(StudyMaterial material) {
-        EntityManager em = DatabaseConnection.getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManager();
         try {
             em.getTransaction().begin();
 
@@ -186,8 +349,8 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
         EntityManager em = getEntityManager();
         try {
             return em.createQuery(
-                            "SELECT r.studyMaterial FROM Rating r GROUP BY r.studyMaterial " +
-                                    "ORDER BY AVG(r.ratingScore) ASC", StudyMaterial.class)
+                            "SELECT s FROM StudyMaterial s WHERE s.ratingCount > 0 " +
+                                    "ORDER BY s.ratingAverage DESC, s.ratingCount DESC", StudyMaterial.class)
                     .setMaxResults(limit)
                     .getResultList();
         } finally {
@@ -214,11 +377,7 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-            new ReviewRepository().deleteByMaterial(entity);
-            new RatingRepository().deleteByMaterial(entity);
-
-            StudyMaterial mergedEntity = em.merge(entity);
-            em.remove(mergedEntity);
+            CascadeDelete.material(em, entity.getMaterialId());
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -230,23 +389,36 @@ public class StudyMaterialRepository extends BaseRepository<StudyMaterial> {
         }
     }
 
+    @Override
+    protected void afterPersist(EntityManager em, StudyMaterial material) {
+        if (material.getPreviewImage() != null) {
+            em.persist(new MaterialPreview(material, material.getPreviewImage()));
+        }
+    }
+
+    @Override
+    protected void beforeDeleteAll(EntityManager em, List<Integer> ids) {
+        em.createQuery("DELETE FROM Review r WHERE r.studyMaterial.materialId IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createQuery("DELETE FROM Rating r WHERE r.studyMaterial.materialId IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createQuery("DELETE FROM MaterialPreview p WHERE p.materialId IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        em.createQuery("DELETE FROM MaterialContent c WHERE c.materialId IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        CascadeDelete.materialTranslations(em, ids);
+    }
+
     public void deleteByUser(User user) {
         EntityManager em = getEntityManager();
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-
-            List<StudyMaterial> materials = em.createQuery("SELECT m FROM StudyMaterial m WHERE m.uploader = :user", StudyMaterial.class)
-                    .setParameter("user", user)
-                    .getResultList();
-
-            for (StudyMaterial material : materials) {
-                new ReviewRepository().deleteByMaterial(material);
-                new RatingRepository().deleteByMaterial(material);
-                StudyMaterial mergedMaterial = em.merge(material);
-                em.remove(mergedMaterial);
-            }
-
+            CascadeDelete.materialsUploadedBy(em, user.getUserId());
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -1,13 +1,17 @@
 package infrastructure.repository;
 
+import domain.model.MaterialTranslation;
 import domain.model.StudyMaterial;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,56 +19,94 @@ import java.util.Map;
 public class StudyMaterialTranslationRepository extends BaseRepository<StudyMaterial> {
     private static final Logger logger = LoggerFactory.getLogger(StudyMaterialTranslationRepository.class);
 
+    private static final TranslationUpsert UPSERT = new TranslationUpsert("study_material_translations",
+            List.of("material_id", "language_code"), List.of("name", "description"));
+
     public StudyMaterialTranslationRepository() {
         super(StudyMaterial.class);
     }
 
-    public void saveTranslations(int materialId, Map<String, String> nameTranslations,
-                                 Map<String, String> descriptionTranslations) {
+    //    constructor for testing
+    public StudyMaterialTranslationRepository(EntityManagerFactory emf) {
+        super(StudyMaterial.class, emf);
+    }
+
+    // Creates the table on new databases; on older ones widens the description to the
+    // source column's TEXT and adds the (material_id, language_code) key
+    public void createTableIfMissing() {
         EntityManager em = getEntityManager();
         EntityTransaction transaction = em.getTransaction();
-
         try {
             transaction.begin();
+            em.createNativeQuery("CREATE TABLE IF NOT EXISTS study_material_translations (" +
+                            "material_id INT NOT NULL, " +
+                            "language_code VARCHAR(10) NOT NULL, " +
+                            "name VARCHAR(255), " +
+                            "description " + TranslationUpsert.longTextType(em) + ", " +
+                            "CONSTRAINT uk_material_translations UNIQUE (material_id, language_code))")
+                    .executeUpdate();
+            UPSERT.widenToText(em, "description");
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
 
-            for (String languageCode : nameTranslations.keySet()) {
-                String name = nameTranslations.get(languageCode);
-                String description = descriptionTranslations.getOrDefault(languageCode, "");
-
-                // Check if translation already exists
-                Query query = em.createNativeQuery(
-                        "SELECT COUNT(*) FROM study_material_translations " +
-                                "WHERE material_id = ? AND language_code = ?");
-                query.setParameter(1, materialId);
-                query.setParameter(2, languageCode);
-
-                Long count = ((Number) query.getSingleResult()).longValue();
-
-                if (count > 0) {
-                    // Update existing translation
-                    Query updateQuery = em.createNativeQuery(
-                            "UPDATE study_material_translations SET name = ?, description = ? " +
-                                    "WHERE material_id = ? AND language_code = ?");
-                    updateQuery.setParameter(1, name);
-                    updateQuery.setParameter(2, description);
-                    updateQuery.setParameter(3, materialId);
-                    updateQuery.setParameter(4, languageCode);
-                    updateQuery.executeUpdate();
-                } else {
-                    // Insert new translation
-                    Query insertQuery = em.createNativeQuery(
-                            "INSERT INTO study_material_translations (material_id, language_code, name, description) " +
-                                    "VALUES (?, ?, ?, ?)");
-                    insertQuery.setParameter(1, materialId);
-                    insertQuery.setParameter(2, languageCode);
-                    insertQuery.setParameter(3, name);
-                    insertQuery.setParameter(4, description);
-                    insertQuery.executeUpdate();
-                }
+        EntityManager keyEm = getEntityManager();
+        try {
+            UPSERT.ensureUniqueKey(keyEm, "uk_material_translations");
+        } finally {
+            keyEm.close();
+        }
+    }
+
+    // Drops every language of a material, e.g. when its name or description changes and the old translations are stale
+    public void deleteTranslations(int materialId) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            CascadeDelete.materialTranslations(em, List.of(materialId));
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
             }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public void saveTranslations(int materialId, Map<String, String> nameTranslations,
+                                 Map<String, String> descriptionTranslations) {
+        saveAllTranslations(Map.of(materialId, nameTranslations), Map.of(materialId, descriptionTranslations));
+        logger.info("Saved translations for material ID: {}", materialId);
+    }
+
+    // Writes the translations of many materials with one upsert per batch of rows
+    public void saveAllTranslations(Map<Integer, Map<String, String>> nameTranslations,
+                                    Map<Integer, Map<String, String>> descriptionTranslations) {
+        List<Object[]> rows = new ArrayList<>();
+        nameTranslations.forEach((materialId, names) -> {
+            Map<String, String> descriptions = descriptionTranslations.getOrDefault(materialId, Map.of());
+            names.forEach((languageCode, name) ->
+                    rows.add(new Object[]{materialId, languageCode, name, descriptions.getOrDefault(languageCode, "")}));
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
 
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            UPSERT.execute(em, rows, getBatchSize());
             transaction.commit();
-            logger.info("Saved translations for material ID: {}", materialId);
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -76,6 +118,34 @@ public class StudyMaterialTranslationRepository extends BaseRepository<StudyMate
         }
     }
 
+    // One query per batch of ids; materials without a translation in the language are left out
+    public Map<Integer, MaterialTranslation> findTranslations(Collection<Integer> materialIds, String languageCode) {
+        Map<Integer, MaterialTranslation> translations = new HashMap<>(materialIds.size() * 2);
+        if (materialIds.isEmpty()) {
+            return translations;
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            List<Integer> ids = new ArrayList<>(materialIds);
+            for (int from = 0; from < ids.size(); from += getBatchSize()) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + getBatchSize(), ids.size()));
+                List<Object[]> rows = em.createNativeQuery(
+                                "SELECT material_id, name, description FROM study_material_translations " +
+                                        "WHERE language_code = :language AND material_id IN :ids")
+                        .setParameter("language", languageCode)
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    translations.put(((Number) row[0]).intValue(), new MaterialTranslation((String) row[1], (String) row[2]));
+                }
+            }
+            return translations;
+        } finally {
+            em.close();
+        }
+    }
+
     public Map<String, String> getNameTranslations(int materialId) {
         return getTranslations(materialId, "name");
     }
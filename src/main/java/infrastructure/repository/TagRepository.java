@@ -10,6 +10,8 @@ import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class TagRepository extends BaseRepository<Tag> {
@@ -23,7 +25,7 @@ public class TagRepository extends BaseRepository<Tag> {
     }
 
     public List<Tag> findAll() {
-        EntityManager em = DatabaseConnection.getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManager();
         try {
             return em.createQuery("SELECT t FROM Tag t", Tag.class)
                     .getResultList();
@@ -33,7 +35,7 @@ public class TagRepository extends BaseRepository<Tag> {
     }
 
     public Tag findByName(String tagName) {
-        EntityManager em = DatabaseConnection.getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManager();
         try {
             return em.createQuery("SELECT t FROM Tag t WHERE LOWER(t.tagName) = LOWER(:tagName)", Tag.class)
                     .setParameter("tagName", tagName)
@@ -45,8 +47,23 @@ public class TagRepository extends BaseRepository<Tag> {
         }
     }
 
+    public List<Tag> findByNames(Collection<String> tagNames) {
+        if (tagNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery("SELECT t FROM Tag t WHERE LOWER(t.tagName) IN :tagNames", Tag.class)
+                    .setParameter("tagNames", tagNames.stream().map(String::toLowerCase).toList())
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
     public List<Tag> searchByName(String tagName) {
-        EntityManager em = DatabaseConnection.getEntityManagerFactory().createEntityManager();
+        EntityManager em = getEntityManager();
         try {
             return em.createQuery("SELECT t FROM Tag t WHERE LOWER(t.tagName) LIKE LOWER(:tagName)", Tag.class)
                     .setParameter("tagName", "%" + tagName + "%")
@@ -61,27 +78,7 @@ public class TagRepository extends BaseRepository<Tag> {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
-
-            List<Tag> tags = em.createQuery("SELECT t FROM Tag t WHERE t.creator = :user", Tag.class)
-                    .setParameter("user", user)
-                    .getResultList();
-
-            for (Tag tag : tags) {
-                List<StudyMaterial> materials = em.createQuery("SELECT m FROM StudyMaterial m JOIN m.tags t WHERE t = :tag", StudyMaterial.class)
-                        .setParameter("tag", tag)
-                        .getResultList();
-
-                for (StudyMaterial material : materials) {
-                    material.getTags().remove(tag);
-                    em.merge(material);
-                }
-
-                Tag managedTag = em.find(Tag.class, tag.getTagId());
-                if (managedTag != null) {
-                    em.remove(managedTag);
-                }
-            }
-
+            CascadeDelete.tagsCreatedBy(em, user.getUserId());
             transaction.commit();
         } catch (Exception e) {
             if (transaction.isActive()) {
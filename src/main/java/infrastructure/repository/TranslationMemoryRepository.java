@@ -0,0 +1,111 @@
+package infrastructure.repository;
+
+import domain.model.TranslationMemoryEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TranslationMemoryRepository extends BaseRepository<TranslationMemoryEntry> {
+    private static final TranslationUpsert UPSERT = new TranslationUpsert("translation_memory",
+            List.of("text_hash"), List.of("source_language", "target_language", "translated_text", "created_at"));
+
+    public TranslationMemoryRepository() {
+        super(TranslationMemoryEntry.class);
+    }
+
+    //    constructor for testing
+    public TranslationMemoryRepository(EntityManagerFactory emf) {
+        super(TranslationMemoryEntry.class, emf);
+    }
+
+    // Schema updates never widen a column, so a table created while translated_text was a
+    // VARCHAR(5000) is altered to the entity's TEXT here
+    public void widenTranslatedText() {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            UPSERT.widenToText(em, "translated_text");
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // One query per batch of hashes; hashes without a stored translation are left out
+    public Map<String, String> findTranslations(Collection<String> textHashes) {
+        Map<String, String> translations = new HashMap<>(textHashes.size() * 2);
+        if (textHashes.isEmpty()) {
+            return translations;
+        }
+
+        EntityManager em = getEntityManager();
+        try {
+            List<String> hashes = new ArrayList<>(textHashes);
+            for (int from = 0; from < hashes.size(); from += getBatchSize()) {
+                List<String> chunk = hashes.subList(from, Math.min(from + getBatchSize(), hashes.size()));
+                List<Object[]> rows = em.createQuery(
+                                "SELECT e.textHash, e.translatedText FROM TranslationMemoryEntry e " +
+                                        "WHERE e.textHash IN :hashes", Object[].class)
+                        .setParameter("hashes", chunk)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    translations.put((String) row[0], (String) row[1]);
+                }
+            }
+            return translations;
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<TranslationMemoryEntry> findMostRecent(int limit) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery("SELECT e FROM TranslationMemoryEntry e ORDER BY e.createdAt DESC",
+                            TranslationMemoryEntry.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Upserts on the hash, so two clients storing the same text at once don't collide
+    public void saveEntries(Collection<TranslationMemoryEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (TranslationMemoryEntry entry : entries) {
+            rows.add(new Object[]{entry.getTextHash(), entry.getSourceLanguage(), entry.getTargetLanguage(),
+                    entry.getTranslatedText(), entry.getCreatedAt()});
+        }
+
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            UPSERT.execute(em, rows, getBatchSize());
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
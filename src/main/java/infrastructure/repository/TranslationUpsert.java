@@ -0,0 +1,174 @@
+package infrastructure.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes translation rows with one multi-row upsert statement per chunk, keyed on the
+ * table's unique columns, e.g. (entity id, language_code). MariaDB gets
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE}; H2, which the tests run on, gets the
+ * equivalent {@code MERGE INTO ... KEY (...)}.
+ */
+final class TranslationUpsert {
+    private static final Logger logger = LoggerFactory.getLogger(TranslationUpsert.class);
+    private static final String TEMPORARY_ID = "dedup_id";
+
+    private final String table;
+    private final List<String> keyColumns;
+    private final List<String> valueColumns;
+
+    TranslationUpsert(String table, List<String> keyColumns, List<String> valueColumns) {
+        this.table = table;
+        this.keyColumns = keyColumns;
+        this.valueColumns = valueColumns;
+    }
+
+    // Each row holds the key columns followed by the value columns
+    int execute(EntityManager em, List<Object[]> rows, int chunkSize) {
+        boolean h2 = isH2(em);
+        int written = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            Query query = em.createNativeQuery(h2 ? mergeSql(chunk.size()) : insertSql(chunk.size()));
+            int position = 1;
+            for (Object[] row : chunk) {
+                for (Object value : row) {
+                    query.setParameter(position++, value);
+                }
+            }
+            written += query.executeUpdate();
+        }
+        return written;
+    }
+
+    /**
+     * Adds the unique key on the key columns to a table created before it had one. The old
+     * select-then-insert save path could write the same key twice, so duplicate rows are
+     * deleted first, keeping the newest. Failures are rethrown so startup stops: without the
+     * key the upserts would silently insert a new row on every save.
+     */
+    void ensureUniqueKey(EntityManager em, String indexName) {
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            if (!isH2(em) && !hasIndex(em, indexName)) {
+                int deleted = deleteDuplicates(em);
+                if (deleted > 0) {
+                    logger.info("Deleted {} duplicate rows from {} before adding its unique key", deleted, table);
+                }
+            }
+            em.createNativeQuery("CREATE UNIQUE INDEX IF NOT EXISTS " + indexName + " ON " + table
+                            + " (" + String.join(", ", keyColumns) + ")")
+                    .executeUpdate();
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Could not add unique key {} to {}", indexName, table, e);
+            throw e;
+        }
+    }
+
+    // Column type for long translated text: TEXT on MariaDB; H2 would read TEXT back as a
+    // CLOB rather than a String, so it gets its longest VARCHAR
+    static String longTextType(EntityManager em) {
+        return isH2(em) ? "VARCHAR(1000000)" : "TEXT";
+    }
+
+    // Widens a column a table created by an older version declared as VARCHAR
+    void widenToText(EntityManager em, String column) {
+        if (isH2(em)) {
+            return;
+        }
+        List<?> types = em.createNativeQuery("SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND COLUMN_NAME = :column")
+                .setParameter("table", table)
+                .setParameter("column", column)
+                .getResultList();
+        if (!types.isEmpty() && "varchar".equalsIgnoreCase(types.get(0).toString())) {
+            em.createNativeQuery("ALTER TABLE " + table + " MODIFY " + column + " TEXT").executeUpdate();
+        }
+    }
+
+    private boolean hasIndex(EntityManager em, String indexName) {
+        Number count = (Number) em.createNativeQuery("SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND INDEX_NAME = :index")
+                .setParameter("table", table)
+                .setParameter("index", indexName)
+                .getSingleResult();
+        return count.intValue() > 0;
+    }
+
+    // Keeps the row with the highest id of each key. Tables without an id column get a
+    // temporary one; InnoDB numbers the existing rows in insertion order, so the highest is
+    // still the newest
+    private int deleteDuplicates(EntityManager em) {
+        String idColumn = autoIncrementColumn(em);
+        // A temporary id left behind by a failed earlier run is reused and dropped this time
+        boolean temporaryId = idColumn == null || idColumn.equals(TEMPORARY_ID);
+        if (idColumn == null) {
+            idColumn = TEMPORARY_ID;
+            em.createNativeQuery("ALTER TABLE " + table + " ADD COLUMN " + idColumn
+                            + " BIGINT NOT NULL AUTO_INCREMENT UNIQUE")
+                    .executeUpdate();
+        }
+        String keys = String.join(", ", keyColumns);
+        String sameKey = keyColumns.stream()
+                .map(column -> "duplicate." + column + " = kept." + column)
+                .collect(Collectors.joining(" AND "));
+        int deleted = em.createNativeQuery("DELETE duplicate FROM " + table + " duplicate JOIN (SELECT " + keys
+                        + ", MAX(" + idColumn + ") AS kept_id FROM " + table + " GROUP BY " + keys
+                        + " HAVING COUNT(*) > 1) kept ON " + sameKey + " AND duplicate." + idColumn + " <> kept.kept_id")
+                .executeUpdate();
+        if (temporaryId) {
+            em.createNativeQuery("ALTER TABLE " + table + " DROP COLUMN " + idColumn).executeUpdate();
+        }
+        return deleted;
+    }
+
+    private String autoIncrementColumn(EntityManager em) {
+        List<?> columns = em.createNativeQuery("SELECT COLUMN_NAME FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :table AND EXTRA LIKE '%auto_increment%'")
+                .setParameter("table", table)
+                .getResultList();
+        return columns.isEmpty() ? null : columns.get(0).toString();
+    }
+
+    private String insertSql(int rowCount) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(columnList()).append(") VALUES ").append(valueRows(rowCount))
+                .append(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < valueColumns.size(); i++) {
+            String column = valueColumns.get(i);
+            sql.append(i == 0 ? "" : ", ").append(column).append(" = VALUES(").append(column).append(")");
+        }
+        return sql.toString();
+    }
+
+    private String mergeSql(int rowCount) {
+        return "MERGE INTO " + table + " (" + columnList() + ") KEY (" + String.join(", ", keyColumns) + ") VALUES "
+                + valueRows(rowCount);
+    }
+
+    private String columnList() {
+        return String.join(", ", keyColumns) + ", " + String.join(", ", valueColumns);
+    }
+
+    private String valueRows(int rowCount) {
+        String row = "(" + String.join(", ", Collections.nCopies(keyColumns.size() + valueColumns.size(), "?")) + ")";
+        return String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    private static boolean isH2(EntityManager em) {
+        Object dialect = em.getEntityManagerFactory().getProperties().get("hibernate.dialect");
+        return dialect != null && dialect.toString().contains("H2");
+    }
+}
@@ -0,0 +1,158 @@
+package infrastructure.repository;
+
+import infrastructure.config.DatabaseConnection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Thread-bound unit of work. While a unit of work is open, every repository
+ * created with the same EntityManagerFactory shares one EntityManager (and so one
+ * connection and one first-level cache) instead of opening a new one per call.
+ * Repositories fall back to their per-call EntityManager when no unit of work is open.
+ * <p>
+ * Repository writes inside a unit of work still commit on their own unless an outer
+ * transaction is already active, in which case they join it. Committing flushes every
+ * dirty entity loaded through the shared EntityManager.
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    private record Scope(EntityManagerFactory emf, EntityManager em) {}
+
+    private UnitOfWork() {}
+
+    public static void run(Consumer<EntityManager> work) {
+        run(DatabaseConnection.getEntityManagerFactory(), work);
+    }
+
+    public static void run(EntityManagerFactory emf, Consumer<EntityManager> work) {
+        call(emf, em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    public static <R> R call(Function<EntityManager, R> work) {
+        return call(DatabaseConnection.getEntityManagerFactory(), work);
+    }
+
+    public static <R> R call(EntityManagerFactory emf, Function<EntityManager, R> work) {
+        Scope open = current.get();
+        if (open != null) {
+            if (open.emf() != emf) {
+                throw new IllegalStateException("A unit of work for another persistence unit is already open");
+            }
+            return work.apply(scoped(open.em()));
+        }
+
+        EntityManager em = emf.createEntityManager();
+        current.set(new Scope(emf, em));
+        try {
+            return work.apply(scoped(em));
+        } finally {
+            current.remove();
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    public static boolean isOpen() {
+        return current.get() != null;
+    }
+
+    /**
+     * Returns a view of the open unit of work's EntityManager for the given factory,
+     * or null when none is open on this thread.
+     */
+    static EntityManager join(EntityManagerFactory emf) {
+        Scope open = current.get();
+        if (open == null || open.emf() != emf) {
+            return null;
+        }
+        return scoped(open.em());
+    }
+
+    // close() is a no-op on the view so repositories can keep their try/finally blocks
+    private static EntityManager scoped(EntityManager delegate) {
+        EntityTransaction transaction = new JoinedTransaction(delegate.getTransaction());
+        return (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "getTransaction":
+                            return transaction;
+                        default:
+                            try {
+                                return method.invoke(delegate, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    /**
+     * Begins and commits the underlying transaction only if it was not already active,
+     * otherwise takes part in the outer one and marks it rollback-only on failure.
+     */
+    private static final class JoinedTransaction implements EntityTransaction {
+        private final EntityTransaction delegate;
+        private boolean owner;
+
+        private JoinedTransaction(EntityTransaction delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void begin() {
+            if (!delegate.isActive()) {
+                delegate.begin();
+                owner = true;
+            }
+        }
+
+        @Override
+        public void commit() {
+            if (owner) {
+                owner = false;
+                delegate.commit();
+            }
+        }
+
+        @Override
+        public void rollback() {
+            if (owner) {
+                owner = false;
+                delegate.rollback();
+            } else if (delegate.isActive()) {
+                delegate.setRollbackOnly();
+            }
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            delegate.setRollbackOnly();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return delegate.getRollbackOnly();
+        }
+
+        @Override
+        public boolean isActive() {
+            return delegate.isActive();
+        }
+    }
+}
@@ -134,16 +134,17 @@ public class UserRepository extends BaseRepository<User> {
         }
     }
 
+    // Everything the user owns goes in one transaction with a fixed number of set-based deletes
     public void deleteUser(User user) {
         EntityManager em = getEntityManager();
         try {
             em.getTransaction().begin();
 
-            new StudyMaterialRepository().deleteByUser(user);
-            new CategoryRepository().deleteByUser(user);
-            new ReviewRepository().deleteByUser(user);
-            new RatingRepository().deleteByUser(user);
-            new TagRepository().deleteByUser(user);
+            CascadeDelete.materialsUploadedBy(em, user.getUserId());
+            CascadeDelete.coursesCreatedBy(em, user.getUserId());
+            CascadeDelete.reviewsWrittenBy(em, user.getUserId());
+            CascadeDelete.ratingsGivenBy(em, user.getUserId());
+            CascadeDelete.tagsCreatedBy(em, user.getUserId());
 
             User managedUser = em.find(User.class, user.getUserId());
             if (managedUser != null) {
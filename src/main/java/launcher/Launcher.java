@@ -1,5 +1,7 @@
 package launcher;
 
+import domain.service.SearchIndex;
+import domain.service.TranslationMemory;
 import infrastructure.config.DatabaseInitializer;
 import presentation.view.StudyShelfApplication;
 
@@ -7,6 +9,12 @@ public class Launcher {
     public static void main(String[] args) {
         DatabaseInitializer dbInit = new DatabaseInitializer();
         dbInit.initializeRolesAndPermissions();
+        dbInit.alignMaterialIdSequence();
+        dbInit.migratePreviewImages();
+        dbInit.backfillRatingTotals();
+        dbInit.ensureTranslationTables();
+        TranslationMemory.getInstance().preWarm(1000);
+        SearchIndex.getInstance().buildInBackground();
         StudyShelfApplication.launch(StudyShelfApplication.class);
     }
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package presentation.components;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
 import domain.model.StudyMaterial;
 import domain.model.Tag;
 import domain.model.User;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -17,6 +21,7 @@ import javafx.scene.shape.FillRule;
 import javafx.scene.shape.SVGPath;
 import presentation.enums.ItemType;
 import presentation.utility.GUILogger;
+import presentation.utility.PageLoader;
 import presentation.utility.SVGContents;
 import presentation.utility.StyleClasses;
 import presentation.view.LanguageManager;
@@ -24,6 +29,7 @@ import presentation.view.SceneManager;
 
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Function;
 
 import static presentation.enums.ItemType.*;
 
@@ -36,6 +42,10 @@ public class ListItem {
         return layout(s.getName(), MATERIAL, String.format(rb.getString("fileUploadedByName"), s.getFileType(), s.getUploader().getFullName()), s);
     }
 
+    public static Button listItemGraphic(MaterialSummary s){
+        return layout(s.name(), MATERIAL, String.format(rb.getString("fileUploadedByName"), s.fileType(), s.uploaderName()), s);
+    }
+
     public static Button listItemGraphic(Category c) {
         return layout(c.getCategoryName(), CATEGORY, String.format(rb.getString("courseBy"), c.getCreator().getFullName()), c);
     }
@@ -73,7 +83,11 @@ public class ListItem {
             case MATERIAL:
                 svg.setContent(SVGContents.FILE);
                 color = StyleClasses.PRIMARY_LIGHT;
-                btn.setOnAction(e -> sm.setScreen((StudyMaterial) obj));
+                if (obj instanceof MaterialSummary summary) {
+                    btn.setOnAction(e -> sm.setScreen(summary));
+                } else {
+                    btn.setOnAction(e -> sm.setScreen((StudyMaterial) obj));
+                }
                 break;
             case TAG:
                 svg.setContent(SVGContents.TAG);
@@ -112,6 +126,35 @@ public class ListItem {
         return toListView(list, 200);
     }
 
+    // Shows the first page right away and fetches the next one once its last row is rendered
+    public static <T> ListView<Node> toPagedListView(Page<T> firstPage, Function<PageRequest, Page<T>> fetcher, Function<T, Node> renderer) {
+        ListView<Node> view = toListView(List.of());
+        PageLoader<T> loader = new PageLoader<>(firstPage, fetcher,
+                items -> items.forEach(item -> view.getItems().add(renderer.apply(item))));
+
+        view.setCellFactory(listView -> new ListCell<>() {
+            @Override
+            protected void updateItem(Node item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setGraphic(null);
+                } else {
+                    setGraphic(item);
+                    setPadding(new Insets(0, 0, 0, 0));
+                    int loaded = view.getItems().size();
+                    if (getIndex() == loaded - 1 && loader.hasNext()) {
+                        Platform.runLater(() -> {
+                            if (view.getItems().size() == loaded) {
+                                loader.loadNext();
+                            }
+                        });
+                    }
+                }
+            }
+        });
+        return view;
+    }
+
     public static ListView<Node> toListView(List<Node> list, int height) {
         ListView<Node> view = new ListView<>();
 
@@ -1,10 +1,10 @@
 package presentation.components;
 
-import domain.model.StudyMaterial;
-import domain.model.User;
-import domain.service.PermissionService;
-import domain.service.RatingService;
-import infrastructure.repository.RatingRepository;
+import domain.model.MaterialSummary;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
+import infrastructure.repository.PreviewRepository;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
@@ -14,6 +14,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.shape.SVGPath;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
+import presentation.utility.PageLoader;
 import presentation.utility.SVGContents;
 import presentation.utility.StyleClasses;
 import presentation.view.LanguageManager;
@@ -22,7 +23,9 @@ import presentation.view.SceneManager;
 import java.io.ByteArrayInputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.function.Function;
 
 import static javafx.scene.shape.FillRule.EVEN_ODD;
 
@@ -31,16 +34,15 @@ public class MaterialCard {
 
     private MaterialCard(){}
 
-    public static Button materialCard(StudyMaterial s) {
+    public static Button materialCard(MaterialSummary s) {
         Button materialCard = new Button();
         HBox wrapper = new HBox();
         wrapper.setSpacing(12);
         VBox contentBox = new VBox();
-        User uploader = s.getUploader();
         wrapper.setPadding(new Insets(8));
 
-        if (s.getPreviewImage() != null) {
-            ImageView preview = new ImageView(new Image(new ByteArrayInputStream(s.getPreviewImage())));
+        if (s.thumbnail() != null) {
+            ImageView preview = new ImageView(new Image(new ByteArrayInputStream(s.thumbnail())));
             preview.setFitWidth(60);
             preview.setFitHeight(80);
             preview.setPreserveRatio(false);
@@ -57,7 +59,7 @@ public class MaterialCard {
         titleArea.getChildren().add(svgPath);
 
         Label title = new Label();
-        title.setText("   " + s.getName());
+        title.setText("   " + s.name());
         title.setWrapText(true);
         title.setTextOverrun(OverrunStyle.ELLIPSIS);
 
@@ -68,11 +70,11 @@ public class MaterialCard {
         titleArea.getChildren().add(title);
         contentBox.getChildren().add(titleArea);
 
-        Text uploaderLabel = new Text(uploader.getFirstName() + " " + uploader.getLastName());
+        Text uploaderLabel = new Text(s.uploaderName());
         contentBox.getChildren().add(uploaderLabel);
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
-        String formattedTimestamp = s.getTimestamp().format(formatter);
+        String formattedTimestamp = s.timestamp().format(formatter);
 
         Text timestamp = new Text(formattedTimestamp);
         timestamp.getStyleClass().add(StyleClasses.MATERIAL_CARD_SUBTITLE);
@@ -82,9 +84,7 @@ public class MaterialCard {
         ratingBox.setPrefWidth(100);
         ratingBox.setMaxWidth(100);
         ratingBox.setMinWidth(100);
-        RatingService ratingService = new RatingService(new RatingRepository(), new PermissionService()
-        );
-        double avgRating = ratingService.getAverageRating(s);
+        double avgRating = s.averageRating();
 
         if (avgRating > 0.0) {
             HBox starContainer = Stars.getStarRow(avgRating, 0.7, 5);
@@ -94,19 +94,67 @@ public class MaterialCard {
         contentBox.getChildren().add(ratingBox);
         wrapper.getChildren().add(contentBox);
 
-        materialCard.setTooltip(new Tooltip(String.format(rb.getString("fileUploadedByName"), s.getName(), uploader.getFullName())));
+        materialCard.setTooltip(new Tooltip(String.format(rb.getString("fileUploadedByName"), s.name(), s.uploaderName())));
         materialCard.setGraphic(wrapper);
         materialCard.getStyleClass().add(StyleClasses.MATERIAL_CARD_M);
         materialCard.setOnAction(e -> SceneManager.getInstance().setScreen(s));
         return materialCard;
     }
 
-    public static ScrollPane materialCardScrollHBox(List<StudyMaterial> list) {
+    public static ScrollPane materialCardScrollHBox(List<MaterialSummary> summaries) {
         HBox materialCardHBox = new HBox();
+        List<MaterialSummary> list = prefetch(summaries);
         for (int i = list.size() - 1; i >= 0; i--) {
             materialCardHBox.getChildren().add(materialCard(list.get(i)));
         }
 
+        return toScrollPane(materialCardHBox);
+    }
+
+    // Shows the first page right away and fetches the next one when scrolled to the right edge.
+    // Pages too short to scroll are followed by the next ones until the row overflows.
+    public static ScrollPane materialCardScrollHBox(Page<MaterialSummary> firstPage, Function<PageRequest, Page<MaterialSummary>> fetcher) {
+        List<Integer> ids = firstPage.content().stream().map(MaterialSummary::materialId).toList();
+        return materialCardScrollHBox(firstPage, new PreviewRepository().findImages(ids), fetcher);
+    }
+
+    // For pages showing several rows, which fetch the previews of every first page together
+    public static ScrollPane materialCardScrollHBox(Page<MaterialSummary> firstPage, Map<Integer, byte[]> firstPagePreviews,
+                                                    Function<PageRequest, Page<MaterialSummary>> fetcher) {
+        HBox materialCardHBox = new HBox();
+        ScrollPane pane = toScrollPane(materialCardHBox);
+
+        firstPage.content().forEach(s -> materialCardHBox.getChildren().add(materialCard(s.withThumbnail(firstPagePreviews.get(s.materialId())))));
+        PageLoader<MaterialSummary> loader = new PageLoader<>(new Page<>(List.of(), firstPage.next()), fetcher,
+                materials -> prefetch(materials).forEach(s -> materialCardHBox.getChildren().add(materialCard(s))));
+        pane.hvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() >= pane.getHmax()) {
+                loader.loadNext();
+            }
+        });
+        Runnable fillViewport = () -> {
+            double viewportWidth = pane.getViewportBounds().getWidth();
+            if (viewportWidth > 0 && materialCardHBox.getWidth() <= viewportWidth && loader.hasNext()) {
+                loader.loadNext();
+            }
+        };
+        // Deferred so cards aren't added in the middle of a layout pass
+        materialCardHBox.widthProperty().addListener((obs, oldWidth, newWidth) -> Platform.runLater(fillViewport));
+        pane.viewportBoundsProperty().addListener((obs, oldBounds, newBounds) -> Platform.runLater(fillViewport));
+
+        return pane;
+    }
+
+    // Loads the previews of a whole row in one query instead of per card; the ratings come with the summaries
+    private static List<MaterialSummary> prefetch(List<MaterialSummary> summaries) {
+        List<Integer> ids = summaries.stream().map(MaterialSummary::materialId).toList();
+        Map<Integer, byte[]> previews = new PreviewRepository().findImages(ids);
+        return summaries.stream()
+                .map(s -> s.withThumbnail(previews.get(s.materialId())))
+                .toList();
+    }
+
+    private static ScrollPane toScrollPane(HBox materialCardHBox) {
         materialCardHBox.setSpacing(10);
 
         ScrollPane pane = new ScrollPane();
@@ -1,14 +1,17 @@
 package presentation.controller;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
 import domain.model.PermissionType;
 import domain.model.StudyMaterial;
 import domain.model.User;
+import domain.service.BlobStore;
 import domain.service.CategoryService;
-import domain.service.GoogleDriveService;
 import domain.service.PermissionService;
 import domain.service.StudyMaterialService;
 import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
 import infrastructure.repository.StudyMaterialRepository;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -41,11 +44,11 @@ import static javafx.scene.shape.FillRule.EVEN_ODD;
 import static presentation.enums.ScreenType.SCREEN_HOME;
 
 public class CategoryPageController implements PageController {
+    private static final int MATERIALS_PER_PAGE = 10;
+
     private final Category category;
 
     private List<StudyMaterial> pendingMaterials;
-    private List<StudyMaterial> ownerMaterials;
-    private List<StudyMaterial> otherMaterials;
 
     private final VBox pendingContainer;
     private final Text pendingMaterialLabel;
@@ -57,8 +60,6 @@ public class CategoryPageController implements PageController {
 
     public CategoryPageController(Category c) {
         this.pendingMaterials = new ArrayList<>();
-        this.ownerMaterials = new ArrayList<>();
-        this.otherMaterials = new ArrayList<>();
 
         this.pendingContainer = new VBox();
         this.pendingMaterialLabel = new Text();
@@ -73,12 +74,6 @@ public class CategoryPageController implements PageController {
     private List<StudyMaterial> getPendingMaterials() {
         return this.pendingMaterials;
     }
-    private List<StudyMaterial> getOwnerMaterials() {
-        return this.ownerMaterials;
-    }
-    private List<StudyMaterial> getOtherMaterials() {
-        return this.otherMaterials;
-    }
     private HBox getTitleLabelHBox() { return this.titleLabelHBox; }
 
     private VBox getPendingContainer() {
@@ -92,12 +87,6 @@ public class CategoryPageController implements PageController {
     private void setPendingMaterials(List<StudyMaterial> pendingMaterials) {
         this.pendingMaterials = pendingMaterials;
     }
-    private void setOwnerMaterials(List<StudyMaterial> ownerMaterials) {
-        this.ownerMaterials = ownerMaterials;
-    }
-    private void setOtherMaterials(List<StudyMaterial> otherMaterials) {
-        this.otherMaterials = otherMaterials;
-    }
 
     public void setPage(){
         getTitleLabelHBox().getChildren().clear();
@@ -203,25 +192,18 @@ public class CategoryPageController implements PageController {
         }
 
         CategoryService cServ = new CategoryService(new CategoryRepository(), new PermissionService());
-        List<StudyMaterial> approvedMaterials = cServ.getApprovedMaterialsByCategory(CurrentUserManager.get(), c);
+        Page<MaterialSummary> ownerMaterials = cServ.getCreatorMaterialsByCategory(CurrentUserManager.get(), c, PageRequest.first(MATERIALS_PER_PAGE));
 
-        setOwnerMaterials(approvedMaterials.stream()
-                .filter(sm -> sm.getUploader().getUserId() == c.getCreator().getUserId())
-                .collect(Collectors.toList()));
-
-        if (!getOwnerMaterials().isEmpty()) {
+        if (!ownerMaterials.isEmpty()) {
             Text text = new Text(String.format(rb.getString("materialsFromCourseCreator"), c.getCreator().getFullName()));
             text.getStyleClass().addAll(StyleClasses.HEADING4, StyleClasses.PRIMARY);
 
             vbox.getChildren().addAll(
                     text,
-                    MaterialCard.materialCardScrollHBox(ownerMaterials));
+                    MaterialCard.materialCardScrollHBox(ownerMaterials,
+                            request -> cServ.getCreatorMaterialsByCategory(CurrentUserManager.get(), c, request)));
         }
 
-        setOtherMaterials(approvedMaterials.stream()
-                .filter(sm -> sm.getUploader().getUserId() != c.getCreator().getUserId())
-                .collect(Collectors.toList()));
-
         updateOtherMaterials();
         vbox.getChildren().add(getOtherMaterialsContainer());
 
@@ -281,11 +263,10 @@ public class CategoryPageController implements PageController {
 
         Button approvalButton = new Button();
         approvalButton.setOnAction(e -> {
-            StudyMaterialService smServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+            StudyMaterialService smServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
             smServ.approveMaterial(CurrentUserManager.get(), s);
             getPendingContainer().getChildren().remove(base);
             pendingMaterials.remove(s);
-            otherMaterials.add(s);
             updateOtherMaterials();
             setMaterialAmountLabel();
         });
@@ -300,11 +281,10 @@ public class CategoryPageController implements PageController {
 
         Button rejectButton = new Button();
         rejectButton.setOnAction(e -> {
-            StudyMaterialService smServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+            StudyMaterialService smServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
             smServ.rejectMaterial(CurrentUserManager.get(), s);
             getPendingContainer().getChildren().remove(base);
             pendingMaterials.remove(s);
-            otherMaterials.add(s);
             setMaterialAmountLabel();
         });
 
@@ -333,13 +313,18 @@ public class CategoryPageController implements PageController {
     public void updateOtherMaterials(){
         getOtherMaterialsContainer().getChildren().clear();
 
-        if (!getOtherMaterials().isEmpty()) {
+        Category c = this.category;
+        CategoryService cServ = new CategoryService(new CategoryRepository(), new PermissionService());
+        Page<MaterialSummary> otherMaterials = cServ.getOtherMaterialsByCategory(CurrentUserManager.get(), c, PageRequest.first(MATERIALS_PER_PAGE));
+
+        if (!otherMaterials.isEmpty()) {
             Text text = new Text(rb.getString("materialsFromOthers"));
             text.getStyleClass().addAll(StyleClasses.HEADING4, StyleClasses.SECONDARY);
 
             getOtherMaterialsContainer().getChildren().addAll(
                     text,
-                    MaterialCard.materialCardScrollHBox(otherMaterials));
+                    MaterialCard.materialCardScrollHBox(otherMaterials,
+                            request -> cServ.getOtherMaterialsByCategory(CurrentUserManager.get(), c, request)));
         }
     }
 
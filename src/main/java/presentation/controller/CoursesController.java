@@ -1,8 +1,12 @@
 package presentation.controller;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
 import domain.model.StudyMaterial;
 import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.CourseOverview;
+import infrastructure.repository.Page;
+import infrastructure.repository.PreviewRepository;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
@@ -19,12 +23,15 @@ import presentation.view.SceneManager;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.ResourceBundle;
 
 import static presentation.utility.FXMLPageHandler.setUp;
 
 public class CoursesController implements PageController {
+    private static final int MATERIALS_PER_PAGE = 10;
+
     private final CategoryRepository categoryRepo = new CategoryRepository();
     private final ResourceBundle rb = LanguageManager.getInstance().getBundle();
 
@@ -46,13 +53,19 @@ public class CoursesController implements PageController {
 
     private void loadAllMaterials() {
         mainVBoxCourses.getChildren().clear();
-        List<Category> categories = categoryRepo.findAll();
-        GUILogger.info("Loading categories: " + categories.size());
-
-        if (categories.isEmpty()){
+        List<CourseOverview> courses = categoryRepo.findCourseOverview(MATERIALS_PER_PAGE);
+        GUILogger.info("Loading categories: " + courses.size());
+        // One query for the previews of every course's first page
+        Map<Integer, byte[]> previews = new PreviewRepository().findImages(courses.stream()
+                .flatMap(course -> course.materials().content().stream())
+                .map(MaterialSummary::materialId)
+                .toList());
+
+        if (courses.isEmpty()){
             mainVBoxCourses.getChildren().add(new Label(rb.getString("error.noCourses")));
         } else {
-            for (Category c : categories) {
+            for (CourseOverview course : courses) {
+                Category c = course.category();
                 VBox courseContainer = new VBox();
                 courseContainer.setSpacing(10);
 
@@ -71,12 +84,13 @@ public class CoursesController implements PageController {
 
                 courseContainer.getChildren().addAll(title, hbox);
 
-                List<StudyMaterial> materials = categoryRepo.findApprovedMaterialsByCategory(c);
-                GUILogger.info("Loading materials " + materials.size() + " for category " + c.getCategoryName());
+                Page<MaterialSummary> materials = course.materials();
+                GUILogger.info("Loading materials " + materials.content().size() + " for category " + c.getCategoryName());
                 if (materials.isEmpty()) {
                     courseContainer.getChildren().add(new Text(rb.getString("noMaterials")));
                 } else {
-                    courseContainer.getChildren().add(MaterialCard.materialCardScrollHBox(materials));
+                    courseContainer.getChildren().add(MaterialCard.materialCardScrollHBox(materials, previews,
+                            request -> categoryRepo.findApprovedSummariesByCategory(c, request)));
                 }
 
                 mainVBoxCourses.getChildren().add(courseContainer);
@@ -1,11 +1,14 @@
 package presentation.controller;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
+import domain.model.PendingCount;
 import domain.model.StudyMaterial;
 import domain.service.CategoryService;
 import domain.service.PermissionService;
 import infrastructure.repository.CategoryRepository;
 import infrastructure.repository.StudyMaterialRepository;
+import infrastructure.repository.UnitOfWork;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
@@ -58,12 +61,14 @@ public class HomeController implements PageController {
         mainVBoxHome.setSpacing(10);
 
         loadHeader();
-        if (CurrentUserManager.get().getRole().getName() != STUDENT){
-            loadPendingApprovalScreen();
-        }
-        loadLatestMaterials();
-        loadBestReviewedMaterials();
-        loadRecentlyReviewedMaterials();
+        UnitOfWork.run(em -> {
+            if (CurrentUserManager.get().getRole().getName() != STUDENT){
+                loadPendingApprovalScreen();
+            }
+            loadLatestMaterials();
+            loadBestReviewedMaterials();
+            loadRecentlyReviewedMaterials();
+        });
         loadSearchSuggestionBox();
     }
 
@@ -78,7 +83,7 @@ public class HomeController implements PageController {
     }
 
     private void loadPendingApprovalScreen() {
-        List<Category> pendingCategories = categoryServ.getOwnedCategoriesWithPending(CurrentUserManager.get());
+        List<PendingCount> pendingCategories = categoryServ.getPendingCounts(CurrentUserManager.get());
 
         if (!pendingCategories.isEmpty()){
             VBox vbox = new VBox();
@@ -86,7 +91,8 @@ public class HomeController implements PageController {
             Text title = new Text(rb.getString("pendingMaterialsInfo"));
             title.getStyleClass().addAll(StyleClasses.HEADING3, StyleClasses.PRIMARY);
 
-            for (Category category : pendingCategories){
+            for (PendingCount pending : pendingCategories){
+                Category category = pending.category();
                 Button btn = new Button();
                 HBox graphic = new HBox();
 
@@ -104,7 +110,7 @@ public class HomeController implements PageController {
                 graphic.setSpacing(8);
                 graphic.setAlignment(Pos.CENTER_LEFT);
 
-                int amount = cRepository.findPendingMaterialsByCategory(category).size();
+                long amount = pending.pendingCount();
                 Label sub = new Label(amount > 1 ? String.format(rb.getString("pendingAmountPlural"), amount) : rb.getString("pendingAmountSingular"));
 
                 graphic.getChildren().addAll(svg, label, sub);
@@ -120,7 +126,7 @@ public class HomeController implements PageController {
     }
 
     private void loadLatestMaterials() {
-        List<StudyMaterial> list = smRepository.findLatestWithLimit(10);
+        List<MaterialSummary> list = smRepository.findLatestSummaries(10);
         if (!list.isEmpty()) {
             VBox vbox = new VBox();
 
@@ -135,7 +141,7 @@ public class HomeController implements PageController {
     }
 
     private void loadBestReviewedMaterials() {
-        List<StudyMaterial> list = smRepository.findBestReviewedMaterials(10);
+        List<MaterialSummary> list = smRepository.findBestReviewedSummaries(10);
         if (!list.isEmpty()) {
             VBox vbox = new VBox();
 
@@ -150,7 +156,7 @@ public class HomeController implements PageController {
     }
 
     private void loadRecentlyReviewedMaterials() {
-        List<StudyMaterial> list = smRepository.findReviewedMaterialsByUserLatest10(CurrentUserManager.get());
+        List<MaterialSummary> list = smRepository.findReviewedSummariesByUserLatest10(CurrentUserManager.get());
         if (!list.isEmpty()) {
             VBox vbox = new VBox();
 
@@ -145,7 +145,7 @@ public class MyProfileController implements PageController {
         heading.getStyleClass().addAll(StyleClasses.HEADING3, StyleClasses.PRIMARY_LIGHT);
 
         User user = CurrentUserManager.get();
-        StudyMaterialService smServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+        StudyMaterialService smServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
         List<StudyMaterial> materials = smServ.findByUser(user);
 
         getMaterialContainer().getChildren().clear();
@@ -1,9 +1,12 @@
 package presentation.controller;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
 import domain.model.StudyMaterial;
 import domain.model.User;
 import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
 import infrastructure.repository.StudyMaterialRepository;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
@@ -65,16 +68,13 @@ public class ProfilePageController implements PageController {
         }
 
         StudyMaterialRepository sRepo = new StudyMaterialRepository();
-        List<StudyMaterial> userMaterials = sRepo.findByUser(u);
+        Page<MaterialSummary> userMaterials = sRepo.findSummariesByUser(u, PageRequest.first());
 
         if (!userMaterials.isEmpty()) {
             Label mTitle = new Label(rb.getString("materials"));
             mTitle.getStyleClass().addAll(StyleClasses.PRIMARY_LIGHT, StyleClasses.LABEL4);
 
-            List<Node> buttonList = new ArrayList<>();
-
-            userMaterials.forEach(m -> buttonList.add(listItemGraphic(m)));
-            ListView<Node> mView = ListItem.toListView(buttonList);
+            ListView<Node> mView = ListItem.toPagedListView(userMaterials, request -> sRepo.findSummariesByUser(u, request), ListItem::listItemGraphic);
 
             base.getChildren().addAll(mTitle, mView);
         }
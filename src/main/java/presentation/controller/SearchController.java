@@ -1,17 +1,21 @@
 package presentation.controller;
 
-import domain.model.Category;
+import domain.model.SearchResult;
 import domain.model.StudyMaterial;
-import domain.model.Tag;
 import domain.service.SearchService;
 import infrastructure.repository.CategoryRepository;
 import infrastructure.repository.StudyMaterialRepository;
 import infrastructure.repository.TagRepository;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import presentation.components.ListItem;
 import presentation.view.LanguageManager;
 import presentation.view.SceneManager;
@@ -20,10 +24,25 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static presentation.utility.FXMLPageHandler.setUp;
 
 public class SearchController implements PageController{
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+    // How long typing has to pause before the query runs
+    private static final Duration DEBOUNCE = Duration.millis(250);
+
+    // One thread is enough: a new query cancels the one before it
+    private static final class ExecutorHolder {
+        private static final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     private final SearchService searchService = new SearchService(
             new StudyMaterialRepository(),
@@ -41,9 +60,15 @@ public class SearchController implements PageController{
     
     @FXML private ListView<Button> resultsListView;
     @FXML private Text resultsDisplayLabel;
+    @FXML private Hyperlink didYouMeanLink;
 
     ResourceBundle rb = LanguageManager.getInstance().getBundle();
 
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE);
+    // Only touched on the FX thread; a result is applied only if no newer query was started
+    private Future<?> inFlight;
+    private long generation;
+
     public void setPage(){
         setUp("/fxml/search.fxml");
     }
@@ -64,11 +89,16 @@ public class SearchController implements PageController{
         searchButton.setOnAction(e -> performSearch());
         searchButton.setText(rb.getString("search"));
 
+        debounce.setOnFinished(e -> performSearch());
+        searchField.textProperty().addListener((obs, oldText, newText) -> debounce.playFromStart());
         searchField.setOnKeyPressed(e -> {
             if (e.getCode() == KeyCode.ENTER) {
                 performSearch();
             }
         });
+        checkboxIncludeMaterials.selectedProperty().addListener((obs, was, is) -> performSearch());
+        checkboxIncludeCategories.selectedProperty().addListener((obs, was, is) -> performSearch());
+        checkboxIncludeTags.selectedProperty().addListener((obs, was, is) -> performSearch());
 
         resultsListView.setCellFactory(lv -> new ListCell<>() {
             @Override
@@ -84,30 +114,63 @@ public class SearchController implements PageController{
         });
     }
 
+    /**
+     * Runs the query in the search field on the search thread, cancelling any query still
+     * running, and shows the results in one update once they arrive. Results of a query
+     * that has since been replaced are dropped.
+     */
     @FXML private void performSearch() {
-        String query = searchField.getText();
-        if (!query.isEmpty()) {
+        debounce.stop();
+        if (inFlight != null) {
+            inFlight.cancel(true);
+        }
+        long current = ++generation;
+
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            inFlight = null;
             resultsListView.getItems().clear();
+            resultsDisplayLabel.setText("");
+            showSuggestion(null);
+            return;
+        }
 
-            if (checkboxIncludeMaterials.isSelected()) {
-                List<StudyMaterial> materialResults = searchService.searchMaterials(query);
-                materialResults.forEach(material -> resultsListView.getItems().add(ListItem.listItemGraphic(material)));
+        boolean materials = checkboxIncludeMaterials.isSelected();
+        boolean categories = checkboxIncludeCategories.isSelected();
+        boolean tags = checkboxIncludeTags.isSelected();
+        inFlight = ExecutorHolder.executor.submit(() -> {
+            try {
+                List<SearchResult> results = searchService.search(query, materials, categories, tags, SearchService.DEFAULT_LIMIT);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                String suggestion = searchService.suggest(query);
+                Platform.runLater(() -> {
+                    if (current == generation) {
+                        showResults(query, results, suggestion);
+                    }
+                });
+            } catch (Exception e) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    logger.error("Search for '{}' failed", query, e);
+                    Platform.runLater(() -> {
+                        if (current == generation) {
+                            showResults(query, List.of(), null);
+                        }
+                    });
+                }
             }
+        });
+    }
 
-            if (checkboxIncludeCategories.isSelected()) {
-                List<Category> categoryResults = searchService.searchCategories(query);
-                categoryResults.forEach(category ->
-                        resultsListView.getItems().add(ListItem.listItemGraphic(category))
-                );
-            }
+    private void showResults(String query, List<SearchResult> results, String suggestion) {
+        resultsListView.getItems().setAll(results.stream().map(result -> switch (result.kind()) {
+            case MATERIAL -> ListItem.listItemGraphic(result.material());
+            case CATEGORY -> ListItem.listItemGraphic(result.category());
+            case TAG -> ListItem.listItemGraphic(result.tag());
+        }).toList());
 
-            if (checkboxIncludeTags.isSelected()) {
-                List<Tag> tagResults = searchService.searchTags(query);
-                tagResults.forEach(tag ->
-                        resultsListView.getItems().add(ListItem.listItemGraphic(tag))
-                );
-            }
-        }
+        showSuggestion(suggestion);
 
         if (resultsListView.getItems().isEmpty()){
             resultsDisplayLabel.setText(String.format(rb.getString("noResults"), query));
@@ -116,4 +179,16 @@ public class SearchController implements PageController{
             resultsDisplayLabel.setText(amount == 1 ? rb.getString("oneResult") : String.format(rb.getString("results"), amount));
         }
     }
+
+    private void showSuggestion(String suggestion) {
+        didYouMeanLink.setVisible(suggestion != null);
+        didYouMeanLink.setManaged(suggestion != null);
+        if (suggestion != null) {
+            didYouMeanLink.setText(String.format(rb.getString("didYouMean"), suggestion));
+            didYouMeanLink.setOnAction(e -> {
+                searchField.setText(suggestion);
+                performSearch();
+            });
+        }
+    }
 }
@@ -2,10 +2,12 @@ package presentation.controller;
 
 import domain.model.*;
 import domain.service.*;
+import infrastructure.repository.PreviewRepository;
 import infrastructure.repository.RatingRepository;
 import infrastructure.repository.ReviewRepository;
 import infrastructure.repository.StudyMaterialRepository;
-import infrastructure.repository.StudyMaterialTranslationRepository;
+import infrastructure.repository.UnitOfWork;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.concurrent.Task;
@@ -52,7 +54,6 @@ public class StudyMaterialPageController implements PageController {
     private final VBox pendingStatusVBox;
 
     private final StudyMaterial material;
-    private final StudyMaterialTranslationRepository translationRepository = new StudyMaterialTranslationRepository();
 
     private List<Review> reviewList;
     private List<Rating> ratingList;
@@ -63,7 +64,7 @@ public class StudyMaterialPageController implements PageController {
 
     private final RatingService ratingServ = new RatingService(new RatingRepository(), new PermissionService());
     private final ReviewService reviewSer = new ReviewService(new ReviewRepository(), new PermissionService());
-    private final StudyMaterialService materialServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+    private final StudyMaterialService materialServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
 
     private final BooleanProperty isTranslated;
 
@@ -122,11 +123,13 @@ public class StudyMaterialPageController implements PageController {
     }
 
     private void refresh() {
-        ReviewRepository reviewRepo = new ReviewRepository();
-        this.reviewList = reviewRepo.findByStudyMaterial(material);
-        RatingRepository ratingRepo = new RatingRepository();
-        this.ratingList = ratingRepo.findByMaterial(material);
-        this.avgRating = ratingServ.getAverageRating(getMaterial());
+        UnitOfWork.run(em -> {
+            ReviewRepository reviewRepo = new ReviewRepository();
+            this.reviewList = reviewRepo.findByStudyMaterial(material);
+            RatingRepository ratingRepo = new RatingRepository();
+            this.ratingList = ratingRepo.findByMaterial(material);
+            this.avgRating = ratingServ.getAverageRating(getMaterial());
+        });
     }
 
     private StudyMaterial getMaterial() {
@@ -229,7 +232,7 @@ public class StudyMaterialPageController implements PageController {
 
                     Button approvalButton = new Button();
                     approvalButton.setOnAction(e -> {
-                        StudyMaterialService smServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+                        StudyMaterialService smServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
                         smServ.approveMaterial(CurrentUserManager.get(), sm);
                         setUpApprovalStatus();
                     });
@@ -250,7 +253,7 @@ public class StudyMaterialPageController implements PageController {
 
                     Button rejectButton = new Button();
                     rejectButton.setOnAction(e -> {
-                        StudyMaterialService smServ = new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService());
+                        StudyMaterialService smServ = new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService());
                         smServ.rejectMaterial(CurrentUserManager.get(), sm);
                         setUpApprovalStatus();
                     });
@@ -286,14 +289,22 @@ public class StudyMaterialPageController implements PageController {
         StudyMaterial s = getMaterial();
 
 
-        String currentLanguage = LanguageManager.getInstance().getCurrentLanguage();
-        Map<String, String> nameTranslations = translationRepository.getNameTranslations(s.getMaterialId());
-        Map<String, String> descTranslations = translationRepository.getDescriptionTranslations(s.getMaterialId());
+        Label title = new Label();
+        Text descriptionText = new Text();
 
-        String displayName = nameTranslations.containsKey(currentLanguage) && isTranslated() ?
-                nameTranslations.get(currentLanguage) : s.getName();
-        String displayDescription = descTranslations.containsKey(currentLanguage) && isTranslated() ?
-                descTranslations.get(currentLanguage) : s.getDescription();
+        // A translation made on first read fills in the page when it arrives
+        String currentLanguage = LanguageManager.getInstance().getCurrentLanguage();
+        MaterialTranslation translation = isTranslated()
+                ? materialServ.getTranslation(s, currentLanguage, late -> Platform.runLater(() -> {
+                    if (isTranslated()) {
+                        title.setText(late.name() + " ");
+                        descriptionText.setText(late.description());
+                    }
+                }))
+                : null;
+
+        String displayName = translation != null ? translation.name() : s.getName();
+        String displayDescription = translation != null ? translation.description() : s.getDescription();
 
         VBox base = new VBox();
         base.getStylesheets().add(Objects.requireNonNull(StudyMaterialPageController.class.getResource("/css/style.css")).toExternalForm());
@@ -303,7 +314,7 @@ public class StudyMaterialPageController implements PageController {
 
         /* FILE TITLE */
         TextFlow fileTitleContainer = new TextFlow();
-        Label title = new Label(displayName + " ");
+        title.setText(displayName + " ");
         title.getStyleClass().addAll(StyleClasses.LABEL3, StyleClasses.PRIMARY_LIGHT);
         title.setWrapText(true);
         title.setMaxWidth(600);
@@ -371,7 +382,8 @@ public class StudyMaterialPageController implements PageController {
 
         TextFlow fileDesc = new TextFlow();
         fileDesc.getChildren().clear();
-        fileDesc.getChildren().add(new Text(displayDescription));
+        descriptionText.setText(displayDescription);
+        fileDesc.getChildren().add(descriptionText);
         fileDesc.setMaxWidth(580);
 
         if (isEditable) {
@@ -427,6 +439,9 @@ public class StudyMaterialPageController implements PageController {
         left.setSpacing(8);
 
         VBox right = new VBox();
+        if (s.getPreviewImage() == null) {
+            s.setPreviewImage(new PreviewRepository().findImage(s.getMaterialId()));
+        }
         ImageView preview = new ImageView(new Image(new ByteArrayInputStream(s.getPreviewImage())));
         preview.setFitWidth(141);
         preview.setFitHeight(188);
@@ -478,7 +493,7 @@ public class StudyMaterialPageController implements PageController {
 
                 if (saveLocation != null) {
                     StudyMaterialService materialService = new StudyMaterialService(
-                            new GoogleDriveService(),
+                            BlobStore.getDefault(),
                             new StudyMaterialRepository(),
                             new PermissionService()
                     );
@@ -668,6 +683,22 @@ public class StudyMaterialPageController implements PageController {
         FlowPane fp = new FlowPane();
         fp.setMaxWidth(700);
 
+        // Translated texts of every review on the page, looked up together. Reviews never read
+        // in this language before are translated in the background and filled in on arrival.
+        Map<Integer, String> translatedTexts = new HashMap<>();
+        Map<Integer, Text> comments = new HashMap<>();
+        translatedTexts.putAll(reviewSer.getTranslatedReviewTexts(reviews, late -> Platform.runLater(() -> {
+            translatedTexts.putAll(late);
+            if (isTranslated()) {
+                late.forEach((reviewId, text) -> {
+                    Text comment = comments.get(reviewId);
+                    if (comment != null) {
+                        comment.setText(text);
+                    }
+                });
+            }
+        })));
+
         if (!reviews.isEmpty()) {
             reviews.forEach(r -> {
                 Rating correspondingRating = ratings.stream()
@@ -678,7 +709,7 @@ public class StudyMaterialPageController implements PageController {
                 leftOverRatings.remove(correspondingRating);
 
                 if (correspondingRating != null) {
-                    fp.getChildren().add(reviewCard(correspondingRating, r));
+                    fp.getChildren().add(reviewCard(correspondingRating, r, translatedTexts, comments));
                 }
             });
         }
@@ -692,10 +723,10 @@ public class StudyMaterialPageController implements PageController {
     }
 
     private Node reviewCard(Rating rating) {
-        return reviewCard(rating, null);
+        return reviewCard(rating, null, Map.of(), new HashMap<>());
     }
 
-    private Node reviewCard(Rating rating, Review review) {
+    private Node reviewCard(Rating rating, Review review, Map<Integer, String> translatedTexts, Map<Integer, Text> comments) {
         String commentText = (review != null) ? reviewSer.getOriginalReviewText(review) : "";
 
         VBox base = new VBox();
@@ -716,8 +747,14 @@ public class StudyMaterialPageController implements PageController {
         Text comment = new Text(commentText);
         comment.setWrappingWidth(320);
 
+        if (review != null) {
+            comments.put(review.getReviewId(), comment);
+        }
+
         isTranslated.addListener((observable, oldValue, newValue) -> {
-            String updatedText = Boolean.TRUE.equals(newValue) ? reviewSer.getTranslatedReviewText(review) : reviewSer.getOriginalReviewText(review);
+            String updatedText = Boolean.TRUE.equals(newValue) && review != null
+                    ? translatedTexts.getOrDefault(review.getReviewId(), commentText)
+                    : reviewSer.getOriginalReviewText(review);
             comment.setText(updatedText);
         });
 
@@ -733,7 +770,7 @@ public class StudyMaterialPageController implements PageController {
             if (!(CurrentUserManager.get().getUserId() == s.getUploader().getUserId() || CurrentUserManager.get().hasPermission(PermissionType.DELETE_ANY_RESOURCE))) {
                 CustomAlert.show(WARNING, rb.getString("alertPermissionDenied"), rb.getString("alertPermissionDeniedMaterial"));
             }
-            new StudyMaterialService(new GoogleDriveService(), new StudyMaterialRepository(), new PermissionService()).deleteMaterial(CurrentUserManager.get(), s);
+            new StudyMaterialService(BlobStore.getDefault(), new StudyMaterialRepository(), new PermissionService()).deleteMaterial(CurrentUserManager.get(), s);
             return true;
         } else {
             return false;
@@ -1,7 +1,10 @@
 package presentation.controller;
 
+import domain.model.MaterialSummary;
 import domain.model.StudyMaterial;
 import domain.model.Tag;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
 import infrastructure.repository.StudyMaterialRepository;
 import infrastructure.repository.TagRepository;
 import javafx.geometry.Insets;
@@ -42,11 +45,9 @@ public class TaggedPageController implements PageController {
         vbox.getChildren().add(title);
 
         StudyMaterialRepository sRepo = new StudyMaterialRepository();
-        List<StudyMaterial> list = sRepo.findByTag(tag);
-        if (!list.isEmpty()){
-            List<Node> buttonList = new ArrayList<>();
-            list.forEach(sm -> buttonList.add(ListItem.listItemGraphic(sm)));
-            vbox.getChildren().add(ListItem.toListView(buttonList));
+        Page<MaterialSummary> firstPage = sRepo.findSummariesByTag(tag, PageRequest.first());
+        if (!firstPage.isEmpty()){
+            vbox.getChildren().add(ListItem.toPagedListView(firstPage, request -> sRepo.findSummariesByTag(tag, request), ListItem::listItemGraphic));
         } else {
             vbox.getChildren().add(new Text("No materials exist with this tag yet!"));
         }
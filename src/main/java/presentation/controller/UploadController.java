@@ -4,8 +4,9 @@ import domain.model.Category;
 import domain.model.StudyMaterial;
 import domain.model.Tag;
 import domain.model.User;
-import domain.service.GoogleDriveService;
+import domain.service.BlobStore;
 import domain.service.PermissionService;
+import domain.service.SearchIndex;
 import domain.service.StudyMaterialService;
 import domain.service.TagService;
 import infrastructure.repository.CategoryRepository;
@@ -36,9 +37,7 @@ import presentation.view.SceneManager;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static domain.model.PermissionType.CREATE_CATEGORY;
@@ -214,25 +213,20 @@ public class UploadController implements PageController {
 
     private void uploadMaterial(){
         try {
-            byte[] content = Files.readAllBytes(file.toPath());
-            String filename = file.getName();
             User uploader = CurrentUserManager.get();
             String name = fieldTitle.getText();
             String description = fieldDescription.getText();
             Category category = choiceCategory.getValue();
-            Set<Tag> materialTags = pendingTags.stream()
-                    .map(tagName -> tagService.createTag(tagName, uploader))
-                    .collect(Collectors.toSet());
+            Set<Tag> materialTags = tagService.createTags(pendingTags, uploader);
 
             StudyMaterialService materialService = new StudyMaterialService(
-                    new GoogleDriveService(),
+                    BlobStore.getDefault(),
                     new StudyMaterialRepository(),
                     new PermissionService()
             );
 
             StudyMaterial material = materialService.uploadMaterial(
-                    content,
-                    filename,
+                    file.toPath(),
                     uploader,
                     name,
                     description,
@@ -392,6 +386,7 @@ public class UploadController implements PageController {
             cat.setCreator(CurrentUserManager.get());
             CategoryRepository categoryRepository = new CategoryRepository();
             categoryRepository.save(cat);
+            SearchIndex.getInstance().indexCategory(cat);
             SceneManager.getInstance().setScreen(cat);
         });
 
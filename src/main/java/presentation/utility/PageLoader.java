@@ -0,0 +1,41 @@
+package presentation.utility;
+
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// PageLoader hands the next slice of a paginated list to the UI whenever a view scrolls to its end.
+public class PageLoader<T> {
+    private final Function<PageRequest, Page<T>> fetcher;
+    private final Consumer<List<T>> consumer;
+    private PageRequest next;
+    private boolean loading;
+
+    public PageLoader(Page<T> firstPage, Function<PageRequest, Page<T>> fetcher, Consumer<List<T>> consumer) {
+        this.fetcher = fetcher;
+        this.consumer = consumer;
+        this.next = firstPage.next();
+        consumer.accept(firstPage.content());
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public void loadNext() {
+        if (next == null || loading) {
+            return;
+        }
+        loading = true;
+        try {
+            Page<T> page = fetcher.apply(next);
+            next = page.next();
+            consumer.accept(page.content());
+        } finally {
+            loading = false;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package presentation.view;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
 import domain.model.StudyMaterial;
 import domain.model.Tag;
 import domain.model.User;
+import infrastructure.repository.StudyMaterialRepository;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -58,6 +60,11 @@ public class SceneManager {
         }
     }
 
+    // Summaries only carry what list views show, so load the full material before opening its page
+    public void setScreen(MaterialSummary m){
+        setScreen(new StudyMaterialRepository().findById(m.materialId()));
+    }
+
     public void setScreen(StudyMaterial m){
         if (CurrentUserManager.get() == null){
             setScreen(SCREEN_LOGIN);
@@ -0,0 +1,40 @@
+package domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialSummaryTest {
+
+    @Test
+    void accessors() {
+        LocalDateTime now = LocalDateTime.now();
+        byte[] thumbnail = {1, 2, 3};
+        MaterialSummary summary = new MaterialSummary(7, "Java Basics", "Armas Nevolainen", now, "PDF", 3.5, thumbnail);
+
+        assertEquals(7, summary.materialId());
+        assertEquals("Java Basics", summary.name());
+        assertEquals("Armas Nevolainen", summary.uploaderName());
+        assertEquals(now, summary.timestamp());
+        assertEquals("PDF", summary.fileType());
+        assertEquals(3.5, summary.averageRating());
+        assertArrayEquals(thumbnail, summary.thumbnail());
+    }
+
+    @Test
+    void withPrefetchedFields() {
+        MaterialSummary summary = new MaterialSummary(7, "Java Basics", "Armas Nevolainen", LocalDateTime.now(), "PDF");
+        assertNull(summary.thumbnail());
+        assertEquals(0.0, summary.averageRating());
+
+        byte[] thumbnail = {4, 5};
+        MaterialSummary prefetched = summary.withAverageRating(4.0).withThumbnail(thumbnail);
+
+        assertArrayEquals(thumbnail, prefetched.thumbnail());
+        assertEquals(4.0, prefetched.averageRating());
+        assertEquals(summary.materialId(), prefetched.materialId());
+        assertEquals(summary.name(), prefetched.name());
+    }
+}
@@ -2,6 +2,8 @@ package domain.service;
 
 import domain.model.*;
 import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.Page;
+import infrastructure.repository.PageRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -32,6 +34,7 @@ class CategoryServiceTest {
         permissionService = Mockito.mock(PermissionService.class);
 
         categoryService = new CategoryService(categoryRepository, permissionService);
+        CategoryService.invalidatePendingCounts();
 
         // Mock roles
         Role teacherRole = new Role(RoleType.TEACHER);
@@ -237,9 +240,7 @@ class CategoryServiceTest {
     @DisplayName("Get owned categories with pending materials")
     void testGetOwnedCategoriesWithPending() {
         // Arrange
-        List<Category> teacherCategories = List.of(testCategory);
-        when(categoryRepository.findCategoriesByUser(teacherUser)).thenReturn(teacherCategories);
-        when(categoryRepository.countPendingMaterialsByCategory(testCategory)).thenReturn(2L);
+        when(categoryRepository.findPendingCountsByCreator(teacherUser)).thenReturn(List.of(new PendingCount(testCategory, 2)));
 
         // Act
         List<Category> result = categoryService.getOwnedCategoriesWithPending(teacherUser);
@@ -248,17 +249,15 @@ class CategoryServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testCategory, result.get(0));
-        verify(categoryRepository).findCategoriesByUser(teacherUser);
-        verify(categoryRepository).countPendingMaterialsByCategory(testCategory);
+        verify(categoryRepository).findPendingCountsByCreator(teacherUser);
+        verify(categoryRepository, never()).countPendingMaterialsByCategory(any());
     }
 
     @Test
     @DisplayName("Get owned categories with no pending materials")
     void testGetOwnedCategoriesWithNoPending() {
         // Arrange
-        List<Category> teacherCategories = List.of(testCategory);
-        when(categoryRepository.findCategoriesByUser(teacherUser)).thenReturn(teacherCategories);
-        when(categoryRepository.countPendingMaterialsByCategory(testCategory)).thenReturn(0L);
+        when(categoryRepository.findPendingCountsByCreator(teacherUser)).thenReturn(List.of());
 
         // Act
         List<Category> result = categoryService.getOwnedCategoriesWithPending(teacherUser);
@@ -266,8 +265,24 @@ class CategoryServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(0, result.size());
-        verify(categoryRepository).findCategoriesByUser(teacherUser);
-        verify(categoryRepository).countPendingMaterialsByCategory(testCategory);
+        verify(categoryRepository).findPendingCountsByCreator(teacherUser);
+    }
+
+    @Test
+    @DisplayName("Pending counts are reused until invalidated")
+    void testGetPendingCountsCached() {
+        when(categoryRepository.findPendingCountsByCreator(teacherUser)).thenReturn(List.of(new PendingCount(testCategory, 3)));
+
+        List<PendingCount> first = categoryService.getPendingCounts(teacherUser);
+        List<PendingCount> second = new CategoryService(categoryRepository, permissionService).getPendingCounts(teacherUser);
+
+        assertEquals(3, first.get(0).pendingCount());
+        assertEquals(first, second);
+        verify(categoryRepository, times(1)).findPendingCountsByCreator(teacherUser);
+
+        CategoryService.invalidatePendingCounts();
+        categoryService.getPendingCounts(teacherUser);
+        verify(categoryRepository, times(2)).findPendingCountsByCreator(teacherUser);
     }
 
     @Test
@@ -356,6 +371,24 @@ class CategoryServiceTest {
         verify(categoryRepository).findApprovedMaterialsByCategory(testCategory);
     }
 
+    @Test
+    @DisplayName("Get approved materials by category one page at a time")
+    void testGetApprovedMaterialsByCategoryPaged() {
+        // Arrange
+        PageRequest request = PageRequest.first(10);
+        Page<StudyMaterial> page = new Page<>(List.of(new StudyMaterial()), null);
+
+        when(categoryRepository.findApprovedMaterialsByCategory(testCategory, request)).thenReturn(page);
+
+        // Act
+        Page<StudyMaterial> result = categoryService.getApprovedMaterialsByCategory(teacherUser, testCategory, request);
+
+        // Assert
+        assertSame(page, result);
+        assertFalse(result.hasNext());
+        verify(categoryRepository).findApprovedMaterialsByCategory(testCategory, request);
+    }
+
 
 
 
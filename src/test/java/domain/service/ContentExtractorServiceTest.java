@@ -0,0 +1,132 @@
+package domain.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentExtractorServiceTest {
+
+    private ContentExtractorService extractor;
+
+    @BeforeEach
+    void setUp() {
+        extractor = new ContentExtractorService();
+    }
+
+    private String extract(byte[] content, String fileType) throws IOException {
+        return extractor.extractText(new ByteArrayInputStream(content), fileType);
+    }
+
+    @Test
+    void extractsPdfTextFromEveryPage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            for (String line : new String[]{"Gaussian elimination", "Eigenvalues"}) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream stream = new PDPageContentStream(document, page)) {
+                    stream.beginText();
+                    stream.setFont(PDType1Font.HELVETICA, 12);
+                    stream.newLineAtOffset(50, 700);
+                    stream.showText(line);
+                    stream.endText();
+                }
+            }
+            document.save(out);
+        }
+
+        String text = extract(out.toByteArray(), "application/pdf");
+
+        assertEquals("Gaussian elimination Eigenvalues", text);
+    }
+
+    @Test
+    void extractsWordParagraphs() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XWPFDocument document = new XWPFDocument()) {
+            document.createParagraph().createRun().setText("Normal forms");
+            document.createParagraph().createRun().setText("Functional dependencies");
+            document.write(out);
+        }
+
+        String text = extract(out.toByteArray(), "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+
+        assertEquals("Normal forms Functional dependencies", text);
+    }
+
+    @Test
+    void extractsSlideText() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XMLSlideShow slideShow = new XMLSlideShow()) {
+            XSLFTextBox box = slideShow.createSlide().createTextBox();
+            box.setText("Binary search trees");
+            slideShow.write(out);
+        }
+
+        String text = extract(out.toByteArray(), "application/vnd.openxmlformats-officedocument.presentationml.presentation");
+
+        assertEquals("Binary search trees", text);
+    }
+
+    @Test
+    void extractsSpreadsheetStrings() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            XSSFSheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("Exam schedule");
+            sheet.createRow(1).createCell(0).setCellValue("Room");
+            sheet.getRow(1).createCell(1).setCellValue(42);
+            workbook.write(out);
+        }
+
+        String text = extract(out.toByteArray(), "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        assertEquals("Exam schedule Room", text);
+    }
+
+    @Test
+    void extractsPlainTextWithWhitespaceCollapsed() throws IOException {
+        byte[] content = "  Sorting\n\n\talgorithms  compared \r\n".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("Sorting algorithms compared", extract(content, "text/plain"));
+    }
+
+    @Test
+    void unsupportedTypesYieldNoText() throws IOException {
+        byte[] content = "not a picture".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("", extract(content, "image/png"));
+        assertEquals("", extract(content, null));
+    }
+
+    @Test
+    void damagedOfficeFileYieldsNoText() throws IOException {
+        byte[] content = "not a zip".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("", extract(content, "application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
+    }
+
+    @Test
+    void textIsCutAtTheLimit() {
+        ContentExtractorService.TextBuffer buffer = new ContentExtractorService.TextBuffer(8);
+        buffer.append("one two three");
+
+        assertTrue(buffer.isFull());
+        assertEquals("one two ", buffer.toString());
+    }
+}
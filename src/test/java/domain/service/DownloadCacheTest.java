@@ -0,0 +1,179 @@
+package domain.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloadCacheTest {
+
+    @TempDir
+    Path root;
+
+    private CountingStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CountingStore();
+    }
+
+    private static byte[] download(DownloadCache cache, BlobStore store, String link) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!cache.serve(link, out, (bytes, size) -> {})) {
+            cache.fetch(store, link, out, store.getFileSize(link), bytes -> {});
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void secondDownloadIsServedFromDisk() throws IOException {
+        DownloadCache cache = new DownloadCache(root, 1024);
+        store.files.put("https://drive.google.com/file/d/a/view", "Lecture 1".getBytes());
+
+        byte[] first = download(cache, store, "https://drive.google.com/file/d/a/view");
+        byte[] second = download(cache, store, "https://drive.google.com/file/d/a/view");
+
+        assertArrayEquals("Lecture 1".getBytes(), first);
+        assertArrayEquals(first, second);
+        assertEquals(1, store.downloads);
+        assertEquals(1, store.sizeRequests);
+        assertEquals(0.5, cache.getHitRatio());
+        assertEquals(first.length, cache.getBytesSaved());
+    }
+
+    @Test
+    void leastRecentlyUsedFileIsEvicted() throws IOException {
+        DownloadCache cache = new DownloadCache(root, 25);
+        store.files.put("a", "0123456789".getBytes());
+        store.files.put("b", "abcdefghij".getBytes());
+        store.files.put("c", "ABCDEFGHIJ".getBytes());
+
+        download(cache, store, "a");
+        download(cache, store, "b");
+        download(cache, store, "a");
+        download(cache, store, "c");
+        int before = store.downloads;
+        download(cache, store, "a");
+        download(cache, store, "b");
+
+        assertEquals(before + 1, store.downloads);
+        assertTrue(cache.getSizeBytes() <= 25);
+    }
+
+    @Test
+    void evictedFilesTakeTheirLinksAlong() throws IOException {
+        DownloadCache cache = new DownloadCache(root, 15);
+        store.files.put("a", "0123456789".getBytes());
+        store.files.put("b", "abcdefghij".getBytes());
+
+        download(cache, store, "a");
+        download(cache, store, "b");
+
+        try (Stream<Path> links = Files.list(root.resolve("links"))) {
+            assertEquals(1, links.count());
+        }
+    }
+
+    @Test
+    void linksToMissingFilesArePrunedOnLoad() throws IOException {
+        store.files.put("a", "Kept".getBytes());
+        download(new DownloadCache(root, 1024), store, "a");
+        try (Stream<Path> files = Files.walk(root.resolve("objects"))) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.delete(file);
+            }
+        }
+
+        assertEquals(0, new DownloadCache(root, 1024).getSizeBytes());
+        try (Stream<Path> links = Files.list(root.resolve("links"))) {
+            assertEquals(0, links.count());
+        }
+    }
+
+    @Test
+    void filesLargerThanCacheAreNotKept() throws IOException {
+        DownloadCache cache = new DownloadCache(root, 4);
+        store.files.put("big", "too large".getBytes());
+
+        assertArrayEquals("too large".getBytes(), download(cache, store, "big"));
+        download(cache, store, "big");
+
+        assertEquals(2, store.downloads);
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    void corruptedFileIsDownloadedAgain() throws IOException {
+        store.files.put("a", "Original".getBytes());
+        download(new DownloadCache(root, 1024), store, "a");
+        try (Stream<Path> files = Files.walk(root.resolve("objects"))) {
+            Path cached = files.filter(Files::isRegularFile).findFirst().orElseThrow();
+            Files.writeString(cached, "Tampered");
+        }
+
+        DownloadCache restarted = new DownloadCache(root, 1024);
+        byte[] content = download(restarted, store, "a");
+
+        assertArrayEquals("Original".getBytes(), content);
+        assertEquals(2, store.downloads);
+        assertArrayEquals("Original".getBytes(), download(restarted, store, "a"));
+        assertEquals(2, store.downloads);
+    }
+
+    @Test
+    void cacheSurvivesRestart() throws IOException {
+        store.files.put("a", "Kept".getBytes());
+        download(new DownloadCache(root, 1024), store, "a");
+
+        DownloadCache restarted = new DownloadCache(root, 1024);
+
+        assertArrayEquals("Kept".getBytes(), download(restarted, store, "a"));
+        assertEquals(1, store.downloads);
+        assertEquals(4, restarted.getSizeBytes());
+    }
+
+    private static final class CountingStore implements BlobStore {
+        private final Map<String, byte[]> files = new HashMap<>();
+        private int downloads;
+        private int sizeRequests;
+
+        @Override
+        public String uploadFile(byte[] content, String filename, String contentType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String uploadFile(Path source, String filename, String contentType, String sha256) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void downloadFile(String link, OutputStream outputStream, Consumer<Long> progressCallback) throws IOException {
+            downloads++;
+            outputStream.write(files.get(link));
+            progressCallback.accept((long) files.get(link).length);
+        }
+
+        @Override
+        public long getFileSize(String link) {
+            sizeRequests++;
+            return files.get(link).length;
+        }
+
+        @Override
+        public boolean owns(String link) {
+            return files.containsKey(link);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileFingerprintTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void hashesWholeFileInOneRead() throws IOException, NoSuchAlgorithmException {
+        byte[] content = new byte[200 * 1024 + 17];
+        new Random(3).nextBytes(content);
+        Path file = Files.write(tempDir.resolve("data.bin"), content);
+
+        FileFingerprint fingerprint = FileFingerprint.of(file);
+
+        assertEquals(content.length, fingerprint.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), fingerprint.sha256());
+    }
+
+    @Test
+    void contentTypeComesFromSignatureBeforeName() throws IOException {
+        Path renamedPdf = Files.writeString(tempDir.resolve("notes.txt"), "%PDF-1.4\n%...");
+        Path png = Files.write(tempDir.resolve("image"), new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+
+        assertEquals("application/pdf", FileFingerprint.of(renamedPdf).contentType());
+        assertEquals("image/png", FileFingerprint.of(png).contentType());
+    }
+
+    @Test
+    void zipFilesAreToldApartByName() throws IOException {
+        byte[] zipHead = "PK\u0003\u0004rest".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+                FileFingerprint.sniffContentType(zipHead, "essay.docx"));
+        assertEquals("application/zip", FileFingerprint.sniffContentType(zipHead, "essay.pdf"));
+    }
+
+    @Test
+    void unknownFilesAreTextOrBinary() throws IOException {
+        assertEquals("text/plain", FileFingerprint.sniffContentType("plain words".getBytes(), "README"));
+        assertEquals("application/octet-stream", FileFingerprint.sniffContentType(new byte[]{1, 0, 2}, "blob"));
+    }
+}
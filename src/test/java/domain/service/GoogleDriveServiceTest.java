@@ -43,4 +43,22 @@ class GoogleDriveServiceTest {
         assertNotNull(driveService);
     }
 
+    @Test
+    void extractFileIdFromUrl() throws IOException {
+        assertEquals("mock-file-id", GoogleDriveService.extractFileIdFromUrl("https://drive.google.com/file/d/mock-file-id/view?usp=drivesdk"));
+        assertEquals("mock_id", GoogleDriveService.extractFileIdFromUrl("https://drive.google.com/open?id=mock_id"));
+        assertThrows(IOException.class, () -> GoogleDriveService.extractFileIdFromUrl("https://example.com/file"));
+    }
+
+    @Test
+    void getInstanceSharesOneClient() {
+        assertSame(GoogleDriveService.getInstance(), GoogleDriveService.getInstance());
+    }
+
+    @Test
+    void getInstanceDoesNotAuthorize() {
+        // Authorization is deferred to the first request, so getting the client reads no credentials
+        assertFalse(GoogleDriveService.getInstance().isAuthorized());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package domain.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalBlobStore(root);
+    }
+
+    @Test
+    void uploadedFileDownloadsUnchanged() throws IOException {
+        byte[] content = "Lecture notes".getBytes();
+
+        String link = store.uploadFile(content, "notes.txt", "text/plain");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Long> progress = new ArrayList<>();
+        store.downloadFile(link, out, progress::add);
+
+        assertTrue(link.startsWith(LocalBlobStore.LINK_PREFIX));
+        assertTrue(store.owns(link));
+        assertArrayEquals(content, out.toByteArray());
+        assertEquals(content.length, store.getFileSize(link));
+        assertEquals(List.of((long) content.length), progress);
+    }
+
+    @Test
+    void downloadsIntoFile() throws IOException {
+        byte[] content = new byte[3 * 1024 * 1024];
+        new java.util.Random(1).nextBytes(content);
+        String link = store.uploadFile(content, "data.bin", "application/octet-stream");
+        Path target = Files.createTempFile(root, "download", ".bin");
+
+        try (FileOutputStream out = new FileOutputStream(target.toFile())) {
+            store.downloadFile(link, out, bytes -> {});
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void sameContentIsStoredOnce() throws IOException {
+        String first = store.uploadFile("Same".getBytes(), "a.txt", "text/plain");
+        String second = store.uploadFile("Same".getBytes(), "b.txt", "text/plain");
+        String other = store.uploadFile("Other".getBytes(), "c.txt", "text/plain");
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void fileUploadMatchesByteUpload() throws IOException {
+        byte[] content = new byte[5 * 1024 * 1024];
+        new java.util.Random(2).nextBytes(content);
+        Path source = Files.write(Files.createTempFile("upload", ".bin"), content);
+        try {
+            String hash = FileFingerprint.of(source).sha256();
+
+            String fromFile = store.uploadFile(source, "data.bin", "application/octet-stream", hash);
+            String fromBytes = store.uploadFile(content, "data.bin", "application/octet-stream");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            store.downloadFile(fromFile, out, bytes -> {});
+
+            assertEquals(LocalBlobStore.LINK_PREFIX + hash, fromFile);
+            assertEquals(fromBytes, fromFile);
+            assertArrayEquals(content, out.toByteArray());
+        } finally {
+            Files.delete(source);
+        }
+    }
+
+    @Test
+    void fileUploadWithWrongHashFails() throws IOException {
+        Path source = Files.writeString(Files.createTempFile("upload", ".txt"), "Changed after hashing");
+        try {
+            String stale = FileFingerprint.of(Files.writeString(root.resolve("original.txt"), "Original")).sha256();
+            String stored = store.uploadFile("Original".getBytes(), "original.txt", "text/plain");
+
+            assertThrows(IOException.class, () -> store.uploadFile(source, "notes.txt", "text/plain", "0".repeat(64)));
+            assertThrows(IOException.class, () -> store.uploadFile(source, "notes.txt", "text/plain", stale));
+            assertEquals(LocalBlobStore.LINK_PREFIX + stale, stored);
+            try (Stream<Path> files = Files.walk(root)) {
+                assertEquals(0, files.filter(file -> file.toString().endsWith(".part")).count());
+            }
+        } finally {
+            Files.delete(source);
+        }
+    }
+
+    @Test
+    void rejectsLinksOutsideTheStore() {
+        assertFalse(store.owns("https://drive.google.com/file/d/abc/view"));
+        assertThrows(IOException.class, () -> store.getFileSize("https://drive.google.com/file/d/abc/view"));
+        assertThrows(IOException.class, () -> store.getFileSize(LocalBlobStore.LINK_PREFIX + "../../etc/passwd"));
+    }
+
+    @Test
+    void missingFileFailsToDownload() {
+        String link = LocalBlobStore.LINK_PREFIX + "0".repeat(64);
+
+        assertThrows(IOException.class, () -> store.downloadFile(link, new ByteArrayOutputStream(), bytes -> {}));
+    }
+}
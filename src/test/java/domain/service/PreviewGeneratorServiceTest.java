@@ -7,12 +7,15 @@ import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.apache.poi.xwpf.usermodel.XWPFRun;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +23,9 @@ class PreviewGeneratorServiceTest {
 
     private PreviewGeneratorService previewGenerator;
 
+    @TempDir
+    Path tempDir;
+
     @BeforeEach
     void setUp() {
         previewGenerator = new PreviewGeneratorService();
@@ -93,6 +99,30 @@ class PreviewGeneratorServiceTest {
         assertValidImageData(preview);
     }
 
+    @Test
+    void testGeneratePreview_FromFile() throws IOException {
+        Path pdf = Files.write(tempDir.resolve("sample.pdf"), createSamplePDF());
+        Path image = Files.write(tempDir.resolve("sample.png"), createSampleImage());
+        Path word = Files.write(tempDir.resolve("sample.docx"), createSampleWordDocument());
+
+        assertValidImageData(previewGenerator.generatePreview(pdf, "application/pdf"));
+        assertValidImageData(previewGenerator.generatePreview(image, "image/png"));
+        assertValidImageData(previewGenerator.generatePreview(word,
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
+        assertValidImageData(previewGenerator.generatePreview(pdf, "application/unknown"));
+    }
+
+    @Test
+    void testGeneratePreview_LargeImageFromFileIsThumbnailSized() throws IOException {
+        BufferedImage large = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Path image = tempDir.resolve("large.png");
+        ImageIO.write(large, "PNG", image.toFile());
+
+        BufferedImage preview = ImageIO.read(new ByteArrayInputStream(previewGenerator.generatePreview(image, "image/png")));
+
+        assertTrue(preview.getWidth() <= 200 && preview.getHeight() <= 200);
+    }
+
     @Test
     void testGeneratePreview_NullOrEmptyFileType() throws IOException {
         byte[] data = "Some random data".getBytes();
@@ -2,6 +2,7 @@ package domain.service;
 
 import domain.model.PermissionType;
 import domain.model.Rating;
+import domain.model.RatingStats;
 import domain.model.StudyMaterial;
 import domain.model.User;
 import infrastructure.repository.RatingRepository;
@@ -12,6 +13,7 @@ import org.mockito.Mockito;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalDouble;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -63,21 +65,27 @@ class RatingServiceTest {
 
     @Test
     void testGetAverageRating() {
-        List<Rating> ratings = Arrays.asList(
-                new Rating(4, material, user),
-                new Rating(5, material, user),
-                new Rating(3, material, user)
-        );
-
-        when(ratingRepository.findByMaterial(material)).thenReturn(ratings);
+        when(ratingRepository.findAverageRatingByMaterial(material)).thenReturn(4.0);
 
         double avg = ratingService.getAverageRating(material);
         assertEquals(4.0, avg, 0.01);
+        verify(ratingRepository, never()).findByMaterial(any());
+    }
+
+    @Test
+    void testGetAverageRatings() {
+        Map<Integer, RatingStats> stats = Map.of(1, new RatingStats(4.5, 2));
+        when(ratingRepository.findAverageRatings(List.of(1, 2))).thenReturn(stats);
+
+        Map<Integer, RatingStats> result = ratingService.getAverageRatings(List.of(1, 2));
+
+        assertEquals(stats, result);
+        verify(ratingRepository, never()).findByMaterial(any());
     }
 
     @Test
     void testGetAverageRating_NoRatings() {
-        when(ratingRepository.findByMaterial(material)).thenReturn(List.of());
+        when(ratingRepository.findAverageRatingByMaterial(material)).thenReturn(null);
 
         double avg = ratingService.getAverageRating(material);
         assertEquals(0.0, avg);
@@ -87,12 +95,15 @@ class RatingServiceTest {
     void testUpdateRating_Success() {
         Rating rating = new Rating(3, material, user);
         when(permissionService.hasPermission(user, PermissionType.UPDATE_OWN_RATING)).thenReturn(true);
-        when(ratingRepository.save(any(Rating.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ratingRepository.updateScore(rating, 5)).thenAnswer(invocation -> {
+            rating.setRatingScore(5);
+            return rating;
+        });
 
         Rating updatedRating = ratingService.updateRating(user, rating, 5);
 
         assertEquals(5, updatedRating.getRatingScore());
-        verify(ratingRepository, times(1)).save(rating);
+        verify(ratingRepository, times(1)).updateScore(rating, 5);
     }
 
     @Test
@@ -104,7 +115,7 @@ class RatingServiceTest {
                 ratingService.updateRating(user, rating, 5));
 
         assertEquals("You do not have permission to update your rating.", exception.getMessage());
-        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(ratingRepository, never()).updateScore(any(Rating.class), anyInt());
     }
 
     @Test
@@ -116,7 +127,7 @@ class RatingServiceTest {
                 ratingService.updateRating(user, rating, 5));
 
         assertEquals("You can only update your own rating.", exception.getMessage());
-        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(ratingRepository, never()).updateScore(any(Rating.class), anyInt());
     }
 
     @Test
@@ -2,11 +2,16 @@ package domain.service;
 
 import domain.model.*;
 import infrastructure.repository.ReviewRepository;
+import infrastructure.repository.ReviewTranslationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import presentation.view.LanguageManager;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -184,4 +189,54 @@ class ReviewServiceTest {
 
         verify(reviewRepository, times(1)).findByStudyMaterial(testMaterial);
     }
+
+    @Test
+    void testAddReview_LazyModeSkipsTranslation() {
+        ReviewTranslationRepository translationRepository = Mockito.mock(ReviewTranslationRepository.class);
+        TranslationService translationService = Mockito.mock(TranslationService.class);
+        ReviewService lazyService = new ReviewService(reviewRepository, permissionService, translationRepository, translationService);
+        when(permissionService.hasPermission(testUser, PermissionType.CREATE_REVIEW)).thenReturn(true);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Review savedReview = lazyService.addReview(testUser, testMaterial, "Great resource!");
+
+        assertEquals(LanguageManager.getInstance().getCurrentLanguage(), savedReview.getSourceLanguage());
+        verifyNoInteractions(translationService, translationRepository);
+    }
+
+    @Test
+    void testGetTranslatedReviewTexts_TranslatesMissingOnFirstRead() {
+        ReviewTranslationRepository translationRepository = Mockito.mock(ReviewTranslationRepository.class);
+        TranslationService translationService = Mockito.mock(TranslationService.class);
+        ReviewService lazyService = new ReviewService(reviewRepository, permissionService, translationRepository, translationService);
+
+        String currentLanguage = LanguageManager.getInstance().getCurrentLanguage();
+        String otherLanguage = currentLanguage.equals("fi") ? "en" : "fi";
+        testReview.setSourceLanguage(otherLanguage);
+        when(translationRepository.findTranslations(List.of(testReview.getReviewId()), currentLanguage)).thenReturn(Map.of());
+        when(translationService.translateAsync(List.of("Great resource!"), otherLanguage, currentLanguage))
+                .thenReturn(CompletableFuture.completedFuture(List.of("Translated!")));
+
+        AtomicReference<Map<Integer, String>> late = new AtomicReference<>();
+        Map<Integer, String> texts = lazyService.getTranslatedReviewTexts(List.of(testReview), late::set);
+
+        assertEquals("Great resource!", texts.get(testReview.getReviewId()));
+        assertEquals(Map.of(testReview.getReviewId(), "Translated!"), late.get());
+        verify(translationRepository).saveAllTranslations(Map.of(testReview.getReviewId(), Map.of(currentLanguage, "Translated!")));
+    }
+
+    @Test
+    void testGetTranslatedReviewTexts_SourceLanguageNeedsNoTranslation() {
+        ReviewTranslationRepository translationRepository = Mockito.mock(ReviewTranslationRepository.class);
+        TranslationService translationService = Mockito.mock(TranslationService.class);
+        ReviewService lazyService = new ReviewService(reviewRepository, permissionService, translationRepository, translationService);
+
+        testReview.setSourceLanguage(LanguageManager.getInstance().getCurrentLanguage());
+        when(translationRepository.findTranslations(anyList(), anyString())).thenReturn(Map.of());
+
+        Map<Integer, String> texts = lazyService.getTranslatedReviewTexts(List.of(testReview));
+
+        assertEquals("Great resource!", texts.get(testReview.getReviewId()));
+        verifyNoInteractions(translationService);
+    }
 }
@@ -0,0 +1,320 @@
+package domain.service;
+
+import domain.model.Category;
+import domain.model.SearchDocument;
+import domain.model.Tag;
+import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.MaterialContentRepository;
+import infrastructure.repository.StudyMaterialRepository;
+import infrastructure.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexTest {
+
+    @Mock
+    private StudyMaterialRepository materialRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private MaterialContentRepository contentRepository;
+
+    private SearchIndex index;
+    private Tag exams;
+
+    @BeforeEach
+    void setUp() {
+        exams = tag(7, "exams");
+        when(materialRepository.findSearchDocuments()).thenReturn(List.of(
+                document(1, "Linear algebra notes", "Matrices and vectors", 10, "Mathematics", Map.of()),
+                document(2, "Java programming", "Exercises on classes", 20, "Programming", Map.of(7, "exams")),
+                document(3, "Ohjelmoinnin perusteet", "Harjoituksia luokista", 20, "Programming", Map.of())
+        ));
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                new Category(10, "Mathematics", null),
+                new Category(20, "Programming", null)
+        ));
+        when(tagRepository.findAll()).thenReturn(List.of(exams));
+        doAnswer(invocation -> {
+            ObjIntConsumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("Gaussian elimination solves systems of equations", 1);
+            return null;
+        }).when(contentRepository).forEachText(any());
+
+        index = new SearchIndex();
+        index.build(materialRepository, categoryRepository, tagRepository, contentRepository);
+    }
+
+    private static SearchDocument document(int id, String name, String description, int categoryId, String course,
+                                           Map<Integer, String> tags) {
+        return new SearchDocument(id, name, description, categoryId, course, tags, 0.0, LocalDateTime.now());
+    }
+
+    private static Tag tag(int id, String name) {
+        Tag tag = mock(Tag.class);
+        when(tag.getTagId()).thenReturn(id);
+        when(tag.getTagName()).thenReturn(name);
+        return tag;
+    }
+
+    @Test
+    void isReadyAfterBuild() {
+        assertTrue(index.isReady());
+        assertFalse(new SearchIndex().isReady());
+    }
+
+    @Test
+    void searchMatchesEveryField() {
+        assertArrayEquals(new int[]{1}, index.searchMaterials("algebra"));
+        assertArrayEquals(new int[]{1}, index.searchMaterials("vectors"));
+        assertArrayEquals(new int[]{2}, index.searchMaterials("exams"));
+        assertArrayEquals(new int[]{2, 3}, index.searchMaterials("programming"));
+    }
+
+    @Test
+    void searchRequiresEveryWord() {
+        assertArrayEquals(new int[]{2}, index.searchMaterials("java programming"));
+        assertArrayEquals(new int[0], index.searchMaterials("java mathematics"));
+    }
+
+    @Test
+    void searchMatchesInflectedAndPartialWords() {
+        assertArrayEquals(new int[]{1}, index.searchMaterials("vector"));
+        assertArrayEquals(new int[]{1}, index.searchMaterials("MATRI"));
+        assertArrayEquals(new int[]{3}, index.searchMaterials("ohjelmoinnissa"));
+        assertArrayEquals(new int[]{3}, index.searchMaterials("luokissa"));
+    }
+
+    @Test
+    void searchIgnoresStopWordsAndBlankQueries() {
+        assertArrayEquals(new int[]{1}, index.searchMaterials("notes on the algebra"));
+        assertArrayEquals(new int[0], index.searchMaterials("   "));
+    }
+
+    @Test
+    void searchCategoriesAndTags() {
+        assertArrayEquals(new int[]{10}, index.searchCategories("math"));
+        assertArrayEquals(new int[]{7}, index.searchTags("exam"));
+    }
+
+    @Test
+    void indexMaterialAddsAndReplaces() {
+        index.indexMaterial(document(4, "Statistics", "Probability", 10, "Mathematics", Map.of()));
+        assertArrayEquals(new int[]{4}, index.searchMaterials("probability"));
+
+        index.indexMaterial(document(4, "Statistics", "Distributions", 10, "Mathematics", Map.of()));
+        assertArrayEquals(new int[0], index.searchMaterials("probability"));
+        assertArrayEquals(new int[]{4}, index.searchMaterials("distributions"));
+    }
+
+    @Test
+    void searchMatchesFileText() {
+        assertArrayEquals(new int[]{1}, index.searchMaterials("gaussian elimination"));
+
+        index.indexContent(2, "Inheritance and polymorphism");
+        assertArrayEquals(new int[]{2}, index.searchMaterials("polymorphism"));
+
+        index.indexContent(2, "Interfaces");
+        assertArrayEquals(new int[0], index.searchMaterials("polymorphism"));
+    }
+
+    @Test
+    void reindexingMaterialKeepsFileText() {
+        index.indexMaterial(document(1, "Linear algebra", "Matrices", 10, "Mathematics", Map.of()));
+
+        assertArrayEquals(new int[]{1}, index.searchMaterials("elimination"));
+    }
+
+    @Test
+    void fileTextRanksBelowName() {
+        index.indexMaterial(document(4, "Equations", null, 10, "Mathematics", Map.of()));
+
+        List<SearchIndex.Hit> hits = index.rankMaterials("equations", 10);
+
+        assertEquals(4, hits.get(0).id());
+        assertEquals(1, hits.get(1).id());
+    }
+
+    @Test
+    void removeMaterial() {
+        index.removeMaterial(1);
+        assertArrayEquals(new int[0], index.searchMaterials("algebra"));
+    }
+
+    @Test
+    void renamingCourseRewritesItsMaterials() {
+        index.indexCategory(new Category(20, "Software engineering", null));
+
+        assertArrayEquals(new int[]{2, 3}, index.searchMaterials("software"));
+        assertArrayEquals(new int[]{20}, index.searchCategories("software"));
+        assertArrayEquals(new int[0], index.searchCategories("programming"));
+    }
+
+    @Test
+    void removingCourseRemovesItsMaterials() {
+        index.removeCategory(20);
+
+        assertArrayEquals(new int[0], index.searchMaterials("java"));
+        assertArrayEquals(new int[0], index.searchCategories("programming"));
+        assertArrayEquals(new int[]{1}, index.searchMaterials("algebra"));
+    }
+
+    @Test
+    void renamingAndRemovingTagRewritesItsMaterials() {
+        index.indexTag(tag(7, "midterm"));
+        assertArrayEquals(new int[]{2}, index.searchMaterials("midterm"));
+        assertArrayEquals(new int[0], index.searchMaterials("exams"));
+
+        index.removeTag(7);
+        assertArrayEquals(new int[0], index.searchMaterials("midterm"));
+        assertArrayEquals(new int[0], index.searchTags("midterm"));
+    }
+
+    @Test
+    void updatesBeforeFirstBuildAreIgnored() {
+        SearchIndex empty = new SearchIndex();
+        empty.indexMaterial(document(1, "Algebra", null, 10, "Mathematics", Map.of()));
+        assertArrayEquals(new int[0], empty.searchMaterials("algebra"));
+    }
+
+    @Test
+    void stemsEnglishAndFinnish() {
+        assertEquals("vector", TextAnalyzer.stemEnglish("vectors"));
+        assertEquals("run", TextAnalyzer.stemEnglish("running"));
+        assertEquals("ohjelmoinn", TextAnalyzer.stemFinnish("ohjelmoinnin"));
+        assertEquals(List.of("java", "classes"), TextAnalyzer.tokenize("Java, and the Classes!"));
+    }
+
+    @Test
+    void rankMaterialsPrefersNameMatches() {
+        index.indexMaterial(document(4, "Graph algorithms", "Lecture notes", 10, "Mathematics", Map.of()));
+        index.indexMaterial(document(5, "Lecture notes", "A chapter on graph theory", 10, "Mathematics", Map.of()));
+
+        List<SearchIndex.Hit> hits = index.rankMaterials("graph", 50);
+
+        assertEquals(List.of(4, 5), hits.stream().map(SearchIndex.Hit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void rankMaterialsBlendsRatingAndRecency() {
+        LocalDateTime now = LocalDateTime.now();
+        index.indexMaterial(new SearchDocument(4, "Graph theory", null, 10, "Mathematics", Map.of(), 0.0, now.minusYears(2)));
+        index.indexMaterial(new SearchDocument(5, "Graph theory", null, 10, "Mathematics", Map.of(), 0.0, now));
+        index.indexMaterial(new SearchDocument(6, "Graph theory", null, 10, "Mathematics", Map.of(), 5.0, now.minusYears(2)));
+
+        assertEquals(List.of(6, 5, 4), index.rankMaterials("graph", 50).stream().map(SearchIndex.Hit::id).toList());
+
+        index.updateRating(4, 5.0);
+        index.updateRating(6, 0.0);
+        assertEquals(List.of(4, 5, 6), index.rankMaterials("graph", 50).stream().map(SearchIndex.Hit::id).toList());
+    }
+
+    @Test
+    void rankMaterialsReturnsOnlyTheTopHits() {
+        for (int id = 100; id < 200; id++) {
+            index.indexMaterial(document(id, "Exam " + id, "Old exam", 10, "Mathematics", Map.of()));
+        }
+        index.indexMaterial(document(200, "Exam exam exam", "Exam", 10, "Mathematics", Map.of(7, "exams")));
+
+        List<SearchIndex.Hit> hits = index.rankMaterials("exam", 5);
+
+        assertEquals(5, hits.size());
+        assertEquals(200, hits.get(0).id());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+    }
+
+    @Test
+    void rankCategoriesAndTags() {
+        assertEquals(List.of(20), index.rankCategories("programming", 50).stream().map(SearchIndex.Hit::id).toList());
+        assertEquals(List.of(7), index.rankTags("exam", 50).stream().map(SearchIndex.Hit::id).toList());
+        assertTrue(index.rankCategories("nothing", 50).isEmpty());
+    }
+
+    @Test
+    void searchToleratesTypos() {
+        assertArrayEquals(new int[]{1}, index.searchMaterials("algebar"));
+        assertArrayEquals(new int[]{1}, index.searchMaterials("linaer algerba"));
+        assertArrayEquals(new int[]{10}, index.searchCategories("mathematcs"));
+        assertArrayEquals(new int[]{7}, index.searchTags("exsams"));
+        assertEquals(List.of(2), index.rankMaterials("progrmming java", 50).stream().map(SearchIndex.Hit::id).toList());
+        assertArrayEquals(new int[0], index.searchMaterials("qwertyuiop"));
+    }
+
+    @Test
+    void wordsMatchingAsTypedAreNotCorrected() {
+        index.indexMaterial(document(4, "Algebra", null, 10, "Mathematics", Map.of()));
+        index.indexMaterial(document(5, "Algebar", null, 10, "Mathematics", Map.of()));
+
+        assertEquals(List.of(5), index.rankMaterials("algebar", 50).stream().map(SearchIndex.Hit::id).toList());
+    }
+
+    @Test
+    void suggestCorrectsWordsThatMatchNothing() {
+        assertEquals("linear algebra", index.suggest("linaer algebra"));
+        assertEquals("mathematics", index.suggest("mathematcs"));
+        assertNull(index.suggest("algebra"));
+        assertNull(index.suggest("qwertyuiop"));
+    }
+
+    @Test
+    void suggestForgetsRemovedWords() {
+        index.removeMaterial(1);
+        assertNull(index.suggest("algebar"));
+    }
+
+    @Test
+    void editDistanceCountsSwapsAsOneEdit() {
+        assertEquals(1, TrigramIndex.editDistance("algorthm", "algorithm", 2));
+        assertEquals(1, TrigramIndex.editDistance("sortign", "sorting", 2));
+        assertEquals(3, TrigramIndex.editDistance("abcdef", "ghijkl", 2));
+        assertEquals(0, TrigramIndex.maxDistance(3));
+    }
+
+    @Test
+    void slowerOlderBuildDoesNotReplaceNewerOne() throws InterruptedException {
+        java.util.concurrent.CountDownLatch olderLoading = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch releaseOlder = new java.util.concurrent.CountDownLatch(1);
+        when(materialRepository.findSearchDocuments())
+                .thenAnswer(invocation -> {
+                    olderLoading.countDown();
+                    releaseOlder.await();
+                    return List.of(document(1, "Old notes", null, 10, "Mathematics", Map.of()));
+                })
+                .thenReturn(List.of(document(1, "New notes", null, 10, "Mathematics", Map.of())));
+
+        Thread older = new Thread(() -> index.build(materialRepository, categoryRepository, tagRepository, contentRepository));
+        older.start();
+        olderLoading.await();
+        Thread newer = new Thread(() -> index.build(materialRepository, categoryRepository, tagRepository, contentRepository));
+        newer.start();
+        while (newer.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        releaseOlder.countDown();
+        older.join();
+        newer.join();
+
+        assertArrayEquals(new int[]{1}, index.searchMaterials("new"));
+        assertArrayEquals(new int[0], index.searchMaterials("old"));
+    }
+}
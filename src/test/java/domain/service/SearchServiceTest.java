@@ -1,9 +1,13 @@
 package domain.service;
 
 import domain.model.Category;
+import domain.model.MaterialSummary;
+import domain.model.SearchDocument;
+import domain.model.SearchResult;
 import domain.model.StudyMaterial;
 import domain.model.Tag;
 import infrastructure.repository.CategoryRepository;
+import infrastructure.repository.MaterialContentRepository;
 import infrastructure.repository.StudyMaterialRepository;
 import infrastructure.repository.TagRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +16,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +38,9 @@ class SearchServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private MaterialContentRepository contentRepository;
+
     private SearchService searchService;
 
     @BeforeEach
@@ -58,6 +68,21 @@ class SearchServiceTest {
         verify(materialRepository).findByNameOrDescription(query);
     }
 
+    @Test
+    void searchMaterialSummaries() {
+        String query = "java";
+        MaterialSummary summary = new MaterialSummary(1, "Java", "Armas Nevolainen", LocalDateTime.now(), "PDF", 4.5, null);
+
+        when(materialRepository.findSummariesByNameOrDescription(query))
+                .thenReturn(List.of(summary));
+
+        List<MaterialSummary> result = searchService.searchMaterialSummaries(query);
+
+        assertEquals(List.of(summary), result, "Should return summaries from repository");
+        verify(materialRepository).findSummariesByNameOrDescription(query);
+        verify(materialRepository, never()).findByNameOrDescription(anyString());
+    }
+
     @Test
     void searchCategories() {
         String query = "programming";
@@ -132,4 +157,67 @@ class SearchServiceTest {
         assertEquals(emptyList, result, "Should return empty list when no tags found");
         verify(tagRepository).searchByName(query);
     }
+
+    @Test
+    void searchUsesIndexOnceBuilt() {
+        when(materialRepository.findSearchDocuments()).thenReturn(List.of(
+                new SearchDocument(1, "Java basics", null, 10, "Programming", Map.of(), 0.0, LocalDateTime.now()),
+                new SearchDocument(2, "Python basics", null, 10, "Programming", Map.of(), 0.0, LocalDateTime.now()),
+                new SearchDocument(3, "Advanced Java", null, 10, "Programming", Map.of(), 0.0, LocalDateTime.now())
+        ));
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(10, "Programming", null)));
+        when(tagRepository.findAll()).thenReturn(List.of());
+        SearchIndex index = new SearchIndex();
+        index.build(materialRepository, categoryRepository, tagRepository, contentRepository);
+        SearchService indexed = new SearchService(materialRepository, categoryRepository, tagRepository, index);
+
+        MaterialSummary newer = new MaterialSummary(3, "Advanced Java", "Armas Nevolainen", LocalDateTime.now(), "PDF", 4.5, null);
+        MaterialSummary older = new MaterialSummary(1, "Java basics", "Armas Nevolainen", LocalDateTime.now(), "PDF", 4.0, null);
+        when(materialRepository.findSummariesByIds(List.of(3, 1))).thenReturn(List.of(newer, older));
+
+        List<MaterialSummary> result = indexed.searchMaterialSummaries("java");
+
+        assertEquals(List.of(newer, older), result, "Should fetch the indexed matches newest first");
+        verify(materialRepository, never()).findSummariesByNameOrDescription(anyString());
+    }
+
+    @Test
+    void searchMergesRankedResults() {
+        when(materialRepository.findSearchDocuments()).thenReturn(List.of(
+                new SearchDocument(1, "Databases", "Normal forms", 10, "Programming", Map.of(), 0.0, LocalDateTime.now()),
+                new SearchDocument(2, "Lecture notes", "Python for databases", 10, "Programming", Map.of(), 0.0, LocalDateTime.now())
+        ));
+        Category databases = new Category(20, "Databases", null);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(10, "Programming", null), databases));
+        when(tagRepository.findAll()).thenReturn(List.of());
+        SearchIndex index = new SearchIndex();
+        index.build(materialRepository, categoryRepository, tagRepository, contentRepository);
+        SearchService indexed = new SearchService(materialRepository, categoryRepository, tagRepository, index);
+
+        MaterialSummary byName = new MaterialSummary(1, "Databases", "Armas Nevolainen", LocalDateTime.now(), "PDF");
+        MaterialSummary byDescription = new MaterialSummary(2, "Lecture notes", "Armas Nevolainen", LocalDateTime.now(), "PDF");
+        when(materialRepository.findSummariesByIds(List.of(1, 2))).thenReturn(List.of(byName, byDescription));
+        when(categoryRepository.findAllById(List.of(20))).thenReturn(List.of(databases));
+
+        List<SearchResult> results = indexed.search("databases", true, true, true, SearchService.DEFAULT_LIMIT);
+
+        assertEquals(3, results.size());
+        assertEquals(byName, results.get(0).material());
+        assertEquals(databases, results.get(1).category());
+        assertEquals(byDescription, results.get(2).material());
+        verify(materialRepository, never()).findSummariesByNameOrDescription(anyString());
+    }
+
+    @Test
+    void searchFallsBackToDatabaseBeforeIndexIsBuilt() {
+        MaterialSummary summary = new MaterialSummary(1, "Java", "Armas Nevolainen", LocalDateTime.now(), "PDF");
+        when(materialRepository.findSummariesByNameOrDescription("java")).thenReturn(List.of(summary));
+
+        List<SearchResult> results = searchService.search("java", true, true, false, 1);
+
+        assertEquals(List.of(SearchResult.of(summary, 0)), results);
+        verify(categoryRepository, never()).findByName(anyString());
+        verify(tagRepository, never()).searchByName(anyString());
+        assertNull(searchService.suggest("jaav"));
+    }
 }
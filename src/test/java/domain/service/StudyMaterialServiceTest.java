@@ -1,16 +1,22 @@
 package domain.service;
 
 import domain.model.*;
+import infrastructure.repository.MaterialContentRepository;
+import infrastructure.repository.StoredFileRepository;
 import infrastructure.repository.StudyMaterialRepository;
+import infrastructure.repository.StudyMaterialTranslationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,7 +30,7 @@ class StudyMaterialServiceTest {
     private StudyMaterialService materialService;
 
     @Mock
-    private GoogleDriveService driveService;
+    private BlobStore blobStore;
 
     @Mock
     private StudyMaterialRepository materialRepository;
@@ -32,6 +38,18 @@ class StudyMaterialServiceTest {
     @Mock(strictness = Mock.Strictness.LENIENT)
     private PermissionService permissionService;
 
+    @Mock
+    private MaterialContentRepository contentRepository;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private StoredFileRepository storedFileRepository;
+
+    @Mock
+    private StudyMaterialTranslationRepository translationRepository;
+
+    @TempDir
+    Path cacheDir;
+
     private User uploader;
     private User adminUser;
     private StudyMaterial testMaterial;
@@ -39,7 +57,9 @@ class StudyMaterialServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        materialService = new StudyMaterialService(driveService, materialRepository, permissionService);
+        materialService = new StudyMaterialService(blobStore, materialRepository, permissionService, contentRepository, storedFileRepository,
+                new DownloadCache(cacheDir, 1024 * 1024), translationRepository);
+        when(storedFileRepository.remember(any())).thenAnswer(i -> i.getArgument(0));
 
         Role adminRole = new Role(RoleType.ADMIN);
         adminUser = new User(2, "Admin", "User", "admin@example.com", "password", adminRole);
@@ -72,7 +92,7 @@ class StudyMaterialServiceTest {
         Category category = new Category("Java Programming", adminUser);
 
         when(permissionService.hasPermission(uploader, PermissionType.CREATE_RESOURCE)).thenReturn(true);
-        when(driveService.uploadFile(content, filename, "text/plain")).thenReturn(expectedDriveUrl);
+        when(blobStore.uploadFile(content, filename, "text/plain")).thenReturn(expectedDriveUrl);
         when(materialRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
         Set<Tag> tags = new HashSet<>();
 
@@ -87,6 +107,87 @@ class StudyMaterialServiceTest {
         verify(materialRepository, times(1)).save(any(StudyMaterial.class));
     }
 
+    @Test
+    void uploadMaterial_StoresExtractedText() throws IOException {
+        byte[] content = "Sorting  algorithms\ncompared".getBytes();
+        String filename = "notes.txt";
+        Category category = new Category("Java Programming", adminUser);
+
+        when(permissionService.hasPermission(uploader, PermissionType.CREATE_RESOURCE)).thenReturn(true);
+        when(blobStore.uploadFile(content, filename, "text/plain")).thenReturn("https://drive.google.com/file/notes");
+        when(materialRepository.save(any())).thenAnswer(i -> {
+            StudyMaterial saved = i.getArgument(0);
+            saved.setMaterialId(5);
+            return saved;
+        });
+
+        materialService.uploadMaterial(content, filename, uploader, "Sorting", "Notes", category, new HashSet<>());
+
+        verify(contentRepository, timeout(1000)).saveText(5, "Sorting algorithms compared");
+    }
+
+    @Test
+    void uploadMaterial_FromFileStreamsToStore() throws IOException {
+        Path file = Files.writeString(Files.createTempFile("notes", ".txt"), "Graph  traversal");
+        Category category = new Category("Java Programming", adminUser);
+        String hash = FileFingerprint.of(file).sha256();
+
+        when(permissionService.hasPermission(uploader, PermissionType.CREATE_RESOURCE)).thenReturn(true);
+        when(blobStore.uploadFile(file, file.getFileName().toString(), "text/plain", hash)).thenReturn("https://drive.google.com/file/graphs");
+        when(materialRepository.save(any())).thenAnswer(i -> {
+            StudyMaterial saved = i.getArgument(0);
+            saved.setMaterialId(6);
+            return saved;
+        });
+
+        StudyMaterial result = materialService.uploadMaterial(file, uploader, "Graphs", "Notes", category, new HashSet<>());
+
+        assertEquals("https://drive.google.com/file/graphs", result.getLink());
+        assertEquals("text/plain", result.getFileType());
+        assertNotNull(result.getPreviewImage());
+        verify(contentRepository, timeout(1000)).saveText(6, "Graph traversal");
+        verify(blobStore, never()).uploadFile(any(byte[].class), any(), any());
+        Files.delete(file);
+    }
+
+    @Test
+    void uploadMaterial_SameContentReusesStoredFile() throws IOException {
+        byte[] content = "Shared slides".getBytes();
+        byte[] preview = {1, 2, 3};
+        Category category = new Category("Java Programming", adminUser);
+        StoredFile stored = new StoredFile("a".repeat(64), "https://drive.google.com/file/slides", "application/pdf", content.length, preview);
+
+        when(permissionService.hasPermission(uploader, PermissionType.CREATE_RESOURCE)).thenReturn(true);
+        when(storedFileRepository.findByHash(any())).thenReturn(stored);
+        when(materialRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        StudyMaterial result = materialService.uploadMaterial(content, "copy.pdf", uploader, "Slides", "Week 1", category, new HashSet<>());
+
+        assertEquals("https://drive.google.com/file/slides", result.getLink());
+        assertEquals("application/pdf", result.getFileType());
+        assertArrayEquals(preview, result.getPreviewImage());
+        verify(blobStore, never()).uploadFile(any(byte[].class), any(), any());
+        verify(storedFileRepository, never()).remember(any());
+    }
+
+    @Test
+    void uploadMaterial_NewContentIsIndexedByHash() throws IOException {
+        Path file = Files.writeString(Files.createTempFile("slides", ".txt"), "Week 2");
+        Category category = new Category("Java Programming", adminUser);
+        String hash = FileFingerprint.of(file).sha256();
+
+        when(permissionService.hasPermission(uploader, PermissionType.CREATE_RESOURCE)).thenReturn(true);
+        when(blobStore.uploadFile(eq(file), any(), eq("text/plain"), eq(hash))).thenReturn("https://drive.google.com/file/week2");
+        when(materialRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        materialService.uploadMaterial(file, uploader, "Week 2", "Notes", category, new HashSet<>());
+
+        verify(storedFileRepository).findByHash(hash);
+        verify(storedFileRepository).remember(argThat(stored ->
+                stored.getSha256().equals(hash) && stored.getLink().equals("https://drive.google.com/file/week2")));
+        Files.delete(file);
+    }
+
     @Test
     void uploadMaterial_NoPermission() {
         byte[] content = "Test content".getBytes();
@@ -300,38 +401,70 @@ class StudyMaterialServiceTest {
 
     @Test
     void downloadMaterial_Success() throws IOException {
-        java.io.File saveLocation = File.createTempFile("testFile", ".txt");
-
+        File saveLocation = File.createTempFile("testFile", ".txt");
         byte[] fileData = "Test File Data".getBytes();
 
         testMaterial.setStatus(MaterialStatus.APPROVED);
         testMaterial.setLink("http://test-download-link.com");
 
-        assertNotNull(uploader, "Uploader cannot be null");
-        assertNotNull(permissionService, "PermissionService cannot be null");
-        assertNotNull(testMaterial.getLink(), "StudyMaterial cannot be null");
-
         when(permissionService.hasPermission(any(User.class), eq(PermissionType.READ_RESOURCES)))
                 .thenReturn(true);
+        when(blobStore.owns(testMaterial.getLink())).thenReturn(true);
+        when(blobStore.getFileSize(testMaterial.getLink())).thenReturn((long) fileData.length);
+        doAnswer(i -> {
+            i.<java.io.OutputStream>getArgument(1).write(fileData);
+            return null;
+        }).when(blobStore).downloadFile(eq(testMaterial.getLink()), any(), any());
 
-        when(driveService.downloadFile(testMaterial.getLink())).thenReturn(fileData);
+        assertNotNull(materialService.downloadMaterial(uploader, testMaterial, saveLocation));
+        materialService.download(uploader, testMaterial, saveLocation, (bytes, size) -> {});
 
-        materialService.downloadMaterial(uploader, testMaterial, saveLocation);
-        verify(driveService, times(1)).downloadFile(testMaterial.getLink());
+        assertArrayEquals(fileData, Files.readAllBytes(saveLocation.toPath()));
+        verify(blobStore, times(1)).downloadFile(eq(testMaterial.getLink()), any(), any());
+        Files.delete(saveLocation.toPath());
     }
 
+    @Test
+    void downloadMaterial_SecondDownloadIsServedFromCache() throws IOException {
+        File first = File.createTempFile("first", ".txt");
+        File second = File.createTempFile("second", ".txt");
+        byte[] fileData = "Cached File Data".getBytes();
+
+        testMaterial.setStatus(MaterialStatus.APPROVED);
+        testMaterial.setLink("http://test-cached-link.com");
+
+        when(permissionService.hasPermission(any(User.class), eq(PermissionType.READ_RESOURCES)))
+                .thenReturn(true);
+        when(blobStore.owns(testMaterial.getLink())).thenReturn(true);
+        when(blobStore.getFileSize(testMaterial.getLink())).thenReturn((long) fileData.length);
+        doAnswer(i -> {
+            i.<java.io.OutputStream>getArgument(1).write(fileData);
+            return null;
+        }).when(blobStore).downloadFile(eq(testMaterial.getLink()), any(), any());
+
+        materialService.download(uploader, testMaterial, first, (bytes, size) -> {});
+        List<Long> progress = new java.util.ArrayList<>();
+        materialService.download(uploader, testMaterial, second, (bytes, size) -> progress.add(bytes));
+
+        assertArrayEquals(fileData, Files.readAllBytes(second.toPath()));
+        assertEquals(List.of((long) fileData.length), progress);
+        verify(blobStore, times(1)).downloadFile(any(), any(), any());
+        verify(blobStore, times(1)).getFileSize(any());
+        Files.delete(first.toPath());
+        Files.delete(second.toPath());
+    }
 
     @Test
     void downloadMaterial_NoPermission() throws IOException {
-        java.io.File saveLocation = mock(java.io.File.class);
+        File saveLocation = mock(File.class);
 
         when(permissionService.hasPermission(uploader, PermissionType.READ_RESOURCES)).thenReturn(false);
 
         assertThrows(SecurityException.class, () ->
-                materialService.downloadMaterial(uploader, testMaterial, saveLocation)
+                materialService.download(uploader, testMaterial, saveLocation, (bytes, size) -> {})
         );
 
-        verify(driveService, never()).downloadFile(anyString());
+        verify(blobStore, never()).downloadFile(anyString(), any(), any());
     }
 
     @Test
@@ -428,7 +561,7 @@ class StudyMaterialServiceTest {
         Category category = new Category("Java Programming", uploader);
 
         when(permissionService.hasPermission(uploader, PermissionType.CREATE_RESOURCE)).thenReturn(true);
-        when(driveService.uploadFile(content, filename, "text/plain")).thenReturn(expectedDriveUrl);
+        when(blobStore.uploadFile(content, filename, "text/plain")).thenReturn(expectedDriveUrl);
         when(materialRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
         Set<Tag> tags = new HashSet<>();
 
@@ -471,14 +604,14 @@ class StudyMaterialServiceTest {
 
         materialService.updateDescription(uploader, testMaterial, "Updated Description");
 
-        verify(materialRepository, times(1)).updateMaterialDescription(testMaterial.getMaterialId(), "Updated Description");
+        verify(materialRepository, times(1)).updateMaterialDescription(eq(testMaterial.getMaterialId()), eq("Updated Description"), anyString());
     }
 
     @Test
     void updateDescription_AsAdmin_Success() {
         materialService.updateDescription(adminUser, testMaterial, "Updated Description");
 
-        verify(materialRepository, times(1)).updateMaterialDescription(testMaterial.getMaterialId(), "Updated Description");
+        verify(materialRepository, times(1)).updateMaterialDescription(eq(testMaterial.getMaterialId()), eq("Updated Description"), anyString());
     }
 
     @Test
@@ -487,7 +620,7 @@ class StudyMaterialServiceTest {
 
         assertThrows(SecurityException.class, () -> materialService.updateDescription(uploader, testMaterial, "Updated Description"));
 
-        verify(materialRepository, never()).updateMaterialDescription(anyInt(), anyString());
+        verify(materialRepository, never()).updateMaterialDescription(anyInt(), anyString(), anyString());
     }
 
     @Test
@@ -496,14 +629,14 @@ class StudyMaterialServiceTest {
 
         materialService.updateTitle(uploader, testMaterial, "Updated Title");
 
-        verify(materialRepository, times(1)).updateMaterialTitle(testMaterial.getMaterialId(), "Updated Title");
+        verify(materialRepository, times(1)).updateMaterialTitle(eq(testMaterial.getMaterialId()), eq("Updated Title"), anyString());
     }
 
     @Test
     void updateTitle_AsAdmin_Success() {
         materialService.updateTitle(adminUser, testMaterial, "Updated Title");
 
-        verify(materialRepository, times(1)).updateMaterialTitle(testMaterial.getMaterialId(), "Updated Title");
+        verify(materialRepository, times(1)).updateMaterialTitle(eq(testMaterial.getMaterialId()), eq("Updated Title"), anyString());
     }
 
     @Test
@@ -512,6 +645,23 @@ class StudyMaterialServiceTest {
 
         assertThrows(SecurityException.class, () -> materialService.updateTitle(uploader, testMaterial, "Updated Title"));
 
-        verify(materialRepository, never()).updateMaterialTitle(anyInt(), anyString());
+        verify(materialRepository, never()).updateMaterialTitle(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void updateTitle_DropsStaleTranslations() {
+        materialService.updateTitle(adminUser, testMaterial, "Updated Title");
+
+        verify(translationRepository).deleteTranslations(testMaterial.getMaterialId());
+        assertNotNull(testMaterial.getSourceLanguage());
+    }
+
+    @Test
+    void updateTitle_NoPermission_KeepsTranslations() {
+        when(permissionService.hasPermission(uploader, PermissionType.UPDATE_OWN_RESOURCE)).thenReturn(false);
+
+        assertThrows(SecurityException.class, () -> materialService.updateTitle(uploader, testMaterial, "Updated Title"));
+
+        verify(translationRepository, never()).deleteTranslations(anyInt());
     }
 }
@@ -12,8 +12,10 @@ import org.mockito.MockitoAnnotations;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 class TagServiceTest {
     @Mock
@@ -57,6 +59,29 @@ class TagServiceTest {
         verify(tagRepository, never()).save(any(Tag.class));
     }
 
+    @Test
+    void testCreateTags_OnlySavesMissing() {
+        User creator = new User();
+        Tag existing = new Tag("java", creator);
+
+        when(tagRepository.findByNames(anyCollection())).thenReturn(List.of(existing));
+        when(tagRepository.saveAll(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+
+        Set<Tag> result = tagService.createTags(Arrays.asList(" Java ", "Spring"), creator);
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains(existing));
+        verify(tagRepository).saveAll(argThat(tags -> tags.size() == 1
+                && tags.iterator().next().getTagName().equals("spring")));
+        verify(tagRepository, never()).save(any(Tag.class));
+    }
+
+    @Test
+    void testCreateTags_BlankTagName() {
+        assertThrows(IllegalArgumentException.class, () -> tagService.createTags(List.of("java", " "), new User()));
+        verify(tagRepository, never()).saveAll(anyCollection());
+    }
+
     @Test
     void testGetAllTags() {
         List<Tag> tags = Arrays.asList(new Tag("Java", new User()), new Tag("Spring", new User()));
@@ -0,0 +1,81 @@
+package domain.service;
+
+import infrastructure.repository.TranslationMemoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.TestPersistenceUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationMemoryTest {
+    private TranslationMemoryRepository repository;
+    private TranslationMemory memory;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TranslationMemoryRepository(TestPersistenceUtil.getEntityManagerFactory());
+        memory = new TranslationMemory(repository, 2);
+    }
+
+    @Test
+    void rememberedTranslationIsFoundInProcess() {
+        String text = unique("Hello");
+        memory.remember(text, "en", "fi", "Hei");
+
+        assertEquals("Hei", memory.lookup(text, "en", "fi"));
+        assertNull(memory.lookup(text, "en", "ru"));
+        assertEquals(new TranslationMemory.Stats(1, 0, 1), memory.getStats());
+        assertEquals(0.5, memory.getStats().hitRate());
+    }
+
+    @Test
+    void translationsSurviveInTheTable() {
+        String text = unique("Good morning");
+        memory.remember(text, "en", "fi", "Hyvää huomenta");
+
+        TranslationMemory fresh = new TranslationMemory(repository, 2);
+
+        assertEquals("Hyvää huomenta", fresh.lookup(text, "en", "fi"));
+        assertEquals(1, fresh.getStats().storeHits());
+        assertEquals("Hyvää huomenta", fresh.lookup(text, "en", "fi"));
+        assertEquals(1, fresh.getStats().memoryHits());
+    }
+
+    @Test
+    void lookupAllReturnsOnlyKnownTexts() {
+        String first = unique("One");
+        String second = unique("Two");
+        String unknown = unique("Three");
+        memory.rememberAll(Map.of(first, "Yksi", second, "Kaksi"), "en", "fi");
+
+        Map<String, String> found = new TranslationMemory(repository, 10).lookupAll(List.of(first, second, unknown), "en", "fi");
+
+        assertEquals(Map.of(first, "Yksi", second, "Kaksi"), found);
+    }
+
+    @Test
+    void preWarmLoadsStoredTranslations() {
+        String text = unique("Thanks");
+        memory.remember(text, "en", "fi", "Kiitos");
+
+        TranslationMemory fresh = new TranslationMemory(repository, 100);
+        assertTrue(fresh.preWarm(100) > 0);
+
+        assertEquals("Kiitos", fresh.lookup(text, "en", "fi"));
+        assertEquals(1, fresh.getStats().memoryHits());
+    }
+
+    @Test
+    void keyDependsOnLanguagePair() {
+        assertNotEquals(TranslationMemory.keyOf("Hello", "en", "fi"), TranslationMemory.keyOf("Hello", "en", "ru"));
+        assertEquals(64, TranslationMemory.keyOf("Hello", "en", "fi").length());
+    }
+
+    private static String unique(String text) {
+        return text + " " + UUID.randomUUID();
+    }
+}
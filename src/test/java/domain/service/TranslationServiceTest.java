@@ -1,14 +1,23 @@
 package domain.service;
 
+import com.google.cloud.translate.Translate;
+import com.google.cloud.translate.Translation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import presentation.utility.GUILogger;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class TranslationServiceTest {
 
@@ -75,4 +84,106 @@ public class TranslationServiceTest {
             System.out.println(entry.getKey() + ": " + entry.getValue());
         }
     }
+
+    @Test
+    void testRememberedTranslationSkipsApi() {
+        Translate translate = mock(Translate.class);
+        TranslationMemory memory = mock(TranslationMemory.class);
+        when(memory.lookup("Hello", "en", "fi")).thenReturn("Hei");
+
+        TranslationService service = new TranslationService(translate, memory, Duration.ofSeconds(5));
+
+        assertEquals("Hei", service.translate("Hello", "en", "fi"));
+        verifyNoInteractions(translate);
+    }
+
+    @Test
+    void testFetchedTranslationIsRemembered() {
+        Translate translate = mock(Translate.class);
+        Translation translation = mock(Translation.class);
+        TranslationMemory memory = mock(TranslationMemory.class);
+        when(translation.getTranslatedText()).thenReturn("Hei");
+        when(translate.translate(anyString(), any(), any())).thenReturn(translation);
+
+        TranslationService service = new TranslationService(translate, memory, Duration.ofSeconds(5));
+
+        assertEquals("Hei", service.translateText("Hello", "en", "fi"));
+        verify(memory).remember("Hello", "en", "fi", "Hei");
+    }
+
+    @Test
+    void testTranslateBatchSendsOneRequestPerLanguage() {
+        Translate translate = mock(Translate.class);
+        TranslationMemory memory = mock(TranslationMemory.class);
+        when(memory.lookupAll(anyList(), anyString(), anyString())).thenReturn(Map.of());
+        Translation name = mock(Translation.class);
+        Translation description = mock(Translation.class);
+        when(name.getTranslatedText()).thenReturn("Nimi");
+        when(description.getTranslatedText()).thenReturn("Kuvaus");
+        when(translate.translate(anyList(), any(), any())).thenReturn(List.of(name, description));
+
+        TranslationService service = new TranslationService(translate, memory, Duration.ofSeconds(5));
+        TranslationService.BatchResult result = service.translateBatch(List.of("Name", "Description", ""), "en", List.of("fi", "ru"));
+
+        assertEquals(List.of("Nimi", "Kuvaus", ""), result.translations().get("fi"));
+        assertEquals(List.of("Nimi", "Kuvaus", ""), result.translations().get("ru"));
+        assertTrue(result.failures().isEmpty());
+        verify(translate, times(2)).translate(eq(List.of("Name", "Description")), any(), any());
+    }
+
+    @Test
+    void testTranslateBatchReportsFailedLanguages() {
+        Translate translate = mock(Translate.class);
+        TranslationMemory memory = mock(TranslationMemory.class);
+        when(memory.lookupAll(anyList(), anyString(), anyString())).thenReturn(Map.of());
+        when(memory.lookupAll(anyList(), eq("en"), eq("fi"))).thenReturn(Map.of("Hello", "Hei"));
+        when(translate.translate(anyList(), any(), any())).thenThrow(new RuntimeException("quota exceeded"));
+
+        TranslationService service = new TranslationService(translate, memory, Duration.ofSeconds(5));
+        TranslationService.BatchResult result = service.translateBatch(List.of("Hello"), "en", List.of("fi", "ru"));
+
+        assertEquals(List.of("Hei"), result.translations().get("fi"));
+        assertFalse(result.translations().containsKey("ru"));
+        assertEquals("quota exceeded", result.failures().get("ru").getMessage());
+    }
+
+    @Test
+    void testTranslateBatchTimesOutSlowLanguages() {
+        Translate translate = mock(Translate.class);
+        TranslationMemory memory = mock(TranslationMemory.class);
+        when(memory.lookupAll(anyList(), anyString(), anyString())).thenReturn(Map.of());
+        when(translate.translate(anyList(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return List.of();
+        });
+
+        TranslationService service = new TranslationService(translate, memory, Duration.ofMillis(100));
+        TranslationService.BatchResult result = service.translateBatch(List.of("Hello"), "en", List.of("fi"));
+
+        assertTrue(result.translations().isEmpty());
+        assertInstanceOf(java.util.concurrent.TimeoutException.class, result.failures().get("fi"));
+    }
+
+    @Test
+    void testTranslateAsyncInterruptsRequestOnTimeout() throws InterruptedException {
+        Translate translate = mock(Translate.class);
+        TranslationMemory memory = mock(TranslationMemory.class);
+        java.util.concurrent.CountDownLatch interrupted = new java.util.concurrent.CountDownLatch(1);
+        when(memory.lookupAll(anyList(), anyString(), anyString())).thenReturn(Map.of());
+        when(translate.translate(anyList(), any(), any())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        });
+
+        TranslationService service = new TranslationService(translate, memory, Duration.ofMillis(100));
+        java.util.concurrent.CompletableFuture<List<String>> result = service.translateAsync(List.of("Hello"), "en", "fi");
+
+        assertThrows(java.util.concurrent.ExecutionException.class, result::get);
+        assertTrue(interrupted.await(5, java.util.concurrent.TimeUnit.SECONDS));
+    }
 }
@@ -113,6 +113,52 @@ class BaseRepositoryTest {
         assertNull(deletedCategory);
     }
 
+    @Test
+    void testSaveAll() {
+        categoryRepository.setBatchSize(2);
+        List<Category> categories = List.of(
+                new Category("Batch 1", testUser),
+                new Category("Batch 2", testUser),
+                new Category("Batch 3", testUser));
+
+        List<Category> saved = categoryRepository.saveAll(categories);
+
+        assertEquals(3, saved.size());
+        for (Category category : saved) {
+            assertNotNull(categoryRepository.findById(category.getCategoryId()));
+        }
+    }
+
+    @Test
+    void testUpdateAll() {
+        List<Category> saved = categoryRepository.saveAll(List.of(
+                new Category("Before 1", testUser),
+                new Category("Before 2", testUser)));
+        saved.forEach(category -> category.setCategoryName("After"));
+
+        categoryRepository.updateAll(saved);
+
+        for (Category category : saved) {
+            assertEquals("After", categoryRepository.findById(category.getCategoryId()).getCategoryName());
+        }
+    }
+
+    @Test
+    void testDeleteAllById() {
+        List<Category> saved = categoryRepository.saveAll(List.of(
+                new Category("Delete 1", testUser),
+                new Category("Delete 2", testUser)));
+        List<Integer> ids = saved.stream().map(Category::getCategoryId).toList();
+
+        int deleted = categoryRepository.deleteAllById(ids);
+
+        assertEquals(2, deleted);
+        for (Integer id : ids) {
+            assertNull(categoryRepository.findById(id));
+        }
+        assertEquals(0, categoryRepository.deleteAllById(List.of()));
+    }
+
     @AfterAll
     void tearDown() {
         if (entityManager.isOpen()) {
@@ -237,6 +237,97 @@ class CategoryRepositoryTest {
         assertEquals(2, pendingCount);
     }
 
+    @Test
+    void testApprovedMaterialsByCategoryPaged() {
+        Category savedCategory = repository.save(testCategory);
+        StudyMaterialRepository materialRepository = new StudyMaterialRepository(TestPersistenceUtil.getEntityManagerFactory());
+
+        User otherUploader = userRepo.save(new User("Other", "Uploader", "other" + System.nanoTime() + "@gmail.com", "password", creator.getRole()));
+        LocalDateTime base = LocalDateTime.now().minusHours(1);
+        for (int i = 0; i < 3; i++) {
+            StudyMaterial material = new StudyMaterial(i == 0 ? otherUploader : creator, "Paged " + i, "desc", "link", 1f, "PDF",
+                    base.plusMinutes(i), MaterialStatus.APPROVED);
+            material.setCategory(savedCategory);
+            materialRepository.save(material);
+        }
+        StudyMaterial pending = new StudyMaterial(creator, "Pending", "desc", "link", 1f, "PDF", base, MaterialStatus.PENDING);
+        pending.setCategory(savedCategory);
+        materialRepository.save(pending);
+
+        Page<StudyMaterial> first = repository.findApprovedMaterialsByCategory(savedCategory, PageRequest.first(2));
+        assertEquals(2, first.content().size());
+        assertEquals("Paged 2", first.content().get(0).getName());
+        assertTrue(first.hasNext());
+
+        Page<StudyMaterial> second = repository.findApprovedMaterialsByCategory(savedCategory, first.next());
+        assertEquals(1, second.content().size());
+        assertEquals("Paged 0", second.content().get(0).getName());
+        assertFalse(second.hasNext());
+
+        Page<MaterialSummary> creatorSummaries = repository.findApprovedCreatorSummariesByCategory(savedCategory, PageRequest.first());
+        assertEquals(2, creatorSummaries.content().size());
+        assertEquals(creator.getFullName(), creatorSummaries.content().get(0).uploaderName());
+        assertEquals(1, repository.findApprovedOtherSummariesByCategory(savedCategory, PageRequest.first()).content().size());
+        assertEquals(3, repository.findApprovedSummariesByCategory(savedCategory, PageRequest.first()).content().size());
+    }
+
+    @Test
+    void testFindPendingCountsByCreator() {
+        Category savedCategory = repository.save(testCategory);
+        repository.save(new Category("Nothing pending", creator));
+        StudyMaterialRepository materialRepository = new StudyMaterialRepository(TestPersistenceUtil.getEntityManagerFactory());
+        for (MaterialStatus status : List.of(MaterialStatus.PENDING, MaterialStatus.PENDING, MaterialStatus.APPROVED)) {
+            StudyMaterial material = new StudyMaterial(creator, "Counted", "desc", "link", 1f, "PDF", LocalDateTime.now(), status);
+            material.setCategory(savedCategory);
+            materialRepository.save(material);
+        }
+
+        List<PendingCount> pending = repository.findPendingCountsByCreator(creator);
+
+        assertEquals(1, pending.size());
+        assertEquals(savedCategory.getCategoryId(), pending.get(0).category().getCategoryId());
+        assertEquals(2, pending.get(0).pendingCount());
+    }
+
+    @Test
+    void testFindCourseOverview() {
+        Category savedCategory = repository.save(testCategory);
+        Category emptyCategory = repository.save(new Category("Empty", creator));
+        StudyMaterialRepository materialRepository = new StudyMaterialRepository(TestPersistenceUtil.getEntityManagerFactory());
+
+        LocalDateTime base = LocalDateTime.now().minusHours(1);
+        StudyMaterial newest = null;
+        for (int i = 0; i < 3; i++) {
+            StudyMaterial material = new StudyMaterial(creator, "Overview " + i, "desc", "link", 1f, "PDF",
+                    base.plusMinutes(i), MaterialStatus.APPROVED);
+            material.setCategory(savedCategory);
+            newest = materialRepository.save(material);
+        }
+        new RatingRepository(TestPersistenceUtil.getEntityManagerFactory()).save(new Rating(4, newest, creator));
+        StudyMaterial pending = new StudyMaterial(creator, "Pending", "desc", "link", 1f, "PDF", base.plusMinutes(5), MaterialStatus.PENDING);
+        pending.setCategory(savedCategory);
+        materialRepository.save(pending);
+
+        List<CourseOverview> overview = repository.findCourseOverview(2);
+
+        CourseOverview course = overview.stream()
+                .filter(o -> o.category().getCategoryId() == savedCategory.getCategoryId())
+                .findFirst().orElseThrow();
+        assertEquals(creator.getFullName(), course.category().getCreator().getFullName());
+        assertEquals(List.of("Overview 2", "Overview 1"), course.materials().content().stream().map(MaterialSummary::name).toList());
+        assertEquals(4.0, course.materials().content().get(0).averageRating());
+        assertEquals(0.0, course.materials().content().get(1).averageRating());
+        assertTrue(course.materials().hasNext());
+        Page<MaterialSummary> rest = repository.findApprovedSummariesByCategory(savedCategory, course.materials().next());
+        assertEquals("Overview 0", rest.content().get(0).name());
+
+        CourseOverview empty = overview.stream()
+                .filter(o -> o.category().getCategoryId() == emptyCategory.getCategoryId())
+                .findFirst().orElseThrow();
+        assertTrue(empty.materials().isEmpty());
+        assertFalse(empty.materials().hasNext());
+    }
+
     @Test
     void testUpdateCategoryTitle() {
         entityManager.getTransaction().begin();
@@ -0,0 +1,109 @@
+package infrastructure.repository;
+
+import domain.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+import util.TestPersistenceUtil;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialContentRepositoryTest {
+    private static EntityManagerFactory emf;
+    private MaterialContentRepository repository;
+    private StudyMaterialRepository materialRepo;
+    private User user;
+    private Category category;
+
+    @BeforeAll
+    static void setupDatabase() {
+        emf = TestPersistenceUtil.getEntityManagerFactory();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new MaterialContentRepository(emf);
+        materialRepo = new StudyMaterialRepository(emf);
+        RoleRepository roleRepo = new RoleRepository(emf);
+
+        Role testRole = roleRepo.findByName(RoleType.STUDENT);
+        if (testRole == null) {
+            testRole = roleRepo.save(new Role(RoleType.STUDENT));
+        }
+
+        user = new UserRepository(emf).save(new User("Content", "Tester", "content" + System.nanoTime() + "@test.com", "password", testRole));
+        category = new CategoryRepository(emf).save(new Category("Content Course", user));
+    }
+
+    private StudyMaterial saveMaterial(String name) {
+        StudyMaterial material = new StudyMaterial(user, name, "desc", "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        material.setCategory(category);
+        return materialRepo.save(material);
+    }
+
+    @Test
+    void textIsStoredCompressed() {
+        StudyMaterial material = saveMaterial("Long notes");
+        String text = "Gaussian elimination ".repeat(500);
+
+        repository.saveText(material.getMaterialId(), text);
+
+        MaterialContent stored = repository.findById(material.getMaterialId());
+        assertEquals(text, repository.findText(material.getMaterialId()));
+        assertEquals(text.length(), stored.getTextLength());
+        assertTrue(stored.getCompressedText().length < text.length() / 10);
+    }
+
+    @Test
+    void savingAgainReplacesText() {
+        StudyMaterial material = saveMaterial("Revised notes");
+
+        repository.saveText(material.getMaterialId(), "First draft");
+        repository.saveText(material.getMaterialId(), "Final version");
+
+        assertEquals("Final version", repository.findText(material.getMaterialId()));
+        assertNull(repository.findText(-1));
+    }
+
+    @Test
+    void forEachTextReadsInBatches() {
+        repository.setBatchSize(1);
+        StudyMaterial first = saveMaterial("First");
+        StudyMaterial second = saveMaterial("Second");
+        repository.saveText(first.getMaterialId(), "Matrices");
+        repository.saveText(second.getMaterialId(), "Vectors");
+
+        Map<Integer, String> texts = new HashMap<>();
+        repository.forEachText((text, materialId) -> texts.put(materialId, text));
+
+        assertEquals("Matrices", texts.get(first.getMaterialId()));
+        assertEquals("Vectors", texts.get(second.getMaterialId()));
+    }
+
+    @Test
+    void deletingMaterialDeletesText() {
+        StudyMaterial material = saveMaterial("Deleted");
+        repository.saveText(material.getMaterialId(), "Gone");
+
+        materialRepo.delete(material);
+
+        assertNull(repository.findText(material.getMaterialId()));
+    }
+
+    @Test
+    void textOfDeletedMaterialIsNotSaved() {
+        StudyMaterial material = saveMaterial("Deleted before extraction");
+        materialRepo.delete(material);
+
+        assertFalse(repository.saveText(material.getMaterialId(), "Too late"));
+        assertNull(repository.findText(material.getMaterialId()));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestPersistenceUtil.closeEntityManagerFactory();
+    }
+}
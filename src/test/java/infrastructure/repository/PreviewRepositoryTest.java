@@ -0,0 +1,108 @@
+package infrastructure.repository;
+
+import domain.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+import util.TestPersistenceUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreviewRepositoryTest {
+    private static EntityManagerFactory emf;
+    private PreviewRepository repository;
+    private StudyMaterialRepository materialRepo;
+    private User user;
+    private Category category;
+
+    @BeforeAll
+    static void setupDatabase() {
+        emf = TestPersistenceUtil.getEntityManagerFactory();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new PreviewRepository(emf);
+        materialRepo = new StudyMaterialRepository(emf);
+        RoleRepository roleRepo = new RoleRepository(emf);
+
+        Role testRole = roleRepo.findByName(RoleType.STUDENT);
+        if (testRole == null) {
+            testRole = roleRepo.save(new Role(RoleType.STUDENT));
+        }
+
+        user = new UserRepository(emf).save(new User("Preview", "Tester", "preview" + System.nanoTime() + "@test.com", "password", testRole));
+        category = new CategoryRepository(emf).save(new Category("Preview Course", user));
+    }
+
+    private StudyMaterial saveMaterial(String name, byte[] preview) {
+        StudyMaterial material = new StudyMaterial(user, name, "desc", "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        material.setCategory(category);
+        material.setPreviewImage(preview);
+        return materialRepo.save(material);
+    }
+
+    @Test
+    void previewIsStoredOutsideMaterialRow() {
+        byte[] image = {1, 2, 3, 4};
+        StudyMaterial material = saveMaterial("With preview", image);
+
+        assertArrayEquals(image, repository.findImage(material.getMaterialId()));
+        assertNull(materialRepo.findById(material.getMaterialId()).getPreviewImage());
+    }
+
+    @Test
+    void findImagesFetchesManyPreviewsAtOnce() {
+        repository.setBatchSize(1);
+        StudyMaterial first = saveMaterial("First", new byte[]{1});
+        StudyMaterial second = saveMaterial("Second", new byte[]{2});
+        StudyMaterial withoutPreview = saveMaterial("None", null);
+
+        Map<Integer, byte[]> images = repository.findImages(List.of(first.getMaterialId(), second.getMaterialId(), withoutPreview.getMaterialId()));
+
+        assertEquals(2, images.size());
+        assertArrayEquals(new byte[]{1}, images.get(first.getMaterialId()));
+        assertArrayEquals(new byte[]{2}, images.get(second.getMaterialId()));
+        assertFalse(images.containsKey(withoutPreview.getMaterialId()));
+        assertTrue(repository.findImages(List.of()).isEmpty());
+    }
+
+    @Test
+    void uploadsOfSameContentShareOnePreview() {
+        String link = "local:sha256:" + "c".repeat(64);
+        new StoredFileRepository(emf).remember(new StoredFile("c".repeat(64), link, "application/pdf", 10, new byte[]{5, 6}));
+        StudyMaterial first = new StudyMaterial(user, "Copy one", "desc", link, 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        StudyMaterial second = new StudyMaterial(user, "Copy two", "desc", link, 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        first.setCategory(category);
+        second.setCategory(category);
+        materialRepo.save(first);
+        materialRepo.save(second);
+
+        Map<Integer, byte[]> images = repository.findImages(List.of(first.getMaterialId(), second.getMaterialId()));
+
+        assertArrayEquals(new byte[]{5, 6}, images.get(first.getMaterialId()));
+        assertArrayEquals(new byte[]{5, 6}, images.get(second.getMaterialId()));
+        assertNull(repository.findById(first.getMaterialId()));
+        assertNull(repository.findById(second.getMaterialId()));
+
+        materialRepo.delete(first);
+        assertArrayEquals(new byte[]{5, 6}, repository.findImage(second.getMaterialId()));
+    }
+
+    @Test
+    void deletingMaterialDeletesPreview() {
+        StudyMaterial material = saveMaterial("Deleted", new byte[]{9});
+
+        materialRepo.delete(material);
+
+        assertNull(repository.findImage(material.getMaterialId()));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestPersistenceUtil.closeEntityManagerFactory();
+    }
+}
@@ -6,6 +6,7 @@ import util.TestPersistenceUtil;
 import jakarta.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +49,21 @@ class RatingRepositoryTest {
         testRating = repository.save(testRating);
     }
 
+    @Test
+    void testFindAverageRatings() {
+        StudyMaterial unrated = materialRepo.save(new StudyMaterial(user, "Unrated", "No ratings",
+                "link", 1.0f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED));
+        repository.save(new Rating(2, material, user));
+
+        Map<Integer, RatingStats> stats = repository.findAverageRatings(List.of(material.getMaterialId(), unrated.getMaterialId()));
+
+        assertEquals(1, stats.size());
+        assertEquals(3.5, stats.get(material.getMaterialId()).average(), 0.001);
+        assertEquals(2, stats.get(material.getMaterialId()).count());
+        assertFalse(stats.containsKey(unrated.getMaterialId()));
+        assertTrue(repository.findAverageRatings(List.of()).isEmpty());
+    }
+
     @Test
     void testSave() {
         assertNotNull(testRating);
@@ -179,6 +195,58 @@ class RatingRepositoryTest {
         assertNull(deletedRating, "Rating should be deleted");
     }
 
+    @Test
+    void testUpdateScore() {
+        repository.save(new Rating(3, material, user));
+
+        Rating updated = repository.updateScore(testRating, 1);
+
+        assertEquals(1, updated.getRatingScore());
+        assertEquals(1, repository.findById(testRating.getRatingId()).getRatingScore());
+        assertEquals(2.0, repository.findAverageRatingByMaterial(material), 0.01);
+        assertEquals(2, repository.findAverageRatings(List.of(material.getMaterialId())).get(material.getMaterialId()).count());
+    }
+
+    @Test
+    void testUpdateScore_DeletedRating() {
+        Rating deleted = repository.save(new Rating(3, material, user));
+        repository.deleteById(deleted.getRatingId());
+
+        assertThrows(jakarta.persistence.EntityNotFoundException.class, () -> repository.updateScore(deleted, 5));
+        assertEquals(5.0, repository.findAverageRatingByMaterial(material), 0.01);
+    }
+
+    @Test
+    void testDeleteById_UpdatesTotals() {
+        repository.save(new Rating(3, material, user));
+
+        repository.deleteById(testRating.getRatingId());
+
+        assertEquals(3.0, repository.findAverageRatingByMaterial(material), 0.01);
+        assertEquals(1, repository.findAverageRatings(List.of(material.getMaterialId())).get(material.getMaterialId()).count());
+    }
+
+    @Test
+    void testDeleteAllById_UpdatesTotals() {
+        Rating second = repository.save(new Rating(3, material, user));
+
+        repository.deleteAllById(List.of(testRating.getRatingId(), second.getRatingId()));
+
+        assertEquals(0.0, repository.findAverageRatingByMaterial(material), 0.01);
+        assertTrue(repository.findAverageRatings(List.of(material.getMaterialId())).isEmpty());
+    }
+
+    @Test
+    void testRebuildRatingTotals() {
+        repository.save(new Rating(2, material, user));
+
+        assertTrue(repository.rebuildRatingTotals() > 0);
+
+        RatingStats stats = repository.findAverageRatings(List.of(material.getMaterialId())).get(material.getMaterialId());
+        assertEquals(3.5, stats.average(), 0.01);
+        assertEquals(2, stats.count());
+    }
+
     @Test
     void testDeleteByMaterial_WithMultipleRatings() {
 
@@ -196,6 +264,7 @@ class RatingRepositoryTest {
 
         List<Rating> remainingRatings = repository.findByMaterial(material);
         assertEquals(0, remainingRatings.size(), "All ratings for the material should be deleted");
+        assertEquals(0.0, repository.findAverageRatingByMaterial(material), 0.01);
     }
 
 
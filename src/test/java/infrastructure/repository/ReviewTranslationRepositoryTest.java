@@ -0,0 +1,72 @@
+package infrastructure.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+import util.TestPersistenceUtil;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewTranslationRepositoryTest {
+    private static EntityManagerFactory emf;
+    private static int nextReviewId = 900_000;
+    private ReviewTranslationRepository repository;
+
+    @BeforeAll
+    static void setupDatabase() {
+        emf = TestPersistenceUtil.getEntityManagerFactory();
+        new ReviewTranslationRepository(emf).createTableIfMissing();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReviewTranslationRepository(emf);
+    }
+
+    @Test
+    void saveTranslationsUpsertsByLanguage() {
+        int reviewId = nextReviewId++;
+        repository.saveTranslations(reviewId, Map.of("en", "Great", "fi", "Loistava"));
+
+        repository.saveTranslations(reviewId, Map.of("en", "Really great"));
+
+        assertEquals(Map.of("en", "Really great", "fi", "Loistava"), repository.getAllTranslations(reviewId));
+        assertEquals("Loistava", repository.getTranslation(reviewId, "fi"));
+        assertNull(repository.getTranslation(reviewId, "zh"));
+    }
+
+    @Test
+    void saveAllTranslationsWritesManyReviews() {
+        repository.setBatchSize(2);
+        int first = nextReviewId++;
+        int second = nextReviewId++;
+
+        repository.saveAllTranslations(Map.of(
+                first, Map.of("en", "One", "fi", "Yksi"),
+                second, Map.of("en", "Two")));
+
+        assertEquals(Map.of("en", "One", "fi", "Yksi"), repository.getAllTranslations(first));
+        assertEquals(Map.of("en", "Two"), repository.getAllTranslations(second));
+    }
+
+    @Test
+    void findTranslationsReturnsOneLanguageForManyReviews() {
+        int first = nextReviewId++;
+        int second = nextReviewId++;
+        repository.saveAllTranslations(Map.of(
+                first, Map.of("en", "Good", "ru", "Khorosho"),
+                second, Map.of("en", "Bad")));
+
+        Map<Integer, String> translations = repository.findTranslations(List.of(first, second), "ru");
+
+        assertEquals(Map.of(first, "Khorosho"), translations);
+        assertTrue(repository.findTranslations(List.of(), "ru").isEmpty());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestPersistenceUtil.closeEntityManagerFactory();
+    }
+}
@@ -0,0 +1,55 @@
+package infrastructure.repository;
+
+import domain.model.StoredFile;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+import util.TestPersistenceUtil;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoredFileRepositoryTest {
+    private static EntityManagerFactory emf;
+    private StoredFileRepository repository;
+
+    @BeforeAll
+    static void setupDatabase() {
+        emf = TestPersistenceUtil.getEntityManagerFactory();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new StoredFileRepository(emf);
+    }
+
+    private static String hash(char digit) {
+        return String.valueOf(digit).repeat(64);
+    }
+
+    @Test
+    void rememberedFileIsFoundByHash() {
+        byte[] preview = {7, 8, 9};
+        repository.remember(new StoredFile(hash('1'), "https://drive.google.com/file/d/one/view", "application/pdf", 1024, preview));
+
+        StoredFile found = repository.findByHash(hash('1'));
+
+        assertEquals("https://drive.google.com/file/d/one/view", found.getLink());
+        assertEquals("application/pdf", found.getFileType());
+        assertEquals(1024, found.getFileSize());
+        assertArrayEquals(preview, found.getPreviewImage());
+        assertNull(repository.findByHash(hash('0')));
+    }
+
+    @Test
+    void firstStoredCopyWins() {
+        StoredFile first = repository.remember(new StoredFile(hash('2'), "local:sha256:" + hash('2'), "text/plain", 5, new byte[0]));
+        StoredFile second = repository.remember(new StoredFile(hash('2'), "https://drive.google.com/file/d/two/view", "text/plain", 5, new byte[0]));
+
+        assertEquals(first.getLink(), second.getLink());
+        assertEquals("local:sha256:" + hash('2'), repository.findByHash(hash('2')).getLink());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestPersistenceUtil.closeEntityManagerFactory();
+    }
+}
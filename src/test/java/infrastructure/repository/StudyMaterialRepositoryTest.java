@@ -5,6 +5,7 @@ import org.junit.jupiter.api.*;
 import util.TestPersistenceUtil;
 import jakarta.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -154,6 +155,125 @@ class StudyMaterialRepositoryTest {
         assertTrue(updatedApprovedMaterials.stream().allMatch(m -> m.getStatus() == MaterialStatus.APPROVED));
     }
 
+    @Test
+    void findByUserPagesThroughAllMaterialsNewestFirst() {
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 4; i++) {
+            StudyMaterial material = new StudyMaterial(user, "Paged " + i, "Page test", "link", 1f, "PDF",
+                    base.plusMinutes(i / 2), MaterialStatus.APPROVED);
+            material.setCategory(category);
+            repository.save(material);
+        }
+
+        List<StudyMaterial> seen = new ArrayList<>();
+        Page<StudyMaterial> page = repository.findByUser(user, PageRequest.first(2));
+        int pages = 1;
+        seen.addAll(page.content());
+        while (page.hasNext()) {
+            page = repository.findByUser(user, page.next());
+            seen.addAll(page.content());
+            pages++;
+        }
+
+        assertEquals(5, seen.size());
+        assertEquals(3, pages);
+        assertEquals(5, seen.stream().map(StudyMaterial::getMaterialId).distinct().count());
+        assertEquals(testMaterial.getMaterialId(), seen.get(0).getMaterialId());
+        for (int i = 1; i < seen.size(); i++) {
+            StudyMaterial previous = seen.get(i - 1);
+            StudyMaterial current = seen.get(i);
+            assertTrue(previous.getTimestamp().isAfter(current.getTimestamp())
+                    || (previous.getTimestamp().equals(current.getTimestamp())
+                        && previous.getMaterialId() > current.getMaterialId()));
+        }
+    }
+
+    @Test
+    void findByStatusPageOldestFirst() {
+        Page<StudyMaterial> page = repository.findByStatus(MaterialStatus.PENDING, PageRequest.first(1, PageRequest.Sort.OLDEST_FIRST));
+
+        assertEquals(1, page.content().size());
+        assertEquals(MaterialStatus.PENDING, page.content().get(0).getStatus());
+        if (page.hasNext()) {
+            StudyMaterial next = repository.findByStatus(MaterialStatus.PENDING, page.next()).content().get(0);
+            assertFalse(next.getTimestamp().isBefore(page.content().get(0).getTimestamp()));
+        }
+    }
+
+    @Test
+    void findSummariesCarryListFields() {
+        RatingRepository ratingRepo = new RatingRepository(emf);
+        ratingRepo.save(new Rating(4, testMaterial, user));
+        ratingRepo.save(new Rating(5, testMaterial, user));
+
+        List<MaterialSummary> reviewed = repository.findReviewedSummariesByUserLatest10(user);
+
+        assertEquals(1, reviewed.size());
+        MaterialSummary summary = reviewed.get(0);
+        assertEquals(testMaterial.getMaterialId(), summary.materialId());
+        assertEquals("Java for dummies", summary.name());
+        assertEquals("Armas Nevolainen", summary.uploaderName());
+        assertEquals("PDF", summary.fileType());
+        assertEquals(4.5, ratingRepo.findAverageRatings(List.of(summary.materialId())).get(summary.materialId()).average(), 0.001);
+
+        List<MaterialSummary> found = repository.findSummariesByNameOrDescription("DUMMIES");
+        assertTrue(found.stream().anyMatch(m -> m.materialId() == testMaterial.getMaterialId()));
+
+        Page<MaterialSummary> byUser = repository.findSummariesByUser(user, PageRequest.first());
+        assertEquals(1, byUser.content().size());
+        Tag unusedTag = new TagRepository(emf).save(new Tag("summary" + System.nanoTime(), user));
+        assertTrue(repository.findSummariesByTag(unusedTag, PageRequest.first()).isEmpty());
+    }
+
+    @Test
+    void findBestReviewedHighestAverageFirst() {
+        StudyMaterial weaker = repository.save(new StudyMaterial(user, "Weaker", "Rated low",
+                "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED));
+        RatingRepository ratingRepo = new RatingRepository(emf);
+        ratingRepo.save(new Rating(5, testMaterial, user));
+        ratingRepo.save(new Rating(1, weaker, user));
+
+        List<StudyMaterial> best = repository.findBestReviewedMaterials(1000);
+        for (int i = 1; i < best.size(); i++) {
+            assertTrue(best.get(i - 1).getRatingAverage() >= best.get(i).getRatingAverage());
+        }
+        List<Integer> ids = repository.findBestReviewedSummaries(1000).stream().map(MaterialSummary::materialId).toList();
+        assertTrue(ids.indexOf(testMaterial.getMaterialId()) < ids.indexOf(weaker.getMaterialId()));
+    }
+
+    @Test
+    void findSummariesByIdsKeepsOrder() {
+        StudyMaterial other = repository.save(new StudyMaterial(user, "Other", "Second",
+                "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED));
+
+        List<MaterialSummary> summaries = repository.findSummariesByIds(
+                List.of(other.getMaterialId(), -1, testMaterial.getMaterialId()));
+
+        assertEquals(List.of(other.getMaterialId(), testMaterial.getMaterialId()),
+                summaries.stream().map(MaterialSummary::materialId).toList());
+        assertTrue(repository.findSummariesByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void findSearchDocumentsCarryCourseAndTags() {
+        Tag tag = new TagRepository(emf).save(new Tag("search" + System.nanoTime(), user));
+        testMaterial.getTags().add(tag);
+        repository.update(testMaterial);
+
+        SearchDocument document = repository.findSearchDocuments().stream()
+                .filter(d -> d.materialId() == testMaterial.getMaterialId())
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals("Java for dummies", document.name());
+        assertEquals("Introduction to Java Programming for dummies", document.description());
+        assertEquals(category.getCategoryId(), document.categoryId());
+        assertEquals("Test Category", document.courseName());
+        assertEquals(tag.getTagName(), document.tags().get(tag.getTagId()));
+        assertEquals(0.0, document.ratingAverage(), 0.001);
+        assertNotNull(document.timestamp());
+    }
+
     @AfterAll
     static void tearDown() {
         TestPersistenceUtil.closeEntityManagerFactory();
@@ -0,0 +1,113 @@
+package infrastructure.repository;
+
+import domain.model.MaterialTranslation;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+import util.TestPersistenceUtil;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudyMaterialTranslationRepositoryTest {
+    private static EntityManagerFactory emf;
+    private static int nextMaterialId = 900_000;
+    private StudyMaterialTranslationRepository repository;
+
+    @BeforeAll
+    static void setupDatabase() {
+        emf = TestPersistenceUtil.getEntityManagerFactory();
+        new StudyMaterialTranslationRepository(emf).createTableIfMissing();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new StudyMaterialTranslationRepository(emf);
+    }
+
+    @Test
+    void saveTranslationsInsertsEveryLanguage() {
+        int materialId = nextMaterialId++;
+
+        repository.saveTranslations(materialId,
+                Map.of("en", "Algebra", "fi", "Algebra FI"),
+                Map.of("en", "Linear algebra", "fi", "Lineaarialgebra"));
+
+        assertEquals(Map.of("en", "Algebra", "fi", "Algebra FI"), repository.getNameTranslations(materialId));
+        assertEquals(Map.of("en", "Linear algebra", "fi", "Lineaarialgebra"), repository.getDescriptionTranslations(materialId));
+    }
+
+    @Test
+    void saveTranslationsUpdatesExistingLanguage() {
+        int materialId = nextMaterialId++;
+        repository.saveTranslations(materialId, Map.of("en", "Old"), Map.of("en", "Old description"));
+
+        repository.saveTranslations(materialId, Map.of("en", "New", "ru", "Novyi"), Map.of("en", "New description"));
+
+        assertEquals(Map.of("en", "New", "ru", "Novyi"), repository.getNameTranslations(materialId));
+        assertEquals("New description", repository.getDescriptionTranslations(materialId).get("en"));
+        assertEquals("", repository.getDescriptionTranslations(materialId).get("ru"));
+    }
+
+    @Test
+    void longDescriptionIsSavedWhole() {
+        int materialId = nextMaterialId++;
+        String description = "Eigenvalues and eigenvectors. ".repeat(400);
+
+        repository.saveTranslations(materialId, Map.of("en", "Eigen"), Map.of("en", description));
+
+        assertEquals(description, repository.getDescriptionTranslations(materialId).get("en"));
+    }
+
+    @Test
+    void createTableIfMissingCanRunAgain() {
+        int materialId = nextMaterialId++;
+        repository.saveTranslations(materialId, Map.of("en", "Kept"), Map.of("en", "Kept description"));
+
+        repository.createTableIfMissing();
+        repository.saveTranslations(materialId, Map.of("en", "Updated"), Map.of("en", "Kept description"));
+
+        assertEquals(Map.of("en", "Updated"), repository.getNameTranslations(materialId));
+    }
+
+    @Test
+    void saveAllTranslationsWritesManyMaterialsInBatches() {
+        repository.setBatchSize(3);
+        Map<Integer, Map<String, String>> names = new HashMap<>();
+        Map<Integer, Map<String, String>> descriptions = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            int materialId = nextMaterialId++;
+            names.put(materialId, Map.of("en", "Name " + i, "fi", "Nimi " + i));
+            descriptions.put(materialId, Map.of("en", "Description " + i));
+        }
+
+        repository.saveAllTranslations(names, descriptions);
+
+        names.forEach((materialId, expected) -> assertEquals(expected, repository.getNameTranslations(materialId)));
+    }
+
+    @Test
+    void findTranslationsReturnsOneLanguageForManyMaterials() {
+        repository.setBatchSize(1);
+        int first = nextMaterialId++;
+        int second = nextMaterialId++;
+        int untranslated = nextMaterialId++;
+        repository.saveTranslations(first, Map.of("fi", "Eka", "en", "First"), Map.of("fi", "Kuvaus"));
+        repository.saveTranslations(second, Map.of("fi", "Toka"), Map.of("fi", "Toinen kuvaus"));
+
+        Map<Integer, MaterialTranslation> translations = repository.findTranslations(List.of(first, second, untranslated), "fi");
+
+        assertEquals(2, translations.size());
+        assertEquals(new MaterialTranslation("Eka", "Kuvaus"), translations.get(first));
+        assertEquals(new MaterialTranslation("Toka", "Toinen kuvaus"), translations.get(second));
+        assertFalse(translations.containsKey(untranslated));
+        assertTrue(repository.findTranslations(List.of(), "fi").isEmpty());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestPersistenceUtil.closeEntityManagerFactory();
+    }
+}
@@ -0,0 +1,54 @@
+package infrastructure.repository;
+
+import domain.model.TranslationMemoryEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.TestPersistenceUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationMemoryRepositoryTest {
+    private TranslationMemoryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TranslationMemoryRepository(TestPersistenceUtil.getEntityManagerFactory());
+    }
+
+    @Test
+    void saveEntriesUpsertsByHash() {
+        String hash = UUID.randomUUID().toString();
+        repository.saveEntries(List.of(new TranslationMemoryEntry(hash, "en", "fi", "Hei")));
+
+        repository.saveEntries(List.of(new TranslationMemoryEntry(hash, "en", "fi", "Moi")));
+
+        assertEquals(Map.of(hash, "Moi"), repository.findTranslations(List.of(hash)));
+    }
+
+    @Test
+    void findTranslationsSkipsUnknownHashes() {
+        repository.setBatchSize(1);
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        repository.saveEntries(List.of(
+                new TranslationMemoryEntry(first, "en", "fi", "Yksi"),
+                new TranslationMemoryEntry(second, "en", "fi", "Kaksi")));
+
+        Map<String, String> found = repository.findTranslations(List.of(first, second, "missing"));
+
+        assertEquals(Map.of(first, "Yksi", second, "Kaksi"), found);
+    }
+
+    @Test
+    void findMostRecentRespectsLimit() {
+        repository.saveEntries(List.of(
+                new TranslationMemoryEntry(UUID.randomUUID().toString(), "en", "fi", "A"),
+                new TranslationMemoryEntry(UUID.randomUUID().toString(), "en", "fi", "B")));
+
+        assertEquals(1, repository.findMostRecent(1).size());
+    }
+}
@@ -0,0 +1,100 @@
+package infrastructure.repository;
+
+import domain.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+import util.TestPersistenceUtil;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UnitOfWorkTest {
+    private EntityManagerFactory emf;
+    private StudyMaterialRepository materialRepo;
+    private CategoryRepository categoryRepo;
+    private RoleRepository roleRepo;
+    private UserRepository userRepo;
+
+    private User user;
+    private StudyMaterial material;
+
+    @BeforeAll
+    void setupDatabase() {
+        emf = TestPersistenceUtil.getEntityManagerFactory();
+        materialRepo = new StudyMaterialRepository(emf);
+        categoryRepo = new CategoryRepository(emf);
+        roleRepo = new RoleRepository(emf);
+        userRepo = new UserRepository(emf);
+    }
+
+    @BeforeEach
+    void setUp() {
+        Role testRole = roleRepo.findByName(RoleType.TEACHER);
+        if (testRole == null) {
+            testRole = roleRepo.save(new Role(RoleType.TEACHER));
+        }
+
+        user = userRepo.save(new User("Unit", "Work", "uow" + System.nanoTime() + "@test.com", "password", testRole));
+        Category category = categoryRepo.save(new Category("UoW Course", user));
+
+        material = new StudyMaterial(user, "Shared Context", "Loaded once",
+                "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        material.setCategory(category);
+        material = materialRepo.save(material);
+    }
+
+    @Test
+    void repositoriesShareEntityManagerInsideUnitOfWork() {
+        UnitOfWork.run(emf, em -> {
+            StudyMaterial first = materialRepo.findById(material.getMaterialId());
+            StudyMaterial second = new StudyMaterialRepository(emf).findById(material.getMaterialId());
+
+            assertSame(first, second);
+            assertTrue(em.contains(first));
+        });
+    }
+
+    @Test
+    void repositoriesUseSeparateEntityManagersWithoutUnitOfWork() {
+        StudyMaterial first = materialRepo.findById(material.getMaterialId());
+        StudyMaterial second = materialRepo.findById(material.getMaterialId());
+
+        assertNotSame(first, second);
+        assertFalse(UnitOfWork.isOpen());
+    }
+
+    @Test
+    void writesCommitInsideUnitOfWork() {
+        Category saved = UnitOfWork.call(emf, em -> categoryRepo.save(new Category("Saved In Scope", user)));
+
+        Category found = categoryRepo.findById(saved.getCategoryId());
+        assertNotNull(found);
+        assertEquals("Saved In Scope", found.getCategoryName());
+    }
+
+    @Test
+    void nestedUnitOfWorkJoinsOuterScope() {
+        UnitOfWork.run(emf, outer -> {
+            StudyMaterial first = materialRepo.findById(material.getMaterialId());
+            StudyMaterial nested = UnitOfWork.call(emf, inner -> materialRepo.findById(material.getMaterialId()));
+
+            assertSame(first, nested);
+        });
+        assertFalse(UnitOfWork.isOpen());
+    }
+
+    @Test
+    void repositoryJoinsOuterTransaction() {
+        Category saved = UnitOfWork.call(emf, em -> {
+            em.getTransaction().begin();
+            Category category = categoryRepo.save(new Category("Rolled Back", user));
+            assertTrue(em.getTransaction().isActive());
+            em.getTransaction().rollback();
+            return category;
+        });
+
+        assertNull(categoryRepo.findById(saved.getCategoryId()));
+    }
+}
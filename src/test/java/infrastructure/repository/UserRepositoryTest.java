@@ -1,8 +1,6 @@
 package infrastructure.repository;
 
-import domain.model.RoleType;
-import domain.model.User;
-import domain.model.Role;
+import domain.model.*;
 import domain.service.PasswordService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
@@ -10,6 +8,7 @@ import jakarta.persistence.EntityTransaction;
 import org.junit.jupiter.api.*;
 import util.TestPersistenceUtil;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -161,6 +160,51 @@ class UserRepositoryTest {
         }
     }
 
+    @Test
+    void testDeleteUserRemovesOwnedRows() {
+        User owner = repository.save(testUser);
+        User other = repository.save(new User("Other", "User", "other" + System.nanoTime() + "@example.com", "password", owner.getRole()));
+        StudyMaterialRepository materialRepo = new StudyMaterialRepository(emf);
+        RatingRepository ratingRepo = new RatingRepository(emf);
+        ReviewRepository reviewRepo = new ReviewRepository(emf);
+
+        StudyMaterial uploaded = new StudyMaterial(owner, "Owned", "desc", "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        uploaded.setPreviewImage(new byte[]{1});
+        uploaded = materialRepo.save(uploaded);
+        reviewRepo.save(new Review("Nice", uploaded, other));
+        ratingRepo.save(new Rating(4, uploaded, other));
+
+        Category course = new CategoryRepository(emf).save(new Category("Owned course", owner));
+        StudyMaterial inCourse = new StudyMaterial(other, "In course", "desc", "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED);
+        inCourse.setCategory(course);
+        inCourse = materialRepo.save(inCourse);
+
+        StudyMaterial rated = materialRepo.save(new StudyMaterial(other, "Rated", "desc", "link", 1f, "PDF", LocalDateTime.now(), MaterialStatus.APPROVED));
+        ratingRepo.save(new Rating(5, rated, owner));
+        ratingRepo.save(new Rating(3, rated, other));
+        reviewRepo.save(new Review("Mine", rated, owner));
+        Tag tag = new TagRepository(emf).save(new Tag("owned" + System.nanoTime(), owner));
+        rated.getTags().add(tag);
+        materialRepo.update(rated);
+
+        repository.deleteUser(owner);
+
+        assertNull(repository.findById(owner.getUserId()));
+        assertNull(materialRepo.findById(uploaded.getMaterialId()));
+        assertNull(materialRepo.findById(inCourse.getMaterialId()));
+        assertNull(new CategoryRepository(emf).findById(course.getCategoryId()));
+        assertNull(new TagRepository(emf).findById(tag.getTagId()));
+        assertNull(new PreviewRepository(emf).findImage(uploaded.getMaterialId()));
+        assertTrue(reviewRepo.findByUser(owner).isEmpty());
+        assertTrue(ratingRepo.findByUser(owner).isEmpty());
+
+        StudyMaterial remaining = materialRepo.findById(rated.getMaterialId());
+        assertNotNull(remaining);
+        assertTrue(remaining.getTags().isEmpty());
+        assertEquals(3.0, ratingRepo.findAverageRatingByMaterial(remaining), 0.01);
+        assertEquals(1, remaining.getRatingCount());
+    }
+
     @Test
     void testDefaultConstructor() {
         UserRepository defaultRepo = new UserRepository();